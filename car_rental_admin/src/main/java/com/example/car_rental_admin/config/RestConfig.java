@@ -2,12 +2,17 @@ package com.example.car_rental_admin.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestConfig {
     @Bean
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        // Có timeout để owner service chậm không giữ thread của outbox relay mãi
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(2000);
+        factory.setReadTimeout(5000);
+        return new RestTemplate(factory);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package com.example.car_rental_admin.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tách khỏi class Application để các slice test (@DataJpaTest) không chạy job nền
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,81 @@
+package com.example.car_rental_admin.config;
+
+import com.example.car_rental_admin.model.OutboundMail;
+import com.example.car_rental_admin.model.OutboxEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * outbox_events và outbound_mail dùng chung với car_rental_server nhưng mỗi module có bản entity riêng.
+ * Khi khởi động, so cột trong DB với mapping của admin: một cột NOT NULL không có default mà admin không
+ * map (server thêm cột, admin chưa cập nhật) làm mọi INSERT từ admin hỏng, nên dừng start với lỗi rõ ràng.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SharedTableSchemaCheck {
+    private static final List<Class<?>> SHARED_ENTITIES = List.of(OutboxEvent.class, OutboundMail.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        List<String> problems = new ArrayList<>();
+        for (Class<?> entity : SHARED_ENTITIES) {
+            EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entity);
+            String table = ((AbstractEntityPersister) persister).getTableName();
+            Set<String> mapped = new HashSet<>();
+            persister.getIdentifierMapping().forEachSelectable((i, column) -> mapped.add(column.getSelectionExpression().toLowerCase(Locale.ROOT)));
+            persister.forEachSelectable((i, column) -> mapped.add(column.getSelectionExpression().toLowerCase(Locale.ROOT)));
+            try {
+                for (String column : unmappedRequiredColumns(table, mapped)) {
+                    problems.add(table + "." + column + " (" + entity.getSimpleName() + ")");
+                }
+            } catch (SQLException e) {
+                log.warn("Could not read columns of {} for the shared schema check", table, e);
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Shared tables have NOT NULL columns admin does not map, "
+                    + "update the admin entity to match car_rental_server: " + problems);
+        }
+    }
+
+    private List<String> unmappedRequiredColumns(String table, Set<String> mapped) throws SQLException {
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData meta = connection.getMetaData();
+            String tablePattern = meta.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+            try (ResultSet rs = meta.getColumns(connection.getCatalog(), null, tablePattern, null)) {
+                while (rs.next()) {
+                    String column = rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT);
+                    boolean required = "NO".equals(rs.getString("IS_NULLABLE"))
+                            && rs.getString("COLUMN_DEF") == null
+                            && !"YES".equals(rs.getString("IS_AUTOINCREMENT"));
+                    if (required && !mapped.contains(column)) missing.add(column);
+                }
+            }
+        }
+        return missing;
+    }
+}
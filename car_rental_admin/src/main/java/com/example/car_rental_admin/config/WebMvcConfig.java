@@ -0,0 +1,18 @@
+package com.example.car_rental_admin.config;
+
+import com.example.car_rental_admin.controller.AdminLayoutInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+    private final AdminLayoutInterceptor adminLayoutInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(adminLayoutInterceptor).addPathPatterns("/admin/**");
+    }
+}
@@ -1,87 +1,91 @@
 package com.example.car_rental_admin.controller;
 
 
+import com.example.car_rental_admin.dto.BookingFilter;
+import com.example.car_rental_admin.enums.BookingStatus;
 import com.example.car_rental_admin.model.Booking;
+import com.example.car_rental_admin.service.booking.IBookingExportService;
 import com.example.car_rental_admin.service.booking.IBookingService;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
-import java.util.List;
+import java.time.LocalDate;
+import java.util.Map;
 
 @Controller
 @RequiredArgsConstructor
 public class AdminBookingController {
     private final IBookingService bookingService;
+    private final IBookingExportService bookingExportService;
 
     @GetMapping("/admin/bookings")
-    public String bookings(Model model) {
-        List<Booking> bookings = bookingService.getAllBookings();
-        long pendingCount = bookings.stream().filter(b -> b.getStatus() != null && b.getStatus().name().equals("PENDING")).count();
-        long approvedCount = bookings.stream().filter(b -> b.getStatus() != null && b.getStatus().name().equals("CONFIRMED")).count();
-        long completedCount = bookings.stream().filter(b -> b.getStatus() != null && b.getStatus().name().equals("COMPLETED")).count();
+    public String bookings(@ModelAttribute("filter") BookingFilter filter,
+                           @RequestParam(name = "page", defaultValue = "0") int page,
+                           @RequestParam(name = "size", defaultValue = "10") int size,
+                           Model model) {
+        // Chỉ load 1 trang; số liệu theo trạng thái lấy bằng 1 query GROUP BY
+        Page<Booking> bookingPage;
+        try {
+            bookingPage = bookingService.searchBookings(filter, page, size);
+        } catch (IllegalArgumentException e) {
+            // Như export: status lạ trả 400 thay vì âm thầm bỏ lọc
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Map<BookingStatus, Long> statusCounts = bookingService.countByStatus();
 
         model.addAttribute("activeMenu", "bookings");
-        model.addAttribute("bookings", bookings);
-        model.addAttribute("pendingCount", pendingCount);
-        model.addAttribute("approvedCount", approvedCount);
-        model.addAttribute("completedCount", completedCount);
+        model.addAttribute("bookings", bookingPage.getContent());
+        model.addAttribute("currentPage", bookingPage.getNumber() + 1);
+        model.addAttribute("pageSize", bookingPage.getSize());
+        model.addAttribute("totalPages", bookingPage.getTotalPages());
+        model.addAttribute("totalElements", bookingPage.getTotalElements());
+        model.addAttribute("statuses", BookingStatus.values());
+        model.addAttribute("pendingCount", statusCounts.get(BookingStatus.PENDING));
+        model.addAttribute("approvedCount", statusCounts.get(BookingStatus.CONFIRMED));
+        model.addAttribute("completedCount", statusCounts.get(BookingStatus.COMPLETED));
 
         return "admin/bookings";
     }
 
+    // /admin/bookings/export?from=2025-01-01&to=2025-01-31&status=COMPLETED&format=csv (mọi tham số đều tuỳ chọn)
     @GetMapping("/admin/bookings/export")
-    public void exportBookingsToExcel(HttpServletResponse response) throws IOException {
-        List<Booking> bookings = bookingService.getAllBookings();
-
-        // Set response headers
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setHeader("Content-Disposition", "attachment; filename=bookings.xlsx");
-
-        // Create workbook
-        try (var workbook = new org.apache.poi.xssf.usermodel.XSSFWorkbook()) {
-            var sheet = workbook.createSheet("Bookings");
-
-            // Create cell style with border
-            var borderStyle = workbook.createCellStyle();
-            borderStyle.setBorderTop(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-            borderStyle.setBorderBottom(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-            borderStyle.setBorderLeft(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-            borderStyle.setBorderRight(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-
-            // Header
-            var header = sheet.createRow(0);
-            String[] columns = { "Customer", "Owner", "Car", "Start", "End", "Status", "Total", "Date" };
-            for (int i = 0; i < columns.length; i++) {
-                var cell = header.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(borderStyle); // Apply border to header
-            }
-
-            // Data rows
-            int rowIdx = 1;
-            for (Booking b : bookings) {
-                var row = sheet.createRow(rowIdx++);
-                var cell0 = row.createCell(0); cell0.setCellValue(b.getUser().getName()); cell0.setCellStyle(borderStyle);
-                var cell1 = row.createCell(1); cell1.setCellValue(b.getOwner().getName()); cell1.setCellStyle(borderStyle);
-                var cell2 = row.createCell(2); cell2.setCellValue(b.getVehicle().getVehicleName()); cell2.setCellStyle(borderStyle);
-                var cell3 = row.createCell(3); cell3.setCellValue(b.getStartDate().toString()); cell3.setCellStyle(borderStyle);
-                var cell4 = row.createCell(4); cell4.setCellValue(b.getEndDate().toString()); cell4.setCellStyle(borderStyle);
-                var cell5 = row.createCell(5); cell5.setCellValue(b.getStatus() != null ? b.getStatus().name() : ""); cell5.setCellStyle(borderStyle);
-                var cell6 = row.createCell(6); cell6.setCellValue(b.getTotalAmount() != null ? b.getTotalAmount() : 0); cell6.setCellStyle(borderStyle);
-                var cell7 = row.createCell(7); cell7.setCellValue(b.getBookingDate() != null ?
-                        b.getBookingDate().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) : ""); cell7.setCellStyle(borderStyle);
-            }
-
-            // Optional: Auto-size columns
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+    public void exportBookings(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "format", defaultValue = "xlsx") String format,
+            HttpServletResponse response) throws IOException {
+        BookingStatus bookingStatus;
+        try {
+            bookingStatus = bookingService.parseStatus(status);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "from must not be after to");
+            return;
+        }
 
-            workbook.write(response.getOutputStream());
+        // Ghi thẳng ra response, không dựng cả file trong bộ nhớ
+        if ("csv".equalsIgnoreCase(format)) {
+            response.setContentType("text/csv; charset=UTF-8");
+            response.setHeader("Content-Disposition", "attachment; filename=bookings.csv");
+            bookingExportService.writeCsv(from, to, bookingStatus, response.getOutputStream());
+        } else {
+            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+            response.setHeader("Content-Disposition", "attachment; filename=bookings.xlsx");
+            bookingExportService.writeXlsx(from, to, bookingStatus, response.getOutputStream());
         }
     }
-}
\ No newline at end of file
+}
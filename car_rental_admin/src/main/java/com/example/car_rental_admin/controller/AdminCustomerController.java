@@ -2,7 +2,6 @@ package com.example.car_rental_admin.controller;
 
 import com.example.car_rental_admin.model.User;
 import com.example.car_rental_admin.service.customer.ICustomerService;
-import com.example.car_rental_admin.service.notification.INotificationService;
 import com.example.car_rental_admin.service.role.IRoleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -19,7 +18,6 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class AdminCustomerController {
     private final ICustomerService customerService;
     private final IRoleService roleService;
-    private final INotificationService notificationService;
 
     @GetMapping
     public String listUsers(
@@ -47,8 +45,6 @@ public class AdminCustomerController {
         model.addAttribute("newUserThisMonth", customerService.countNewUsersThisMonth());
         model.addAttribute("roles", roleService.getAllRoles());
         model.addAttribute("statuses", roleService.getAllUserStatuses());
-        model.addAttribute("notifications", notificationService.getLatestNotifications(5));
-        model.addAttribute("unreadNotificationCount", notificationService.countUnreadNotifications());
         return "admin/user-list";
     }
 
@@ -57,8 +53,6 @@ public class AdminCustomerController {
         User user = customerService.getUserById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         model.addAttribute("user", user);
-        model.addAttribute("notifications", notificationService.getLatestNotifications(5));
-        model.addAttribute("unreadNotificationCount", notificationService.countUnreadNotifications());
         return "admin/user-detail";
     }
 
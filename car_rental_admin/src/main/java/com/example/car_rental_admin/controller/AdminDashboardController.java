@@ -2,7 +2,11 @@ package com.example.car_rental_admin.controller;
 
 import com.example.car_rental_admin.service.dashboard.IDashboardService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -16,4 +20,19 @@ public class AdminDashboardController {
         // Service trả về Map chứa tổng số xe, booking hôm nay, doanh thu tháng, khách mới, revenue 7 ngày, xe thuê nhiều, activity...
         return dashboardService.getDashboardData();
     }
-}
\ No newline at end of file
+
+    // /admin/dashboard/stats?days=30 hoặc ?from=2025-01-01&to=2025-03-31 (tối đa 366 ngày)
+    @GetMapping("/stats")
+    public ResponseEntity<?> getBookingStats(
+            @RequestParam(name = "days", defaultValue = "30") int days,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(Math.max(days, 1) - 1L);
+        try {
+            return ResponseEntity.ok(dashboardService.getBookingStats(start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
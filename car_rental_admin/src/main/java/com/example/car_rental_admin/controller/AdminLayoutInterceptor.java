@@ -0,0 +1,38 @@
+package com.example.car_rental_admin.controller;
+
+import com.example.car_rental_admin.service.notification.NotificationHeaderCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.view.RedirectView;
+
+/**
+ * Adds the navbar notification data to rendered admin pages only. REST/@ResponseBody handlers and exports
+ * (no ModelAndView) and redirects get nothing, so they no longer pay for the notification queries.
+ * Attributes a controller already set (e.g. "notifications" on the notifications page) are kept.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdminLayoutInterceptor implements HandlerInterceptor {
+    private final NotificationHeaderCache notificationHeaderCache;
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           @Nullable ModelAndView modelAndView) {
+        if (modelAndView == null || isRedirect(modelAndView)) return;
+
+        NotificationHeaderCache.Snapshot header = notificationHeaderCache.get();
+        var model = modelAndView.getModelMap();
+        if (!model.containsAttribute("notifications")) model.addAttribute("notifications", header.latest());
+        if (!model.containsAttribute("unreadNotificationCount")) model.addAttribute("unreadNotificationCount", header.unreadCount());
+    }
+
+    private static boolean isRedirect(ModelAndView mav) {
+        String viewName = mav.getViewName();
+        return (viewName != null && viewName.startsWith("redirect:")) || mav.getView() instanceof RedirectView;
+    }
+}
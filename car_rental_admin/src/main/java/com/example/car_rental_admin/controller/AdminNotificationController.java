@@ -2,6 +2,7 @@ package com.example.car_rental_admin.controller;
 
 import com.example.car_rental_admin.model.Notification;
 import com.example.car_rental_admin.service.notification.INotificationService;
+import com.example.car_rental_admin.service.notification.NotificationHeaderCache;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 @RequiredArgsConstructor
 public class AdminNotificationController {
     private final INotificationService notificationService;
+    private final NotificationHeaderCache notificationHeaderCache;
 
     @PostMapping("/mark-all-read")
     public String markAllAsRead(HttpServletRequest request) {
@@ -37,8 +39,8 @@ public class AdminNotificationController {
         model.addAttribute("totalPages", notiPage.getTotalPages());
         model.addAttribute("totalElements", notiPage.getTotalElements());
         model.addAttribute("size", size);
-        model.addAttribute("latestNotifications", notificationService.getLatestNotifications(5));
-        model.addAttribute("unreadNotificationCount", notificationService.countUnreadNotifications());
+        // unreadNotificationCount do AdminLayoutInterceptor thêm; "notifications" ở trang này là danh sách phân trang
+        model.addAttribute("latestNotifications", notificationHeaderCache.get().latest());
         return "admin/notifications-list";
     }
 }
\ No newline at end of file
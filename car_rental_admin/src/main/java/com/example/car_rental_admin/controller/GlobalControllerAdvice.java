@@ -1,8 +1,6 @@
 package com.example.car_rental_admin.controller;
 
 import com.example.car_rental_admin.model.User;
-import com.example.car_rental_admin.service.notification.INotificationService;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.ui.Model;
@@ -10,15 +8,8 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
 
 @ControllerAdvice
-@RequiredArgsConstructor
 public class GlobalControllerAdvice {
-    private final INotificationService notificationService;
-
-    @ModelAttribute
-    public void addNotificationsToModel(Model model) {
-        model.addAttribute("notifications", notificationService.getLatestNotifications(5));
-        model.addAttribute("unreadNotificationCount", notificationService.countUnreadNotifications());
-    }
+    // Thông báo trên navbar do AdminLayoutInterceptor thêm (chỉ trang có view, dữ liệu lấy từ cache)
 
     @ModelAttribute
     public void addUserInfoToModel(Model model) {
@@ -0,0 +1,28 @@
+package com.example.car_rental_admin.dto;
+
+import com.example.car_rental_admin.enums.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One line of the bookings export: the exported columns only, read from a streamed query
+ * so that neither Booking entities nor their user/owner/vehicle proxies are loaded.
+ */
+public interface BookingExportRow {
+    String getCustomerName();
+
+    String getOwnerName();
+
+    String getVehicleName();
+
+    LocalDate getStartDate();
+
+    LocalDate getEndDate();
+
+    BookingStatus getStatus();
+
+    Double getTotalAmount();
+
+    LocalDateTime getBookingDate();
+}
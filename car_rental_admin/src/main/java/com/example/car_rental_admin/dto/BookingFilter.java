@@ -0,0 +1,26 @@
+package com.example.car_rental_admin.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filters of the admin bookings page, bound from the query string. Blank/null fields are not applied.
+ * from/to are inclusive days on bookingDate.
+ */
+@Getter
+@Setter
+public class BookingFilter {
+    private String customer;  // tên hoặc email khách thuê
+    private String owner;     // tên hoặc email chủ xe
+    private String vehicle;   // tên xe hoặc biển số
+    private String status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+}
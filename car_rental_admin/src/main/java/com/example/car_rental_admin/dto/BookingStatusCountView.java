@@ -0,0 +1,12 @@
+package com.example.car_rental_admin.dto;
+
+import com.example.car_rental_admin.enums.BookingStatus;
+
+/**
+ * Number of bookings in one status, from a single GROUP BY over the bookings table.
+ */
+public interface BookingStatusCountView {
+    BookingStatus getStatus();
+
+    Long getTotal();
+}
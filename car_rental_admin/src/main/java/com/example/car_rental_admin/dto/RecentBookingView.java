@@ -0,0 +1,19 @@
+package com.example.car_rental_admin.dto;
+
+import com.example.car_rental_admin.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Only the columns the dashboard activity feed renders, selected without loading Booking entities
+ * (and their lazy user/vehicle proxies).
+ */
+public interface RecentBookingView {
+    String getUserName();
+
+    String getVehicleName();
+
+    BookingStatus getStatus();
+
+    LocalDateTime getBookingDate();
+}
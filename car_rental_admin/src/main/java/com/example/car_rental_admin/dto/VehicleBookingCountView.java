@@ -0,0 +1,10 @@
+package com.example.car_rental_admin.dto;
+
+/**
+ * Booking count per vehicle for the dashboard "most rented" chart.
+ */
+public interface VehicleBookingCountView {
+    String getName();
+
+    Long getBookings();
+}
@@ -0,0 +1,8 @@
+package com.example.car_rental_admin.enums;
+
+public enum MailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
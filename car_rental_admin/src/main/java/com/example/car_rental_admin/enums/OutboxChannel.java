@@ -0,0 +1,7 @@
+package com.example.car_rental_admin.enums;
+
+// Kênh phát của outbox: STOMP do car_rental_server relay, HTTP (gọi sang owner service) do car_rental_admin relay
+public enum OutboxChannel {
+    STOMP,
+    HTTP
+}
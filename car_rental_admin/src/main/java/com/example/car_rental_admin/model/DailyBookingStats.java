@@ -0,0 +1,55 @@
+package com.example.car_rental_admin.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Booking rollup per day (by bookingDate): totals plus a count/revenue histogram per status.
+ * Written by car_rental_server (incrementally on each booking change, recomputed nightly);
+ * the admin app only reads it for dashboard charts.
+ */
+@Entity
+@Table(name = "daily_booking_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyBookingStats {
+    @Id
+    private LocalDate statDate;
+
+    @Column(nullable = false)
+    private long bookings;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    // Khách (user) khác nhau có booking trong ngày
+    @Column(nullable = false)
+    private long customers;
+
+    // Histogram theo trạng thái hiện tại của booking
+    @Column(nullable = false)
+    private long pendingCount;
+    @Column(nullable = false)
+    private double pendingRevenue;
+    @Column(nullable = false)
+    private long confirmedCount;
+    @Column(nullable = false)
+    private double confirmedRevenue;
+    @Column(nullable = false)
+    private long activeCount;
+    @Column(nullable = false)
+    private double activeRevenue;
+    @Column(nullable = false)
+    private long completedCount;
+    @Column(nullable = false)
+    private double completedRevenue;
+    @Column(nullable = false)
+    private long cancelledCount;
+    @Column(nullable = false)
+    private double cancelledRevenue;
+}
@@ -0,0 +1,65 @@
+package com.example.car_rental_admin.model;
+
+import com.example.car_rental_admin.enums.OutboxChannel;
+import com.example.car_rental_admin.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Side effect ghi cùng transaction với thay đổi nghiệp vụ, được relay phát sau khi commit.
+ * Delivery là at-least-once: eventId đi kèm mỗi lần phát để phía nhận loại bản trùng.
+ * Bảng dùng chung với car_rental_server (cùng DB), định nghĩa phải giữ giống nhau ở hai module.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_channel_status_next", columnList = "channel, status, nextAttemptAt"),
+        @Index(name = "idx_outbox_claim", columnList = "claimToken")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_outbox_event_id", columnNames = "eventId"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String eventId; // dedupe id (UUID)
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxChannel channel;
+
+    // STOMP: topic; HTTP: path trên owner service
+    @Column(nullable = false, length = 500)
+    private String destination;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String payload; // JSON
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 36)
+    private String claimToken;
+    private LocalDateTime leaseUntil;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    private LocalDateTime publishedAt;
+}
@@ -37,6 +37,7 @@ public class PostVehicle {
     // Images (max 5)
     @ElementCollection
     @CollectionTable(name = "vehicle_images", joinColumns = @JoinColumn(name = "vehicle_id"))
+    @OrderColumn(name = "image_order") // cùng bảng với server: phải ghi thứ tự ảnh giống hệt
     private List<String> imageList; // List of image URLs
 
     // Features & Amenities
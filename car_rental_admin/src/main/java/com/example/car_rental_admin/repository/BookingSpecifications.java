@@ -0,0 +1,79 @@
+package com.example.car_rental_admin.repository;
+
+import com.example.car_rental_admin.enums.BookingStatus;
+import com.example.car_rental_admin.model.Booking;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Filters for the admin bookings list. Each factory returns null when its argument is empty,
+ * so they can be combined freely with {@link Specification#allOf}.
+ */
+public final class BookingSpecifications {
+    private BookingSpecifications() {
+    }
+
+    public static Specification<Booking> hasStatus(BookingStatus status) {
+        if (status == null) return null;
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    // Khoảng [from, to] theo ngày, so sánh trực tiếp trên cột bookingDate để dùng được index
+    public static Specification<Booking> bookedFrom(LocalDate from) {
+        if (from == null) return null;
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("bookingDate"), from.atStartOfDay());
+    }
+
+    public static Specification<Booking> bookedTo(LocalDate to) {
+        if (to == null) return null;
+        return (root, query, cb) -> cb.lessThan(root.get("bookingDate"), to.plusDays(1).atStartOfDay());
+    }
+
+    public static Specification<Booking> customerMatches(String text) {
+        return userMatches("user", text);
+    }
+
+    public static Specification<Booking> ownerMatches(String text) {
+        return userMatches("owner", text);
+    }
+
+    public static Specification<Booking> vehicleMatches(String text) {
+        if (isBlank(text)) return null;
+        String pattern = containsPattern(text);
+        return (root, query, cb) -> {
+            var vehicle = root.join("vehicle", JoinType.LEFT);
+            return cb.or(like(cb, vehicle.get("vehicleName"), pattern), like(cb, vehicle.get("licensePlate"), pattern));
+        };
+    }
+
+    private static Specification<Booking> userMatches(String association, String text) {
+        if (isBlank(text)) return null;
+        String pattern = containsPattern(text);
+        return (root, query, cb) -> {
+            var user = root.join(association, JoinType.LEFT);
+            return cb.or(like(cb, user.get("name"), pattern), like(cb, user.get("email"), pattern));
+        };
+    }
+
+    private static Predicate like(CriteriaBuilder cb, Expression<String> path, String pattern) {
+        return cb.like(cb.lower(path), pattern, '\\');
+    }
+
+    // %, _ người dùng nhập được hiểu theo nghĩa đen
+    private static String containsPattern(String text) {
+        String escaped = text.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
+    }
+}
@@ -28,6 +28,9 @@ public interface IAdminUserRepository extends JpaRepository<User, Long> {
     // Đếm user tạo mới trong tháng này và KHÔNG PHẢI ADMIN
     long countByCreatedAtBetweenAndRole_NameNot(LocalDate start, LocalDate end, String roleName);
 
+    // Khách mới (dashboard): COUNT trên DB thay vì findAll rồi lọc
+    long countByCreatedAtGreaterThanEqual(LocalDate since);
+
     Page<User> findByNameContainingIgnoreCaseAndRole_NameNot(String name, String excludeRole, Pageable pageable);
 
     Page<User> findByRole_NameNot(String excludeRole, Pageable pageable);
@@ -1,13 +1,61 @@
 package com.example.car_rental_admin.repository;
 
+import com.example.car_rental_admin.dto.BookingExportRow;
+import com.example.car_rental_admin.dto.BookingStatusCountView;
+import com.example.car_rental_admin.dto.RecentBookingView;
+import com.example.car_rental_admin.enums.BookingStatus;
 import com.example.car_rental_admin.model.Booking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface IBookingRepository extends JpaRepository<Booking, UUID> {
+public interface IBookingRepository extends JpaRepository<Booking, UUID>, JpaSpecificationExecutor<Booking> {
     List<Booking> findAll(); // Lấy tất cả bookings
     long countByStartDate(LocalDate startDate);
+
+    // Trang booking admin: user/owner/vehicle fetch cùng 1 query (không N+1 khi render bảng),
+    // count query sinh từ Specification không kèm fetch
+    @Override
+    @EntityGraph(attributePaths = {"user", "owner", "vehicle"})
+    Page<Booking> findAll(Specification<Booking> spec, Pageable pageable);
+
+    @Query("SELECT b.status AS status, COUNT(b) AS total FROM Booking b GROUP BY b.status")
+    List<BookingStatusCountView> countGroupedByStatus();
+
+    // Doanh thu/biểu đồ dashboard đọc từ daily_booking_stats (IDailyBookingStatsRepository)
+
+    // Top-N mới nhất: ORDER BY + LIMIT, chỉ select các cột hiển thị
+    @Query("SELECT u.name AS userName, v.vehicleName AS vehicleName, b.status AS status, b.bookingDate AS bookingDate "
+            + "FROM Booking b JOIN b.user u LEFT JOIN b.vehicle v ORDER BY b.bookingDate DESC NULLS LAST")
+    List<RecentBookingView> findRecentActivity(Pageable pageable);
+
+    // Export: đọc dần theo fetch size (MySQL cần useCursorFetch=true), phải đóng Stream trong transaction.
+    // Khoảng [from, to) trên bookingDate; tham số null = không lọc
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.name AS customerName, o.name AS ownerName, v.vehicleName AS vehicleName, "
+            + "b.startDate AS startDate, b.endDate AS endDate, b.status AS status, "
+            + "b.totalAmount AS totalAmount, b.bookingDate AS bookingDate "
+            + "FROM Booking b LEFT JOIN b.user u LEFT JOIN b.owner o LEFT JOIN b.vehicle v "
+            + "WHERE (:from IS NULL OR b.bookingDate >= :from) AND (:to IS NULL OR b.bookingDate < :to) "
+            + "AND (:status IS NULL OR b.status = :status) "
+            + "ORDER BY b.bookingDate DESC NULLS LAST")
+    Stream<BookingExportRow> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                             @Param("status") BookingStatus status);
 }
@@ -0,0 +1,17 @@
+package com.example.car_rental_admin.repository;
+
+import com.example.car_rental_admin.model.DailyBookingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface IDailyBookingStatsRepository extends JpaRepository<DailyBookingStats, LocalDate> {
+    // Tối đa 1 dòng/ngày: khoảng 365 ngày chỉ là 365 dòng, không phụ thuộc số booking
+    List<DailyBookingStats> findByStatDateBetweenOrderByStatDateAsc(LocalDate from, LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(s.revenue), 0.0) FROM DailyBookingStats s WHERE s.statDate >= :from AND s.statDate <= :to")
+    double sumRevenueBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
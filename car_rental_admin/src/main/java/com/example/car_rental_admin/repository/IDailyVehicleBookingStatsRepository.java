@@ -0,0 +1,27 @@
+package com.example.car_rental_admin.repository;
+
+import com.example.car_rental_admin.dto.VehicleBookingCountView;
+import com.example.car_rental_admin.model.DailyVehicleBookingStats;
+import com.example.car_rental_admin.model.DailyVehicleBookingStatsId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface IDailyVehicleBookingStatsRepository extends JpaRepository<DailyVehicleBookingStats, DailyVehicleBookingStatsId> {
+
+    @Query("SELECT v.vehicleName AS name, SUM(s.bookings) AS bookings FROM DailyVehicleBookingStats s "
+            + "JOIN PostVehicle v ON v.id = s.id.vehicleId "
+            + "GROUP BY v.id, v.vehicleName ORDER BY SUM(s.bookings) DESC")
+    List<VehicleBookingCountView> findMostBookedVehicles(Pageable pageable);
+
+    @Query("SELECT v.vehicleName AS name, SUM(s.bookings) AS bookings FROM DailyVehicleBookingStats s "
+            + "JOIN PostVehicle v ON v.id = s.id.vehicleId "
+            + "WHERE s.id.statDate >= :from AND s.id.statDate <= :to "
+            + "GROUP BY v.id, v.vehicleName ORDER BY SUM(s.bookings) DESC")
+    List<VehicleBookingCountView> findMostBookedVehiclesBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                                Pageable pageable);
+}
@@ -0,0 +1,10 @@
+package com.example.car_rental_admin.repository;
+
+import com.example.car_rental_admin.model.OutboundMail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// Admin chỉ INSERT vào outbound_mail; claim/gửi/retry do MailDispatcher của car_rental_server đảm nhận
+@Repository
+public interface IOutboundMailRepository extends JpaRepository<OutboundMail, Long> {
+}
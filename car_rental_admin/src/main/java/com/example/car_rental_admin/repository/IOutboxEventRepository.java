@@ -0,0 +1,73 @@
+package com.example.car_rental_admin.repository;
+
+import com.example.car_rental_admin.enums.OutboxChannel;
+import com.example.car_rental_admin.enums.OutboxStatus;
+import com.example.car_rental_admin.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IOutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Event đến hạn của một kênh, hoặc đang PUBLISHING nhưng lease đã hết (relay trước bị dừng giữa chừng)
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.channel = :channel " +
+            "AND ((e.status = :pending AND e.nextAttemptAt <= :now) OR (e.status = :publishing AND e.leaseUntil < :now)) " +
+            "ORDER BY e.id ASC")
+    List<Long> findDueIds(@Param("channel") OutboxChannel channel,
+                          @Param("pending") OutboxStatus pending,
+                          @Param("publishing") OutboxStatus publishing,
+                          @Param("now") LocalDateTime now,
+                          Pageable pageable);
+
+    // Claim nguyên tử, cùng kiểu với IOutboundMailRepository.claim
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = :publishing, e.claimToken = :token, e.leaseUntil = :leaseUntil " +
+            "WHERE e.id IN :ids " +
+            "AND ((e.status = :pending AND e.nextAttemptAt <= :now) OR (e.status = :publishing AND e.leaseUntil < :now))")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("token") String token,
+              @Param("pending") OutboxStatus pending,
+              @Param("publishing") OutboxStatus publishing,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<OutboxEvent> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = :published, e.publishedAt = :now, e.attempts = e.attempts + 1, " +
+            "e.claimToken = NULL, e.leaseUntil = NULL, e.lastError = NULL " +
+            "WHERE e.id IN :ids AND e.claimToken = :token")
+    int markPublished(@Param("ids") Collection<Long> ids,
+                      @Param("token") String token,
+                      @Param("published") OutboxStatus published,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.attempts = e.attempts + 1, " +
+            "e.claimToken = NULL, e.leaseUntil = NULL, e.lastError = :error " +
+            "WHERE e.id = :id AND e.claimToken = :token")
+    int markFailed(@Param("id") Long id,
+                   @Param("token") String token,
+                   @Param("status") OutboxStatus status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.channel = :channel AND e.status = :published AND e.publishedAt < :before")
+    int deletePublishedBefore(@Param("channel") OutboxChannel channel,
+                              @Param("published") OutboxStatus published,
+                              @Param("before") LocalDateTime before);
+}
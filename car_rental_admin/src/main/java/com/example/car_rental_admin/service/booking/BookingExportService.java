@@ -0,0 +1,161 @@
+package com.example.car_rental_admin.service.booking;
+
+import com.example.car_rental_admin.dto.BookingExportRow;
+import com.example.car_rental_admin.enums.BookingStatus;
+import com.example.car_rental_admin.repository.IBookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+public class BookingExportService implements IBookingExportService {
+    private static final String[] COLUMNS = { "Customer", "Owner", "Car", "Start", "End", "Status", "Total", "Date" };
+    private static final int TOTAL_COLUMN = 6;
+    private static final DateTimeFormatter BOOKING_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int MAX_COLUMN_CHARS = 60;
+
+    private final IBookingRepository bookingRepo;
+    private final int rowWindow;
+    private final int widthSampleRows;
+
+    public BookingExportService(IBookingRepository bookingRepo,
+                                @Value("${app.export.row-window:100}") int rowWindow,
+                                @Value("${app.export.width-sample-rows:200}") int widthSampleRows) {
+        this.bookingRepo = bookingRepo;
+        this.rowWindow = rowWindow;
+        this.widthSampleRows = widthSampleRows;
+    }
+
+    @Override
+    @Transactional(readOnly = true) // Stream từ DB chỉ đọc được khi transaction còn mở
+    public void writeXlsx(LocalDate from, LocalDate to, BookingStatus status, OutputStream out) throws IOException {
+        // Chỉ giữ rowWindow dòng trong bộ nhớ, phần còn lại flush ra file tạm (nén)
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Bookings");
+
+            CellStyle borderStyle = workbook.createCellStyle();
+            borderStyle.setBorderTop(BorderStyle.THIN);
+            borderStyle.setBorderBottom(BorderStyle.THIN);
+            borderStyle.setBorderLeft(BorderStyle.THIN);
+            borderStyle.setBorderRight(BorderStyle.THIN);
+
+            // Độ rộng cột tính từ header + vài trăm dòng đầu thay cho autoSizeColumn (phải duyệt cả sheet)
+            int[] widths = new int[COLUMNS.length];
+            SXSSFRow header = sheet.createRow(0);
+            for (int i = 0; i < COLUMNS.length; i++) {
+                var cell = header.createCell(i);
+                cell.setCellValue(COLUMNS[i]);
+                cell.setCellStyle(borderStyle);
+                widths[i] = COLUMNS[i].length();
+            }
+
+            int rowIdx = 1;
+            try (Stream<BookingExportRow> rows = bookingRepo.streamForExport(startOf(from), endOf(to), status)) {
+                for (BookingExportRow b : (Iterable<BookingExportRow>) rows::iterator) {
+                    String[] values = toValues(b);
+                    SXSSFRow row = sheet.createRow(rowIdx);
+                    for (int i = 0; i < values.length; i++) {
+                        var cell = row.createCell(i);
+                        if (i == TOTAL_COLUMN) {
+                            cell.setCellValue(b.getTotalAmount() != null ? b.getTotalAmount() : 0);
+                        } else {
+                            cell.setCellValue(values[i]);
+                        }
+                        cell.setCellStyle(borderStyle);
+                        if (rowIdx <= widthSampleRows) widths[i] = Math.max(widths[i], values[i].length());
+                    }
+                    rowIdx++;
+                }
+            }
+            for (int i = 0; i < widths.length; i++) {
+                sheet.setColumnWidth(i, (Math.min(widths[i], MAX_COLUMN_CHARS) + 2) * 256);
+            }
+
+            workbook.write(out);
+            log.info("Exported {} bookings to xlsx", rowIdx - 1);
+        } finally {
+            workbook.dispose(); // xoá file tạm
+            workbook.close();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeCsv(LocalDate from, LocalDate to, BookingStatus status, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF'); // BOM: Excel mở đúng tiếng Việt
+        writeCsvLine(writer, COLUMNS);
+        long count = 0;
+        try (Stream<BookingExportRow> rows = bookingRepo.streamForExport(startOf(from), endOf(to), status)) {
+            for (BookingExportRow b : (Iterable<BookingExportRow>) rows::iterator) {
+                writeCsvLine(writer, toValues(b));
+                count++;
+            }
+        }
+        writer.flush();
+        log.info("Exported {} bookings to csv", count);
+    }
+
+    private static String[] toValues(BookingExportRow b) {
+        return new String[] {
+                nullToEmpty(b.getCustomerName()),
+                nullToEmpty(b.getOwnerName()),
+                nullToEmpty(b.getVehicleName()),
+                b.getStartDate() != null ? b.getStartDate().toString() : "",
+                b.getEndDate() != null ? b.getEndDate().toString() : "",
+                b.getStatus() != null ? b.getStatus().name() : "",
+                // toPlainString: tránh dạng 1.0E7 cho số tiền lớn
+                BigDecimal.valueOf(b.getTotalAmount() != null ? b.getTotalAmount() : 0).toPlainString(),
+                b.getBookingDate() != null ? b.getBookingDate().format(BOOKING_DATE_FORMAT) : ""
+        };
+    }
+
+    private static void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            String value = values[i];
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static LocalDateTime startOf(LocalDate from) {
+        return from != null ? from.atStartOfDay() : null;
+    }
+
+    // to là ngày cuối (tính cả ngày đó) -> cận trên mở là 0h ngày hôm sau
+    private static LocalDateTime endOf(LocalDate to) {
+        return to != null ? to.plusDays(1).atStartOfDay() : null;
+    }
+}
@@ -1,19 +1,63 @@
 package com.example.car_rental_admin.service.booking;
 
+import com.example.car_rental_admin.dto.BookingFilter;
+import com.example.car_rental_admin.dto.BookingStatusCountView;
+import com.example.car_rental_admin.enums.BookingStatus;
 import com.example.car_rental_admin.model.Booking;
 
 import com.example.car_rental_admin.repository.IBookingRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import java.util.List;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.example.car_rental_admin.repository.BookingSpecifications.*;
 
 @Service
 @RequiredArgsConstructor
 public class BookingService implements IBookingService {
     private final IBookingRepository bookingRepo;
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Override
+    public Page<Booking> searchBookings(BookingFilter filter, int page, int size) {
+        Specification<Booking> spec = Specification.allOf(
+                hasStatus(parseStatus(filter.getStatus())),
+                bookedFrom(filter.getFrom()),
+                bookedTo(filter.getTo()),
+                customerMatches(filter.getCustomer()),
+                ownerMatches(filter.getOwner()),
+                vehicleMatches(filter.getVehicle()));
+
+        // Mới nhất trước (MySQL xếp NULL cuối khi DESC), id để thứ tự ổn định giữa các trang
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                Sort.by(Sort.Order.desc("bookingDate"), Sort.Order.asc("id")));
+        return bookingRepo.findAll(spec, pageable);
+    }
+
+    @Override
+    public BookingStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) return null;
+        try {
+            return BookingStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status: " + status);
+        }
+    }
+
     @Override
-    public List<Booking> getAllBookings() {
-        return bookingRepo.findAll();
+    public Map<BookingStatus, Long> countByStatus() {
+        Map<BookingStatus, Long> counts = new EnumMap<>(BookingStatus.class);
+        for (BookingStatus status : BookingStatus.values()) counts.put(status, 0L);
+        for (BookingStatusCountView row : bookingRepo.countGroupedByStatus()) {
+            if (row.getStatus() != null) counts.put(row.getStatus(), row.getTotal());
+        }
+        return counts;
     }
 }
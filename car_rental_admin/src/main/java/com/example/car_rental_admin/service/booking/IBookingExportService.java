@@ -0,0 +1,20 @@
+package com.example.car_rental_admin.service.booking;
+
+import com.example.car_rental_admin.enums.BookingStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface IBookingExportService {
+    /**
+     * Streams bookings made in [from, to] (either bound may be null) with the given status (null = all)
+     * as an .xlsx workbook. Memory stays bounded by the SXSSF row window, not by the number of bookings.
+     */
+    void writeXlsx(LocalDate from, LocalDate to, BookingStatus status, OutputStream out) throws IOException;
+
+    /**
+     * Same rows as {@link #writeXlsx}, as UTF-8 CSV (with BOM so Excel detects the encoding).
+     */
+    void writeCsv(LocalDate from, LocalDate to, BookingStatus status, OutputStream out) throws IOException;
+}
@@ -1,9 +1,19 @@
 package com.example.car_rental_admin.service.booking;
 
+import com.example.car_rental_admin.dto.BookingFilter;
+import com.example.car_rental_admin.enums.BookingStatus;
 import com.example.car_rental_admin.model.Booking;
+import org.springframework.data.domain.Page;
 
-import java.util.List;
+import java.util.Map;
 
 public interface IBookingService {
-    List<Booking> getAllBookings();
+    // status không hợp lệ -> IllegalArgumentException (trang danh sách và export cùng trả 400)
+    Page<Booking> searchBookings(BookingFilter filter, int page, int size);
+
+    // null/rỗng = không lọc; giá trị không phải BookingStatus -> IllegalArgumentException
+    BookingStatus parseStatus(String status);
+
+    // Số booking theo từng trạng thái (trạng thái không có booking = 0)
+    Map<BookingStatus, Long> countByStatus();
 }
@@ -1,10 +1,15 @@
 package com.example.car_rental_admin.service.dashboard;
 
+import com.example.car_rental_admin.dto.VehicleBookingCountView;
+import com.example.car_rental_admin.model.DailyBookingStats;
 import com.example.car_rental_admin.repository.IAdminUserRepository;
 import com.example.car_rental_admin.repository.IBookingRepository;
+import com.example.car_rental_admin.repository.IDailyBookingStatsRepository;
+import com.example.car_rental_admin.repository.IDailyVehicleBookingStatsRepository;
 import com.example.car_rental_admin.repository.IPostVehicleRepository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -19,6 +24,12 @@ public class DashboardService implements IDashboardService {
     private final IPostVehicleRepository vehicleRepo;
     private final IBookingRepository bookingRepo;
     private final IAdminUserRepository userRepo;
+    private final IDailyBookingStatsRepository dailyStatsRepo;
+    private final IDailyVehicleBookingStatsRepository dailyVehicleStatsRepo;
+
+    // Giới hạn khoảng cho API thống kê: tối đa ~1 năm dòng rollup
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final int TOP_VEHICLES = 5;
 
     @Override
     public Map<String, Object> getDashboardData() {
@@ -30,59 +41,39 @@ public class DashboardService implements IDashboardService {
         // Booking hôm nay
         long todayBookings = bookingRepo.countByStartDate(LocalDate.now());
 
-        // Doanh thu tháng
+        // Doanh thu tháng: cộng các dòng rollup của tháng (<= 31 dòng)
         YearMonth currentMonth = YearMonth.now();
-        double monthlyRevenue = bookingRepo.findAll().stream()
-                .filter(b -> b.getBookingDate() != null &&
-                        YearMonth.from(b.getBookingDate()).equals(currentMonth))
-                .mapToDouble(b -> b.getTotalAmount() != null ? b.getTotalAmount() : 0)
-                .sum();
+        double monthlyRevenue = dailyStatsRepo.sumRevenueBetween(currentMonth.atDay(1), currentMonth.atEndOfMonth());
 
         // Khách mới trong tuần
         LocalDate startOfWeek = LocalDate.now().with(java.time.DayOfWeek.MONDAY);
-        long newCustomers = userRepo.findAll().stream()
-                .filter(u -> u.getCreatedAt() != null && !u.getCreatedAt().isBefore(startOfWeek))
-                .count();
+        long newCustomers = userRepo.countByCreatedAtGreaterThanEqual(startOfWeek);
 
-        // 7-day revenue (for chart)
+        // 7-day revenue (for chart): 7 dòng rollup, ngày trống = 0
+        LocalDate today = LocalDate.now();
+        LocalDate firstDay = today.minusDays(6);
+        Map<LocalDate, DailyBookingStats> statsByDay = loadDailyStats(firstDay, today);
         List<Map<String, Object>> revenueStats = new ArrayList<>();
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            double amount = bookingRepo.findAll().stream()
-                    .filter(b -> b.getBookingDate() != null && b.getBookingDate().toLocalDate().equals(date))
-                    .mapToDouble(b -> b.getTotalAmount() != null ? b.getTotalAmount() : 0)
-                    .sum();
+        for (LocalDate date = firstDay; !date.isAfter(today); date = date.plusDays(1)) {
+            DailyBookingStats day = statsByDay.get(date);
             Map<String, Object> item = new HashMap<>();
             item.put("date", date.toString());
-            item.put("amount", amount);
+            item.put("amount", day != null ? day.getRevenue() : 0.0);
             revenueStats.add(item);
         }
 
-        // Most rented vehicles (for chart)
-        Map<UUID, Long> vehicleBookingCount = bookingRepo.findAll().stream()
-                .filter(b -> b.getVehicle() != null)
-                .collect(Collectors.groupingBy(b -> b.getVehicle().getId(), Collectors.counting()));
-        List<Map<String, Object>> popularCars = vehicleBookingCount.entrySet().stream()
-                .sorted(Map.Entry.<UUID, Long>comparingByValue().reversed())
-                .limit(5)
-                .map(e -> {
-                    Map<String, Object> car = new HashMap<>();
-                    car.put("name", vehicleRepo.findById(e.getKey()).map(v -> v.getVehicleName()).orElse("Unknown"));
-                    car.put("bookings", e.getValue());
-                    return car;
-                })
-                .collect(Collectors.toList());
+        // Most rented vehicles (for chart): SUM trên rollup theo xe
+        List<Map<String, Object>> popularCars = toVehicleItems(
+                dailyVehicleStatsRepo.findMostBookedVehicles(PageRequest.of(0, TOP_VEHICLES)));
 
-        // Recent activities (simple demo)
-        List<Map<String, Object>> recentActivities = bookingRepo.findAll().stream()
-                .sorted(Comparator.comparing(b -> b.getBookingDate(), Comparator.nullsLast(Comparator.reverseOrder())))
-                .limit(6)
+        // Recent activities: chỉ 6 dòng mới nhất
+        List<Map<String, Object>> recentActivities = bookingRepo.findRecentActivity(PageRequest.of(0, 6)).stream()
                 .map(b -> {
                     Map<String, Object> act = new HashMap<>();
                     act.put("icon", b.getStatus() != null && b.getStatus().name().equals("COMPLETED") ? "fas fa-check-circle"
                             : b.getStatus() != null && b.getStatus().name().equals("PENDING") ? "fas fa-plus-circle"
                             : "fas fa-calendar-check");
-                    act.put("content", b.getUser().getName() + " booked " + (b.getVehicle() != null ? b.getVehicle().getVehicleName() : "a car"));
+                    act.put("content", b.getUserName() + " booked " + (b.getVehicleName() != null ? b.getVehicleName() : "a car"));
                     act.put("time", b.getBookingDate() != null ? b.getBookingDate().toLocalTime().toString() : "");
                     act.put("statusText", b.getStatus() != null ? b.getStatus().name() : "");
                     act.put("statusClass", b.getStatus() != null ? b.getStatus().name().toLowerCase() : "");
@@ -100,4 +91,79 @@ public class DashboardService implements IDashboardService {
 
         return data;
     }
-}
\ No newline at end of file
+
+    @Override
+    public Map<String, Object> getBookingStats(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (from.plusDays(MAX_RANGE_DAYS).isBefore(to.plusDays(1))) {
+            throw new IllegalArgumentException("Range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        Map<LocalDate, DailyBookingStats> statsByDay = loadDailyStats(from, to);
+        List<Map<String, Object>> series = new ArrayList<>();
+        long totalBookings = 0;
+        long totalCustomers = 0;
+        double totalRevenue = 0;
+        double completedRevenue = 0;
+        long cancelledCount = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DailyBookingStats day = statsByDay.getOrDefault(date, DailyBookingStats.builder().statDate(date).build());
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("date", date.toString());
+            item.put("bookings", day.getBookings());
+            item.put("revenue", day.getRevenue());
+            item.put("customers", day.getCustomers());
+            item.put("pending", day.getPendingCount());
+            item.put("confirmed", day.getConfirmedCount());
+            item.put("active", day.getActiveCount());
+            item.put("completed", day.getCompletedCount());
+            item.put("cancelled", day.getCancelledCount());
+            item.put("completedRevenue", day.getCompletedRevenue());
+            series.add(item);
+
+            totalBookings += day.getBookings();
+            totalRevenue += day.getRevenue();
+            totalCustomers += day.getCustomers();
+            completedRevenue += day.getCompletedRevenue();
+            cancelledCount += day.getCancelledCount();
+        }
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("bookings", totalBookings);
+        totals.put("revenue", totalRevenue);
+        // Khách được đếm distinct theo từng ngày, cộng dồn qua các ngày (không distinct cả khoảng)
+        totals.put("customerDays", totalCustomers);
+        totals.put("completedRevenue", completedRevenue);
+        totals.put("cancelled", cancelledCount);
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("from", from.toString());
+        data.put("to", to.toString());
+        data.put("series", series);
+        data.put("totals", totals);
+        data.put("popularCars", toVehicleItems(
+                dailyVehicleStatsRepo.findMostBookedVehiclesBetween(from, to, PageRequest.of(0, TOP_VEHICLES))));
+        return data;
+    }
+
+    private Map<LocalDate, DailyBookingStats> loadDailyStats(LocalDate from, LocalDate to) {
+        Map<LocalDate, DailyBookingStats> byDay = new HashMap<>();
+        for (DailyBookingStats row : dailyStatsRepo.findByStatDateBetweenOrderByStatDateAsc(from, to)) {
+            byDay.put(row.getStatDate(), row);
+        }
+        return byDay;
+    }
+
+    private static List<Map<String, Object>> toVehicleItems(List<VehicleBookingCountView> rows) {
+        return rows.stream()
+                .map(row -> {
+                    Map<String, Object> car = new HashMap<>();
+                    car.put("name", row.getName() != null ? row.getName() : "Unknown");
+                    car.put("bookings", row.getBookings());
+                    return car;
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -1,7 +1,14 @@
 package com.example.car_rental_admin.service.dashboard;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 public interface IDashboardService {
     Map<String, Object> getDashboardData();
+
+    /**
+     * Daily series (bookings, revenue, customers, per-status counts), totals and top vehicles for [from, to],
+     * read from the daily rollup tables.
+     */
+    Map<String, Object> getBookingStats(LocalDate from, LocalDate to);
 }
\ No newline at end of file
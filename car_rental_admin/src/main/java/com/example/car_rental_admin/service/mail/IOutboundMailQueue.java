@@ -0,0 +1,9 @@
+package com.example.car_rental_admin.service.mail;
+
+public interface IOutboundMailQueue {
+    /**
+     * Lưu mail vào hàng đợi (joins the caller's transaction if any) and return immediately;
+     * SMTP happens later in car_rental_server's MailDispatcher (admin never sends mail itself).
+     */
+    void enqueue(String to, String subject, String html);
+}
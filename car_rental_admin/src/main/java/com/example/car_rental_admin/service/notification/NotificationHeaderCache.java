@@ -0,0 +1,72 @@
+package com.example.car_rental_admin.service.notification;
+
+import com.example.car_rental_admin.model.Notification;
+import com.example.car_rental_admin.repository.INotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latest global notifications + unread count shown in the admin navbar. They are the same for every admin,
+ * so one snapshot is shared and reloaded only after {@link #invalidate()} or when the TTL expires
+ * (the TTL also picks up notifications inserted directly into the shared table by car_rental_server).
+ */
+@Component
+public class NotificationHeaderCache {
+    public static final int LATEST_LIMIT = 5;
+
+    public record Snapshot(List<Notification> latest, long unreadCount) {
+    }
+
+    private record Entry(Snapshot snapshot, long loadedAtNanos, long version) {
+    }
+
+    private final INotificationRepository notificationRepository;
+    private final long ttlNanos;
+    // Tăng mỗi lần invalidate: snapshot nạp trước đó (kể cả đang nạp dở) không còn được dùng
+    private final AtomicLong version = new AtomicLong();
+    private volatile Entry entry;
+
+    public NotificationHeaderCache(INotificationRepository notificationRepository,
+                                   @Value("${app.notification.header-cache.ttl:15s}") Duration ttl) {
+        this.notificationRepository = notificationRepository;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public Snapshot get() {
+        Entry current = entry;
+        if (isFresh(current)) return current.snapshot();
+        synchronized (this) {
+            current = entry;
+            if (isFresh(current)) return current.snapshot();
+            long loadVersion = version.get();
+            Snapshot loaded = new Snapshot(
+                    List.copyOf(notificationRepository.findTop5ByRecipientIdIsNullOrderByCreatedAtDesc()),
+                    notificationRepository.countByRecipientIdIsNullAndIsReadFalse());
+            entry = new Entry(loaded, System.nanoTime(), loadVersion);
+            return loaded;
+        }
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        // Trong transaction: request khác có thể nạp lại trước khi commit -> bỏ snapshot lần nữa sau commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private boolean isFresh(Entry e) {
+        return e != null && e.version() == version.get() && System.nanoTime() - e.loadedAtNanos() < ttlNanos;
+    }
+}
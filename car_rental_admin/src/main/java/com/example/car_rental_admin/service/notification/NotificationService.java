@@ -17,6 +17,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class NotificationService implements INotificationService {
     private final INotificationRepository notificationRepository;
+    private final NotificationHeaderCache headerCache;
 
     /**
      * Return latest global notifications that are intended for admins (recipientId IS NULL).
@@ -41,7 +42,9 @@ public class NotificationService implements INotificationService {
     @Override
     @Transactional
     public int markAllAsRead() {
-        return notificationRepository.markAllGlobalRead();
+        int updated = notificationRepository.markAllGlobalRead();
+        headerCache.invalidate();
+        return updated;
     }
 
     @Override
@@ -56,7 +59,9 @@ public class NotificationService implements INotificationService {
     public Notification createNotification(Notification noti) {
         noti.setIsRead(false);
         noti.setCreatedAt(LocalDateTime.now());
-        return notificationRepository.save(noti);
+        Notification saved = notificationRepository.save(noti);
+        headerCache.invalidate();
+        return saved;
     }
 
     @Override
@@ -66,5 +71,6 @@ public class NotificationService implements INotificationService {
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
         noti.setIsRead(true);
         notificationRepository.save(noti);
+        headerCache.invalidate();
     }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.car_rental_admin.service.outbox;
+
+public interface IOutboxService {
+    /**
+     * Ghi một HTTP event (POST sang owner service) vào outbox trong transaction hiện tại (must be called
+     * inside one); OutboxRelay phát sau khi commit. Trả về eventId (dedupe id, gửi kèm làm Idempotency-Key).
+     * Admin chỉ dùng kênh HTTP; event STOMP do car_rental_server tự ghi và tự phát.
+     */
+    String enqueueHttp(String path, Object payload);
+}
@@ -0,0 +1,57 @@
+package com.example.car_rental_admin.service.outbox;
+
+import com.example.car_rental_admin.enums.OutboxChannel;
+import com.example.car_rental_admin.enums.OutboxStatus;
+import com.example.car_rental_admin.model.OutboxEvent;
+import com.example.car_rental_admin.repository.IOutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService implements IOutboxService {
+    private final IOutboxEventRepository outboxRepository;
+    private final OutboxRelay relay;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String enqueueHttp(String path, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+        String eventId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(OutboxEvent.builder()
+                .eventId(eventId)
+                .channel(OutboxChannel.HTTP)
+                .destination(path)
+                .payload(json)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+
+        // Phát ngay sau commit thay vì chờ lượt poll; poll vẫn là đường dự phòng
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.wakeUp();
+            }
+        });
+        return eventId;
+    }
+}
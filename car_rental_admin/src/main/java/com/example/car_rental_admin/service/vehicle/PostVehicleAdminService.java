@@ -4,18 +4,14 @@ import com.example.car_rental_admin.enums.VehicleStatus;
 import com.example.car_rental_admin.model.PostVehicle;
 import com.example.car_rental_admin.model.User;
 import com.example.car_rental_admin.repository.IPostVehicleRepository;
+import com.example.car_rental_admin.service.outbox.IOutboxService;
 import com.example.car_rental_admin.utils.MailService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import jakarta.mail.MessagingException;
-import org.springframework.web.client.RestTemplate;
-
-import java.io.UnsupportedEncodingException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -26,11 +22,7 @@ import java.util.UUID;
 public class PostVehicleAdminService implements IPostVehicleAdminService {
     private final IPostVehicleRepository postVehicleRepository;
     private final MailService mailService;
-    @Autowired
-    private RestTemplate restTemplate;
-
-    @Value("${owner.service.url:http://localhost:8080}")
-    private String ownerServiceBaseUrl;
+    private final IOutboxService outboxService;
 
     @Override
     public Page<PostVehicle> searchVehicles(String query, String brand, String status, int page, int size) {
@@ -77,6 +69,7 @@ public class PostVehicleAdminService implements IPostVehicleAdminService {
     }
 
     @Override
+    @Transactional
     public boolean approveVehicle(UUID id) {
         Optional<PostVehicle> optionalVehicle = postVehicleRepository.findById(id);
         if (optionalVehicle.isPresent()) {
@@ -103,6 +96,7 @@ public class PostVehicleAdminService implements IPostVehicleAdminService {
     }
 
     @Override
+    @Transactional
     public boolean rejectVehicle(UUID id, String reason) {
         Optional<PostVehicle> optionalVehicle = postVehicleRepository.findById(id);
         if (optionalVehicle.isPresent()) {
@@ -126,6 +120,7 @@ public class PostVehicleAdminService implements IPostVehicleAdminService {
     }
 
     @Override
+    @Transactional
     public boolean makeUnavailable(UUID id, String reason) {
         Optional<PostVehicle> optionalVehicle = postVehicleRepository.findById(id);
         if (optionalVehicle.isPresent()) {
@@ -149,6 +144,7 @@ public class PostVehicleAdminService implements IPostVehicleAdminService {
     }
 
     @Override
+    @Transactional
     public boolean makeAvailable(UUID id) {
         Optional<PostVehicle> optionalVehicle = postVehicleRepository.findById(id);
         if (optionalVehicle.isPresent()) {
@@ -200,7 +196,7 @@ public class PostVehicleAdminService implements IPostVehicleAdminService {
             if (owner != null && owner.getEmail() != null) {
                 mailService.sendVehicleApprovedMail(owner.getEmail(), owner.getName(), vehicle.getVehicleName(), getAppUrl());
             }
-        } catch (MessagingException | UnsupportedEncodingException e) {
+        } catch (RuntimeException e) {
             // log and continue
             System.err.println("Failed to send vehicle approved mail: " + e.getMessage());
         }
@@ -212,7 +208,7 @@ public class PostVehicleAdminService implements IPostVehicleAdminService {
             if (owner != null && owner.getEmail() != null) {
                 mailService.sendVehicleRejectedMail(owner.getEmail(), owner.getName(), vehicle.getVehicleName(), reason, getAppUrl());
             }
-        } catch (MessagingException | UnsupportedEncodingException e) {
+        } catch (RuntimeException e) {
             System.err.println("Failed to send vehicle rejected mail: " + e.getMessage());
         }
     }
@@ -223,7 +219,7 @@ public class PostVehicleAdminService implements IPostVehicleAdminService {
             if (owner != null && owner.getEmail() != null) {
                 mailService.sendVehicleUnavailableMail(owner.getEmail(), owner.getName(), vehicle.getVehicleName(), reason, getAppUrl());
             }
-        } catch (MessagingException | UnsupportedEncodingException e) {
+        } catch (RuntimeException e) {
             System.err.println("Failed to send vehicle unavailable mail: " + e.getMessage());
         }
     }
@@ -234,7 +230,7 @@ public class PostVehicleAdminService implements IPostVehicleAdminService {
             if (owner != null && owner.getEmail() != null) {
                 mailService.sendVehicleAvailableMail(owner.getEmail(), owner.getName(), vehicle.getVehicleName(), getAppUrl());
             }
-        } catch (MessagingException | UnsupportedEncodingException e) {
+        } catch (RuntimeException e) {
             System.err.println("Failed to send vehicle available mail: " + e.getMessage());
         }
     }
@@ -244,24 +240,18 @@ public class PostVehicleAdminService implements IPostVehicleAdminService {
         return "http://localhost:3000";
     }
 
+    // Ghi outbox trong transaction của thay đổi trạng thái; admin OutboxRelay POST sang owner service sau commit
     private void sendOwnerRealtimeNotification(PostVehicle vehicle, String message, String url, String type) {
-        try {
-            if (vehicle.getOwner() == null || vehicle.getOwner().getId() == null) return;
-            Long ownerId = vehicle.getOwner().getId();
-
-            // Build payload similar to owner Notification entity (simplest JSON)
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("content", message);
-            payload.put("type", type);
-            payload.put("url", url);
-            payload.put("isRead", false);
-
-            String endpoint = ownerServiceBaseUrl + "/api/notifications/users/" + ownerId + "/create";
-
-            // Server-to-server call (no credentials included here). For production add auth header.
-            restTemplate.postForEntity(endpoint, payload, Object.class);
-        } catch (Exception ex) {
-            System.err.println("Failed to send owner realtime notification: " + ex.getMessage());
-        }
+        if (vehicle.getOwner() == null || vehicle.getOwner().getId() == null) return;
+        Long ownerId = vehicle.getOwner().getId();
+
+        // Build payload similar to owner Notification entity (simplest JSON)
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("content", message);
+        payload.put("type", type);
+        payload.put("url", url);
+        payload.put("isRead", false);
+
+        outboxService.enqueueHttp("/api/notifications/users/" + ownerId + "/create", payload);
     }
-}
\ No newline at end of file
+}
@@ -1,124 +1,85 @@
 package com.example.car_rental_admin.utils;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.example.car_rental_admin.service.mail.IOutboundMailQueue;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.Scanner;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Render mail templates and put them on the outbound queue; car_rental_server's MailDispatcher sends them.
+ */
 @Service
 @RequiredArgsConstructor
 public class MailService {
-    private final JavaMailSender mailSender;
-
-    private String fromEmail = "autorentdanang@gmail.com";
-    private String fromName = "AutoRent Da Nang";
+    private final IOutboundMailQueue mailQueue;
+    private final MailTemplateEngine templateEngine;
 
     // Existing owner application mails (kept)
-    public void sendApprovedMail(String to, String userName, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
+    public void sendApprovedMail(String to, String userName, String appUrl) {
         sendMailTemplate(to, "Your Owner Application Approved",
                 "email-templates/owner-application-approved.html", userName, appUrl);
     }
 
-    public void sendRejectedMail(String to, String userName, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
+    public void sendRejectedMail(String to, String userName, String appUrl) {
         sendMailTemplate(to, "Your Owner Application Rejected",
                 "email-templates/owner-application-rejected.html", userName, appUrl);
     }
 
-    public void sendRevokedMail(String to, String userName, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
+    public void sendRevokedMail(String to, String userName, String appUrl) {
         sendMailTemplate(to, "Your Owner Privileges Revoked",
                 "email-templates/owner-application-revoked.html", userName, appUrl);
     }
 
     // --- New: Vehicle status emails ---
 
-    public void sendVehicleApprovedMail(String to, String userName, String vehicleName, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
+    public void sendVehicleApprovedMail(String to, String userName, String vehicleName, String appUrl) {
         String subject = "Your vehicle has been approved: " + vehicleName;
         sendMailTemplateWithVehicle(to, subject, "email-templates/vehicle-approved.html",
                 userName, vehicleName, null, appUrl);
     }
 
-    public void sendVehicleRejectedMail(String to, String userName, String vehicleName, String reason, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
+    public void sendVehicleRejectedMail(String to, String userName, String vehicleName, String reason, String appUrl) {
         String subject = "Your vehicle has been rejected: " + vehicleName;
         sendMailTemplateWithVehicle(to, subject, "email-templates/vehicle-rejected.html",
                 userName, vehicleName, reason, appUrl);
     }
 
-    public void sendVehicleUnavailableMail(String to, String userName, String vehicleName, String reason, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
+    public void sendVehicleUnavailableMail(String to, String userName, String vehicleName, String reason, String appUrl) {
         String subject = "Your vehicle has been marked unavailable: " + vehicleName;
         sendMailTemplateWithVehicle(to, subject, "email-templates/vehicle-unavailable.html",
                 userName, vehicleName, reason, appUrl);
     }
 
-    public void sendVehicleAvailableMail(String to, String userName, String vehicleName, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
+    public void sendVehicleAvailableMail(String to, String userName, String vehicleName, String appUrl) {
         String subject = "Your vehicle is now available: " + vehicleName;
         sendMailTemplateWithVehicle(to, subject, "email-templates/vehicle-available.html",
                 userName, vehicleName, null, appUrl);
     }
 
-    // Generic mail template loader (existing)
+    // Generic mail template (existing), giờ chỉ render + đưa vào hàng đợi
     private void sendMailTemplate(String to, String subject, String templatePath,
-                                  String userName, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
-        helper.setFrom(fromEmail, fromName);
-        helper.setTo(to);
-        helper.setSubject(subject);
-
-        String html = loadTemplate(templatePath)
-                .replace("${userName}", safe(userName))
-                .replace("${appUrl}", safe(appUrl))
-                .replace("${year}", String.valueOf(LocalDate.now().getYear()));
+                                  String userName, String appUrl) {
+        Map<String, String> values = new HashMap<>();
+        values.put("userName", userName);
+        values.put("appUrl", appUrl);
+        values.put("year", String.valueOf(LocalDate.now().getYear()));
 
-        helper.setText(html, true);
-        mailSender.send(message);
+        mailQueue.enqueue(to, subject, templateEngine.render(templatePath, values));
     }
 
     // New helper for vehicle templates (adds vehicleName + reason)
     private void sendMailTemplateWithVehicle(String to, String subject, String templatePath,
-                                             String userName, String vehicleName, String reason, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
-        helper.setFrom(fromEmail, fromName);
-        helper.setTo(to);
-        helper.setSubject(subject);
-
-        String html = loadTemplate(templatePath)
-                .replace("${userName}", safe(userName))
-                .replace("${vehicleName}", safe(vehicleName))
-                .replace("${reason}", safe(reason == null ? "" : reason))
-                .replace("${appUrl}", safe(appUrl))
-                .replace("${year}", String.valueOf(LocalDate.now().getYear()));
-
-        helper.setText(html, true);
-        mailSender.send(message);
-    }
-
-    private String loadTemplate(String path) {
-        try (Scanner scanner = new Scanner(new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8.name())) {
-            return scanner.useDelimiter("\\A").next();
-        } catch (Exception e) {
-            throw new RuntimeException("Cannot load mail template: " + path, e);
-        }
-    }
-
-    private String safe(String v) {
-        return v == null ? "" : v;
+                                             String userName, String vehicleName, String reason, String appUrl) {
+        Map<String, String> values = new HashMap<>();
+        values.put("userName", userName);
+        values.put("vehicleName", vehicleName);
+        values.put("reason", reason);
+        values.put("appUrl", appUrl);
+        values.put("year", String.valueOf(LocalDate.now().getYear()));
+
+        mailQueue.enqueue(to, subject, templateEngine.render(templatePath, values));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package com.example.car_rental_admin.controller;
+
+import com.example.car_rental_admin.enums.BookingStatus;
+import com.example.car_rental_admin.model.Booking;
+import com.example.car_rental_admin.repository.IBookingRepository;
+import com.example.car_rental_admin.service.booking.BookingService;
+import com.example.car_rental_admin.service.booking.IBookingExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AdminBookingControllerTest {
+
+    private IBookingRepository bookingRepo;
+    private IBookingExportService exportService;
+    private MockMvc mvc;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        bookingRepo = mock(IBookingRepository.class);
+        exportService = mock(IBookingExportService.class);
+        when(bookingRepo.findAll(any(Specification.class), any(Pageable.class))).thenReturn(Page.<Booking>empty());
+        mvc = MockMvcBuilders.standaloneSetup(new AdminBookingController(new BookingService(bookingRepo), exportService))
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unknownStatusIsRejectedOnTheListPageInsteadOfIgnored() throws Exception {
+        mvc.perform(get("/admin/bookings").param("status", "SHIPPED"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Unknown status: SHIPPED"));
+        verify(bookingRepo, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void unknownStatusIsRejectedByTheExportWithTheSameMessage() throws Exception {
+        mvc.perform(get("/admin/bookings/export").param("status", "SHIPPED"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Unknown status: SHIPPED"));
+        verifyNoInteractions(exportService);
+    }
+
+    @Test
+    void blankOrKnownStatusIsAccepted() throws Exception {
+        mvc.perform(get("/admin/bookings").param("status", "")).andExpect(status().isOk());
+        mvc.perform(get("/admin/bookings").param("status", "completed")).andExpect(status().isOk());
+        mvc.perform(get("/admin/bookings/export").param("status", " pending ").param("format", "csv"))
+                .andExpect(status().isOk());
+        verify(exportService).writeCsv(isNull(), isNull(), eq(BookingStatus.PENDING), any(OutputStream.class));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.car_rental_admin.controller;
+
+import com.example.car_rental_admin.model.Notification;
+import com.example.car_rental_admin.service.notification.NotificationHeaderCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.stereotype.Controller;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.view.RedirectView;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AdminLayoutInterceptorTest {
+
+    private final List<Notification> latest = List.of(new Notification());
+    private NotificationHeaderCache headerCache;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        headerCache = mock(NotificationHeaderCache.class);
+        when(headerCache.get()).thenReturn(new NotificationHeaderCache.Snapshot(latest, 7));
+        mvc = MockMvcBuilders.standaloneSetup(new LayoutTestController())
+                .addInterceptors(new AdminLayoutInterceptor(headerCache))
+                .build();
+    }
+
+    @Test
+    void renderedPageGetsNavbarNotifications() throws Exception {
+        mvc.perform(get("/test/page"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("notifications", latest))
+                .andExpect(model().attribute("unreadNotificationCount", 7L));
+    }
+
+    @Test
+    void attributesSetByTheControllerAreKept() throws Exception {
+        mvc.perform(get("/test/own-notifications"))
+                .andExpect(model().attribute("notifications", "page of notifications"))
+                .andExpect(model().attribute("unreadNotificationCount", 7L));
+    }
+
+    @Test
+    void responseBodyHandlerSkipsTheNotificationLookup() throws Exception {
+        mvc.perform(get("/test/json")).andExpect(status().isOk());
+        verify(headerCache, never()).get();
+    }
+
+    @Test
+    void redirectsSkipTheNotificationLookup() throws Exception {
+        mvc.perform(get("/test/redirect")).andExpect(status().is3xxRedirection());
+        mvc.perform(get("/test/redirect-view")).andExpect(status().is3xxRedirection());
+        verify(headerCache, never()).get();
+    }
+
+    @Controller
+    static class LayoutTestController {
+        @GetMapping("/test/page")
+        String page() {
+            return "admin/page";
+        }
+
+        @GetMapping("/test/own-notifications")
+        String ownNotifications(Model model) {
+            model.addAttribute("notifications", "page of notifications");
+            return "admin/page";
+        }
+
+        @GetMapping("/test/json")
+        @ResponseBody
+        Map<String, Object> json() {
+            return Map.of("ok", true);
+        }
+
+        @GetMapping("/test/redirect")
+        String redirect() {
+            return "redirect:/test/page";
+        }
+
+        @GetMapping("/test/redirect-view")
+        RedirectView redirectView() {
+            return new RedirectView("/test/page");
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.car_rental_admin.repository;
+
+import com.example.car_rental_admin.dto.BookingExportRow;
+import com.example.car_rental_admin.dto.BookingStatusCountView;
+import com.example.car_rental_admin.dto.RecentBookingView;
+import com.example.car_rental_admin.enums.BookingStatus;
+import com.example.car_rental_admin.model.Booking;
+import com.example.car_rental_admin.model.PostVehicle;
+import com.example.car_rental_admin.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+class BookingRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 10, 9, 0);
+
+    @Autowired
+    private IBookingRepository bookingRepo;
+
+    @Autowired
+    private IAdminUserRepository userRepo;
+
+    @Autowired
+    private IPostVehicleRepository vehicleRepo;
+
+    private User alice;
+    private User owner;
+    private PostVehicle car;
+
+    @BeforeEach
+    void setUp() {
+        alice = user("Alice", "alice@test.com");
+        owner = user("Owen", "owen@test.com");
+        car = new PostVehicle();
+        car.setVehicleName("Camry");
+        car.setLicensePlate("43A-123.45");
+        car.setOwner(owner);
+        car = vehicleRepo.save(car);
+    }
+
+    @Test
+    void recentActivityIsNewestFirstWithNullDatesLastAndLimited() {
+        booking(alice, car, BookingStatus.PENDING, T0);
+        booking(alice, car, BookingStatus.CONFIRMED, T0.plusDays(2));
+        booking(alice, null, BookingStatus.CANCELLED, T0.plusDays(1));
+        booking(alice, car, BookingStatus.COMPLETED, null);
+        booking(null, car, BookingStatus.PENDING, T0.plusDays(5)); // không có khách: không hiển thị
+
+        List<RecentBookingView> recent = bookingRepo.findRecentActivity(PageRequest.of(0, 10));
+
+        assertThat(recent)
+                .extracting(RecentBookingView::getStatus, RecentBookingView::getVehicleName, RecentBookingView::getBookingDate)
+                .containsExactly(
+                        tuple(BookingStatus.CONFIRMED, "Camry", T0.plusDays(2)),
+                        tuple(BookingStatus.CANCELLED, null, T0.plusDays(1)),
+                        tuple(BookingStatus.PENDING, "Camry", T0),
+                        tuple(BookingStatus.COMPLETED, "Camry", null));
+        assertThat(recent).extracting(RecentBookingView::getUserName).containsOnly("Alice");
+
+        assertThat(bookingRepo.findRecentActivity(PageRequest.of(0, 2)))
+                .extracting(RecentBookingView::getStatus)
+                .containsExactly(BookingStatus.CONFIRMED, BookingStatus.CANCELLED);
+    }
+
+    @Test
+    void statusCountsAreGroupedInOneQuery() {
+        booking(alice, car, BookingStatus.PENDING, T0);
+        booking(alice, car, BookingStatus.PENDING, T0.plusDays(1));
+        booking(alice, car, BookingStatus.COMPLETED, T0.plusDays(2));
+        booking(alice, car, null, T0.plusDays(3));
+
+        assertThat(bookingRepo.countGroupedByStatus())
+                .extracting(BookingStatusCountView::getStatus, BookingStatusCountView::getTotal)
+                .containsExactlyInAnyOrder(
+                        tuple(BookingStatus.PENDING, 2L),
+                        tuple(BookingStatus.COMPLETED, 1L),
+                        tuple(null, 1L));
+    }
+
+    @Test
+    void exportWithoutFiltersStreamsEveryBookingNewestFirst() {
+        booking(alice, car, BookingStatus.PENDING, T0);
+        booking(alice, car, BookingStatus.COMPLETED, T0.plusDays(1));
+        booking(null, null, BookingStatus.CANCELLED, null);
+
+        try (Stream<BookingExportRow> rows = bookingRepo.streamForExport(null, null, null)) {
+            assertThat(rows.toList())
+                    .extracting(BookingExportRow::getCustomerName, BookingExportRow::getOwnerName,
+                            BookingExportRow::getVehicleName, BookingExportRow::getStatus)
+                    .containsExactly(
+                            tuple("Alice", "Owen", "Camry", BookingStatus.COMPLETED),
+                            tuple("Alice", "Owen", "Camry", BookingStatus.PENDING),
+                            tuple(null, "Owen", null, BookingStatus.CANCELLED));
+        }
+    }
+
+    @Test
+    void exportFiltersOnHalfOpenDateRangeAndStatus() {
+        booking(alice, car, BookingStatus.COMPLETED, T0.minusSeconds(1));
+        booking(alice, car, BookingStatus.COMPLETED, T0);
+        booking(alice, car, BookingStatus.PENDING, T0.plusDays(1));
+        booking(alice, car, BookingStatus.COMPLETED, T0.plusDays(2)); // = to: nằm ngoài [from, to)
+        booking(alice, car, BookingStatus.COMPLETED, null);
+
+        try (Stream<BookingExportRow> rows = bookingRepo.streamForExport(T0, T0.plusDays(2), null)) {
+            assertThat(rows.map(BookingExportRow::getBookingDate).toList())
+                    .containsExactly(T0.plusDays(1), T0);
+        }
+        try (Stream<BookingExportRow> rows = bookingRepo.streamForExport(T0, null, BookingStatus.COMPLETED)) {
+            assertThat(rows.map(BookingExportRow::getBookingDate).toList())
+                    .containsExactly(T0.plusDays(2), T0);
+        }
+        try (Stream<BookingExportRow> rows = bookingRepo.streamForExport(null, T0, null)) {
+            assertThat(rows.map(BookingExportRow::getBookingDate).toList())
+                    .containsExactly(T0.minusSeconds(1));
+        }
+    }
+
+    private User user(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        return userRepo.save(user);
+    }
+
+    private Booking booking(User customer, PostVehicle vehicle, BookingStatus status, LocalDateTime bookingDate) {
+        Booking booking = new Booking();
+        booking.setUser(customer);
+        booking.setOwner(owner);
+        booking.setVehicle(vehicle);
+        booking.setStatus(status);
+        booking.setBookingDate(bookingDate);
+        booking.setStartDate(LocalDate.of(2025, 2, 1));
+        booking.setEndDate(LocalDate.of(2025, 2, 3));
+        booking.setTotalAmount(100.0);
+        return bookingRepo.save(booking);
+    }
+}
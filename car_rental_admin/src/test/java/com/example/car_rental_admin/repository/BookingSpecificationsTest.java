@@ -0,0 +1,136 @@
+package com.example.car_rental_admin.repository;
+
+import com.example.car_rental_admin.enums.BookingStatus;
+import com.example.car_rental_admin.model.Booking;
+import com.example.car_rental_admin.model.PostVehicle;
+import com.example.car_rental_admin.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.car_rental_admin.repository.BookingSpecifications.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+class BookingSpecificationsTest {
+
+    @Autowired
+    private IBookingRepository bookingRepo;
+
+    @Autowired
+    private IAdminUserRepository userRepo;
+
+    @Autowired
+    private IPostVehicleRepository vehicleRepo;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("Owen", "owen@test.com");
+    }
+
+    @Test
+    void likeWildcardsTypedByTheUserMatchLiterally() {
+        booking(user("50% Rentals", "percent@test.com"), "P");
+        booking(user("500 Rentals", "plain@test.com"), "N");
+        booking(user("a_b", "underscore@test.com"), "U");
+        booking(user("axb", "other@test.com"), "X");
+        booking(user("c:\\path", "backslash@test.com"), "B");
+        booking(user("c:path", "nobackslash@test.com"), "C");
+
+        assertThat(notes(customerMatches("50%"))).containsExactly("P");
+        assertThat(notes(customerMatches("a_b"))).containsExactly("U");
+        assertThat(notes(customerMatches("c:\\p"))).containsExactly("B");
+        assertThat(notes(customerMatches("%"))).containsExactly("P");
+    }
+
+    @Test
+    void textFiltersAreCaseInsensitiveAndMatchNameOrEmail() {
+        booking(user("Alice Nguyen", "alice@test.com"), "A");
+        booking(user("Bob", "bob@mail.vn"), "B");
+
+        assertThat(notes(customerMatches("  ALICE "))).containsExactly("A");
+        assertThat(notes(customerMatches("mail.VN"))).containsExactly("B");
+        assertThat(notes(ownerMatches("owen@"))).containsExactlyInAnyOrder("A", "B");
+        assertThat(notes(customerMatches("owen"))).isEmpty();
+    }
+
+    @Test
+    void vehicleMatchesNameOrPlateAndKeepsBookingsWithoutVehicleOutOfTheResult() {
+        User customer = user("Carol", "carol@test.com");
+        Booking camry = booking(customer, "C");
+        camry.setVehicle(vehicle("Toyota Camry", "43A-123.45"));
+        Booking noVehicle = booking(customer, "N");
+        noVehicle.setVehicle(null);
+
+        assertThat(notes(vehicleMatches("camry"))).containsExactly("C");
+        assertThat(notes(vehicleMatches("43a-123"))).containsExactly("C");
+        assertThat(notes(vehicleMatches(null))).containsExactlyInAnyOrder("C", "N");
+    }
+
+    @Test
+    void statusAndDateRangeCombineAndEmptyArgumentsAreIgnored() {
+        User customer = user("Dan", "dan@test.com");
+        booking(customer, "before", BookingStatus.COMPLETED, LocalDateTime.of(2025, 1, 9, 23, 59));
+        booking(customer, "first", BookingStatus.COMPLETED, LocalDateTime.of(2025, 1, 10, 0, 0));
+        booking(customer, "last", BookingStatus.COMPLETED, LocalDateTime.of(2025, 1, 12, 23, 59));
+        booking(customer, "pending", BookingStatus.PENDING, LocalDateTime.of(2025, 1, 11, 8, 0));
+        booking(customer, "after", BookingStatus.COMPLETED, LocalDateTime.of(2025, 1, 13, 0, 0));
+
+        // Khoảng [from, to] tính theo cả ngày
+        assertThat(notes(Specification.allOf(
+                hasStatus(BookingStatus.COMPLETED),
+                bookedFrom(LocalDate.of(2025, 1, 10)),
+                bookedTo(LocalDate.of(2025, 1, 12)))))
+                .containsExactlyInAnyOrder("first", "last");
+
+        assertThat(hasStatus(null)).isNull();
+        assertThat(customerMatches("   ")).isNull();
+        assertThat(notes(Specification.allOf(hasStatus(null), bookedFrom(null), bookedTo(null), ownerMatches(""))))
+                .hasSize(5);
+    }
+
+    private List<String> notes(Specification<Booking> spec) {
+        return bookingRepo.findAll(spec, PageRequest.of(0, 50, Sort.by("note"))).map(Booking::getNote).getContent();
+    }
+
+    private User user(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        return userRepo.save(user);
+    }
+
+    private PostVehicle vehicle(String name, String plate) {
+        PostVehicle vehicle = new PostVehicle();
+        vehicle.setVehicleName(name);
+        vehicle.setLicensePlate(plate);
+        vehicle.setOwner(owner);
+        return vehicleRepo.save(vehicle);
+    }
+
+    private Booking booking(User customer, String note) {
+        return booking(customer, note, BookingStatus.PENDING, LocalDateTime.of(2025, 1, 10, 9, 0));
+    }
+
+    private Booking booking(User customer, String note, BookingStatus status, LocalDateTime bookingDate) {
+        Booking booking = new Booking();
+        booking.setUser(customer);
+        booking.setOwner(owner);
+        booking.setStatus(status);
+        booking.setBookingDate(bookingDate);
+        booking.setNote(note);
+        return bookingRepo.save(booking);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.car_rental_admin.service.notification;
+
+import com.example.car_rental_admin.model.Notification;
+import com.example.car_rental_admin.repository.INotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationHeaderCacheTest {
+
+    private INotificationRepository repository;
+    private final AtomicLong unread = new AtomicLong(3);
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(INotificationRepository.class);
+        when(repository.findTop5ByRecipientIdIsNullOrderByCreatedAtDesc()).thenReturn(List.of(new Notification()));
+        when(repository.countByRecipientIdIsNullAndIsReadFalse()).thenAnswer(inv -> unread.get());
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void snapshotIsSharedUntilTheTtlExpires() throws InterruptedException {
+        NotificationHeaderCache cache = new NotificationHeaderCache(repository, Duration.ofMillis(200));
+
+        assertThat(cache.get().unreadCount()).isEqualTo(3);
+        unread.set(4);
+        assertThat(cache.get().unreadCount()).isEqualTo(3);
+        verify(repository, times(1)).countByRecipientIdIsNullAndIsReadFalse();
+
+        Thread.sleep(250);
+        assertThat(cache.get().unreadCount()).isEqualTo(4);
+        verify(repository, times(2)).countByRecipientIdIsNullAndIsReadFalse();
+    }
+
+    @Test
+    void snapshotLoadedWhileInvalidatedIsNotReused() throws Exception {
+        NotificationHeaderCache cache = new NotificationHeaderCache(repository, Duration.ofMinutes(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.countByRecipientIdIsNullAndIsReadFalse()).thenAnswer(inv -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 3L;
+        }).thenReturn(4L);
+
+        CompletableFuture<NotificationHeaderCache.Snapshot> slowLoad = CompletableFuture.supplyAsync(cache::get);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        // Thông báo mới được tạo trong lúc đang nạp: số đọc được có thể đã cũ
+        cache.invalidate();
+        release.countDown();
+
+        assertThat(slowLoad.get(5, TimeUnit.SECONDS).unreadCount()).isEqualTo(3);
+        assertThat(cache.get().unreadCount()).isEqualTo(4);
+        verify(repository, times(2)).countByRecipientIdIsNullAndIsReadFalse();
+    }
+
+    @Test
+    void invalidateInsideTransactionDropsSnapshotsLoadedBeforeCommit() {
+        NotificationHeaderCache cache = new NotificationHeaderCache(repository, Duration.ofMinutes(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate();
+        // Request khác nạp lại trước khi transaction commit: chưa thấy dữ liệu mới
+        cache.get();
+        unread.set(4);
+        assertThat(cache.get().unreadCount()).isEqualTo(3);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(cache.get().unreadCount()).isEqualTo(4);
+    }
+}
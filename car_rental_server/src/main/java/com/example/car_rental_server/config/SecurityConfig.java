@@ -1,5 +1,7 @@
 package com.example.car_rental_server.config;
 
+import com.example.car_rental_server.filter.IdempotencyFilter;
+import com.example.car_rental_server.filter.RequestIdFilter;
 import com.example.car_rental_server.filter.JwtAuthenticationFilter;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
@@ -28,6 +30,7 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtAuthEntryPoint jwtAuthEntryPoint;
+    private final IdempotencyFilter idempotencyFilter;
 
     @Value("${app.frontend.url:http://localhost:3000}")
     private String frontendUrl;
@@ -49,6 +52,7 @@ public class SecurityConfig {
                         // Vehicles read endpoints (public)
                         .requestMatchers(HttpMethod.GET, "/api/vehicles").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/vehicles/*").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/vehicles/{id}/availability").permitAll()
                         // Reviews: allow GET (list & summary) to public, require auth for POST
                         .requestMatchers(HttpMethod.GET, "/api/vehicles/{vehicleId}/reviews").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/vehicles/{vehicleId}/reviews/**").permitAll()
@@ -89,7 +93,9 @@ public class SecurityConfig {
                             resp.setStatus(HttpServletResponse.SC_OK);
                         })
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Chạy sau JWT để key idempotency được scope theo user đã xác thực
+                .addFilterAfter(idempotencyFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
@@ -104,7 +110,7 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true); // 🔥 bắt buộc để gửi cookie
-        configuration.setExposedHeaders(Arrays.asList("Set-Cookie"));
+        configuration.setExposedHeaders(Arrays.asList("Set-Cookie", IdempotencyFilter.REPLAYED_HEADER, RequestIdFilter.HEADER));
         configuration.setMaxAge(3600L);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
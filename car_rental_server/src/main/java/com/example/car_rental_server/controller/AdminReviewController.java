@@ -0,0 +1,37 @@
+package com.example.car_rental_server.controller;
+
+import com.example.car_rental_server.service.review.IReviewVoteService;
+import com.example.car_rental_server.service.review.IVehicleRatingStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+// Lệnh bảo trì cho admin: backfill / tính lại các aggregate của review
+@RestController
+@RequestMapping("/api/admin/reviews")
+@RequiredArgsConstructor
+public class AdminReviewController {
+    private final IVehicleRatingStatsService ratingStatsService;
+    private final IReviewVoteService reviewVoteService;
+
+    @PostMapping("/rating-stats/rebuild")
+    public ResponseEntity<?> rebuildAllRatingStats() {
+        int vehicles = ratingStatsService.rebuildAll();
+        return ResponseEntity.ok(Map.of("vehicles", vehicles));
+    }
+
+    @PostMapping("/rating-stats/{vehicleId}/rebuild")
+    public ResponseEntity<?> rebuildRatingStats(@PathVariable UUID vehicleId) {
+        ratingStatsService.rebuild(vehicleId);
+        return ResponseEntity.ok(ratingStatsService.getSummary(vehicleId));
+    }
+
+    @PostMapping("/vote-counts/rebuild")
+    public ResponseEntity<?> rebuildVoteCounts() {
+        int reviews = reviewVoteService.rebuildVoteCounts();
+        return ResponseEntity.ok(Map.of("reviews", reviews));
+    }
+}
@@ -312,7 +312,11 @@ public class AuthController {
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(401).body(Map.of("success", false, "error", "Not authenticated"));
         }
-        User user = (User) authentication.getPrincipal();
+        // Principal là AuthenticatedUser (bản chụp dùng chung giữa các request): lấy entity mới từ DB để trả về
+        User user = userService.findByEmail(authentication.getName()).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("success", false, "error", "Not authenticated"));
+        }
         // Nếu passwordChangedAt là null, trả về 0
         Object passwordChangedValue = user.getPasswordChangedAt() == null ? 0 : user.getPasswordChangedAt();
         return ResponseEntity.ok(Map.of(
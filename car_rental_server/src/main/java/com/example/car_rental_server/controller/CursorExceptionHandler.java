@@ -0,0 +1,16 @@
+package com.example.car_rental_server.controller;
+
+import com.example.car_rental_server.utils.CursorCodec;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Cursor do client gửi lên bị sửa/hỏng -> 400 thay vì 500 (dùng chung cho mọi endpoint infinite scroll)
+@RestControllerAdvice
+public class CursorExceptionHandler {
+
+    @ExceptionHandler(CursorCodec.InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursor(CursorCodec.InvalidCursorException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
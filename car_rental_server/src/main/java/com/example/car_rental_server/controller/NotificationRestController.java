@@ -1,5 +1,6 @@
 package com.example.car_rental_server.controller;
 
+import com.example.car_rental_server.dto.CursorPageDTO;
 import com.example.car_rental_server.model.Notification;
 import com.example.car_rental_server.service.notification.INotificationService;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,13 @@ public class NotificationRestController {
         return ResponseEntity.ok(list);
     }
 
+    @GetMapping("/users/{userId}/scroll")
+    public ResponseEntity<CursorPageDTO<Notification>> scrollForUser(@PathVariable Long userId,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(notificationService.getNotificationsForUserByCursor(userId, cursor, size));
+    }
+
     @PostMapping("/users/{userId}/mark-read/{id}")
     public ResponseEntity<?> markAsReadForUser(@PathVariable Long userId, @PathVariable Long id) {
         notificationService.markAsRead(id);
@@ -5,14 +5,14 @@ import com.example.car_rental_server.dto.BookingDTO;
 import com.example.car_rental_server.service.owner.IPostVehicleService;
 import com.example.car_rental_server.service.booking.IBookingService;
 import com.example.car_rental_server.service.user.IUserService;
-import com.example.car_rental_server.utils.CloudinaryService;
+import com.example.car_rental_server.service.upload.ImageUploadException;
+import com.example.car_rental_server.service.upload.ImageUploadPipeline;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -23,7 +23,7 @@ import java.util.UUID;
 public class OwnerVehicleController {
 
     private final IPostVehicleService vehicleService;
-    private final CloudinaryService cloudinaryService;
+    private final ImageUploadPipeline imageUploadPipeline;
     private final IBookingService bookingService;
     private final IUserService userService;
 
@@ -54,16 +54,11 @@ public class OwnerVehicleController {
             @RequestPart(value = "images", required = false) MultipartFile[] images,
             Authentication authentication
     ) {
-        List<String> imageUrls = new ArrayList<>();
-        if (images != null && images.length > 0) {
-            for (MultipartFile file : images) {
-                try {
-                    String url = cloudinaryService.uploadMultipart(file);
-                    imageUrls.add(url);
-                } catch (Exception ex) {
-                    return ResponseEntity.badRequest().body("Failed to upload: " + file.getOriginalFilename());
-                }
-            }
+        List<String> imageUrls;
+        try {
+            imageUrls = imageUploadPipeline.uploadAll(images);
+        } catch (ImageUploadException ex) {
+            return ResponseEntity.badRequest().body("Failed to upload: " + ex.getFileName());
         }
         dto.setImageList(imageUrls);
 
@@ -87,17 +82,12 @@ public class OwnerVehicleController {
             @RequestPart("info") PostVehicleDTO dto,
             @RequestPart(value = "images", required = false) MultipartFile[] images
     ) {
-        List<String> imageUrls = new ArrayList<>();
         if (images != null && images.length > 0) {
-            for (MultipartFile file : images) {
-                try {
-                    String url = cloudinaryService.uploadMultipart(file);
-                    imageUrls.add(url);
-                } catch (Exception ex) {
-                    return ResponseEntity.badRequest().body("Failed to upload: " + file.getOriginalFilename());
-                }
+            try {
+                dto.setImageList(imageUploadPipeline.uploadAll(images));
+            } catch (ImageUploadException ex) {
+                return ResponseEntity.badRequest().body("Failed to upload: " + ex.getFileName());
             }
-            dto.setImageList(imageUrls);
         } else {
             if (dto.getKeepExistingImages() != null && !dto.getKeepExistingImages().isEmpty()) {
                 dto.setImageList(dto.getKeepExistingImages());
@@ -117,16 +107,11 @@ public class OwnerVehicleController {
     // Nếu vẫn muốn gọi API upload ảnh riêng
     @PostMapping("/upload-images")
     public ResponseEntity<?> uploadImages(@RequestParam("files") MultipartFile[] files) {
-        List<String> urls = new ArrayList<>();
-        for (MultipartFile file : files) {
-            try {
-                String url = cloudinaryService.uploadMultipart(file);
-                urls.add(url);
-            } catch (Exception ex) {
-                return ResponseEntity.badRequest().body("Failed to upload: " + file.getOriginalFilename());
-            }
+        try {
+            return ResponseEntity.ok(imageUploadPipeline.uploadAll(files));
+        } catch (ImageUploadException ex) {
+            return ResponseEntity.badRequest().body("Failed to upload: " + ex.getFileName());
         }
-        return ResponseEntity.ok(urls);
     }
 
     // ==== BOOKING CHO OWNER ====
@@ -1,5 +1,6 @@
 package com.example.car_rental_server.controller;
 
+import com.example.car_rental_server.dto.CursorPageDTO;
 import com.example.car_rental_server.dto.ReplyDTO;
 
 import com.example.car_rental_server.service.reply.IReplyService;
@@ -22,6 +23,29 @@ public class ReplyController {
         return ResponseEntity.ok(tree);
     }
 
+    // GET top-level replies theo trang (cursor), mỗi reply kèm childCount
+    @GetMapping("/api/reviews/{reviewId}/replies/page")
+    public ResponseEntity<CursorPageDTO<ReplyDTO>> getTopLevelReplies(@PathVariable Long reviewId,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(replyService.getTopLevelReplies(reviewId, cursor, size));
+    }
+
+    // GET con trực tiếp của một reply theo trang (mở rộng dần khi người dùng bấm "xem thêm")
+    @GetMapping("/api/reviews/{reviewId}/replies/{replyId}/children")
+    public ResponseEntity<?> getChildReplies(@PathVariable Long reviewId,
+                                             @PathVariable Long replyId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(replyService.getChildReplies(reviewId, replyId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(e.getMessage());
+        }
+    }
+
     // POST create reply to review (optional parentId)
     @PostMapping("/api/reviews/{reviewId}/replies")
     public ResponseEntity<ReplyDTO> createReply(@PathVariable Long reviewId, @RequestBody CreateReplyRequest req) {
@@ -1,5 +1,7 @@
 package com.example.car_rental_server.controller;
 
+import com.example.car_rental_server.dto.CursorPageDTO;
+import com.example.car_rental_server.dto.RatingSummaryDTO;
 import com.example.car_rental_server.dto.ReviewDTO;
 import com.example.car_rental_server.service.review.IReviewService;
 import lombok.RequiredArgsConstructor;
@@ -32,23 +34,16 @@ public class ReviewController {
         return ResponseEntity.ok(p);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<ReviewDTO>> scrollReviews(@PathVariable UUID vehicleId,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reviewService.getReviewsForVehicleByCursor(vehicleId, cursor, size));
+    }
+
     @GetMapping("/summary")
-    public ResponseEntity<?> getSummary(@PathVariable UUID vehicleId) {
-        double avg = reviewService.getAverageRating(vehicleId);
-        long total = reviewService.countReviews(vehicleId);
-        long star5 = reviewService.countByStar(vehicleId, 5);
-        long star4 = reviewService.countByStar(vehicleId, 4);
-        long star3 = reviewService.countByStar(vehicleId, 3);
-        long star2 = reviewService.countByStar(vehicleId, 2);
-        long star1 = reviewService.countByStar(vehicleId, 1);
-        return ResponseEntity.ok(new Object() {
-            public final double average = avg;
-            public final long count = total;
-            public final long s5 = star5;
-            public final long s4 = star4;
-            public final long s3 = star3;
-            public final long s2 = star2;
-            public final long s1 = star1;
-        });
+    public ResponseEntity<RatingSummaryDTO> getSummary(@PathVariable UUID vehicleId) {
+        // Một lần đọc vehicle_rating_stats thay cho 7 query avg/count/từng sao
+        return ResponseEntity.ok(reviewService.getRatingSummary(vehicleId));
     }
 }
\ No newline at end of file
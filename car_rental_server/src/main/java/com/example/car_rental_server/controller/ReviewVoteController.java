@@ -40,6 +40,8 @@ public class ReviewVoteController {
             vr.notHelpfulCount = res.notHelpfulCount;
             vr.userVote = res.userVote;
             return ResponseEntity.ok(vr);
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(409).body(ex.getMessage());
         } catch (RuntimeException ex) {
             return ResponseEntity.status(401).body(ex.getMessage());
         }
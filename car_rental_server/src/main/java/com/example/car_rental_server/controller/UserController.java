@@ -2,10 +2,12 @@ package com.example.car_rental_server.controller;
 
 import com.example.car_rental_server.dto.UserProfileDTO;
 import com.example.car_rental_server.dto.BookingDTO;
+import com.example.car_rental_server.dto.CursorPageDTO;
 import com.example.car_rental_server.service.user.IUserService;
 import com.example.car_rental_server.service.booking.IBookingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.UUID;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/user")
 @RequiredArgsConstructor
@@ -44,22 +47,14 @@ public class UserController {
 
     @PostMapping("/bookings")
     public ResponseEntity<?> createBooking(@RequestBody BookingDTO dto, Authentication authentication) {
-        System.out.println("==== DEBUG BookingController ====");
-        System.out.println("Auth: " + authentication);
-        if (authentication != null) {
-            System.out.println("Principal: " + authentication.getPrincipal());
-            System.out.println("Authorities: " + authentication.getAuthorities());
-            System.out.println("Is Authenticated: " + authentication.isAuthenticated());
-        }
-        String email = authentication != null ? authentication.getName() : "null";
-        Long userId = userService.findIdByEmail(email);
-        System.out.println("UserId: " + userId);
-        System.out.println("DTO: " + dto);
-
         if (authentication == null || !authentication.isAuthenticated()) {
-            System.out.println("ERROR: authentication missing or not authenticated!");
+            log.warn("Create booking without authentication");
             return ResponseEntity.status(401).body("Not authenticated");
         }
+        String email = authentication.getName();
+        Long userId = userService.findIdByEmail(email);
+        log.debug("Create booking: userId={}, authorities={}, vehicleId={}, {} -> {}",
+                userId, authentication.getAuthorities(), dto.getVehicleId(), dto.getStartDate(), dto.getEndDate());
 
         dto.setUserId(userId);
 
@@ -67,7 +62,7 @@ public class UserController {
         try {
             created = bookingService.createBooking(dto);
             if (created == null) {
-                System.out.println("ERROR: BookingService.createBooking trả về null!");
+                log.warn("BookingService.createBooking trả về null: userId={}, vehicleId={}", userId, dto.getVehicleId());
                 // Kiểm tra xem lỗi do user hay vehicle
                 boolean userExist = userService.findIdByEmail(email) != null;
                 boolean vehicleExist = dto.getVehicleId() != null &&
@@ -80,8 +75,13 @@ public class UserController {
                 }
                 return ResponseEntity.status(400).body("Booking failed! Dữ liệu không hợp lệ.");
             }
+        } catch (IllegalStateException e) {
+            // Trùng lịch với booking khác của cùng xe
+            return ResponseEntity.status(409).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
         } catch (Exception e) {
-            System.out.println("ERROR: Exception khi tạo booking: " + e.getMessage());
+            log.error("Exception khi tạo booking: userId={}, vehicleId={}", userId, dto.getVehicleId(), e);
             return ResponseEntity.status(500).body("Lỗi server khi tạo booking: " + e.getMessage());
         }
 
@@ -99,6 +99,19 @@ public class UserController {
         return ResponseEntity.ok(bookingService.getMyBookings(userId));
     }
 
+    // Lịch sử booking dạng infinite scroll (cursor)
+    @GetMapping("/bookings/scroll")
+    public ResponseEntity<CursorPageDTO<BookingDTO>> scrollMyBookings(@RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer size,
+                                                                     Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(401).build();
+        }
+        String email = authentication.getName();
+        Long userId = userService.findIdByEmail(email);
+        return ResponseEntity.ok(bookingService.getMyBookingsByCursor(userId, cursor, size));
+    }
+
     // Xem chi tiết 1 booking của user
     @GetMapping("/bookings/{id}")
     public ResponseEntity<?> getBookingDetail(@PathVariable UUID id, Authentication authentication) {
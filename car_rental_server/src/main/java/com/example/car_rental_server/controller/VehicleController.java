@@ -1,12 +1,18 @@
 package com.example.car_rental_server.controller;
 
 import com.example.car_rental_server.dto.PostVehicleDTO;
+import com.example.car_rental_server.dto.VehicleCardView;
+import com.example.car_rental_server.dto.VehicleSearchRequestDTO;
 import com.example.car_rental_server.service.vehicle.IVehicleService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -22,6 +28,48 @@ public class VehicleController {
         return ResponseEntity.ok(list);
     }
 
+    // Catalog có phân trang + filter phía server (thay cho việc tải toàn bộ bảng)
+    @GetMapping("/search")
+    public ResponseEntity<?> searchVehicles(@ModelAttribute VehicleSearchRequestDTO request) {
+        try {
+            return ResponseEntity.ok(vehicleService.searchVehicles(request));
+        } catch (IllegalArgumentException e) {
+            // khoảng ngày không hợp lệ (endDate trước startDate)
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Card list nhẹ cho trang catalog (id, tên, hãng, giá, rating, ảnh đầu, địa chỉ)
+    @GetMapping("/cards")
+    public ResponseEntity<Page<VehicleCardView>> getVehicleCards(@RequestParam(required = false) Integer page,
+                                                                 @RequestParam(required = false) Integer size,
+                                                                 @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(vehicleService.getVehicleCards(page, size, sort));
+    }
+
+    // Infinite scroll: cursor lấy từ nextCursor của trang trước
+    @GetMapping("/scroll")
+    public ResponseEntity<?> scrollVehicles(@ModelAttribute VehicleSearchRequestDTO request,
+                                            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(vehicleService.searchVehiclesByCursor(request, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Kiểm tra nhanh xe còn trống trong khoảng ngày (dùng availability index)
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<?> checkAvailability(@PathVariable UUID id,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            return ResponseEntity.ok(Map.of("available", vehicleService.isAvailable(id, startDate, endDate)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getVehicle(@PathVariable UUID id) {
         return vehicleService.getVehicleById(id)
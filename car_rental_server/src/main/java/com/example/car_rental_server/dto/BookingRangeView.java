@@ -0,0 +1,17 @@
+package com.example.car_rental_server.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Minimal booking projection used to warm the availability index.
+ */
+public interface BookingRangeView {
+    UUID getId();
+
+    UUID getVehicleId();
+
+    LocalDate getStartDate();
+
+    LocalDate getEndDate();
+}
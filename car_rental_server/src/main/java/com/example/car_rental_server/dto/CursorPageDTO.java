@@ -0,0 +1,32 @@
+package com.example.car_rental_server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Slice-style response for infinite scroll: no total count, only an opaque cursor to the next page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor; // null when there is no next page
+    private boolean hasNext;
+
+    /**
+     * Build a page from rows fetched with limit = size + 1 (the extra row only signals hasNext).
+     */
+    public static <E, T> CursorPageDTO<T> of(List<E> rows, int size, Function<E, T> mapper, Function<E, String> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null;
+        List<T> items = pageRows.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPageDTO<>(items, nextCursor, hasNext);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.car_rental_server.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingSummaryDTO {
+    private double average;
+    private long count;
+    private long s5;
+    private long s4;
+    private long s3;
+    private long s2;
+    private long s1;
+}
@@ -24,6 +24,9 @@ public class ReplyDTO {
     private String replyToUserName;
     private String replyToAvatar; // NEW: avatar URL of the replied-to user
 
+    // Số reply con trực tiếp (chỉ có ở API phân trang, dùng để hiện nút "xem thêm")
+    private Long childCount;
+
     // IMPORTANT: ensure children is always non-null
     @Builder.Default
     private List<ReplyDTO> children = new ArrayList<>();
@@ -0,0 +1,8 @@
+package com.example.car_rental_server.dto;
+
+// Hai cột counter của review, đọc thẳng từ DB (không qua entity trong persistence context)
+public interface ReviewVoteCountView {
+    Long getHelpfulCount();
+
+    Long getNotHelpfulCount();
+}
@@ -0,0 +1,25 @@
+package com.example.car_rental_server.dto;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection for catalog cards: only the columns a list card renders,
+ * selected directly in SQL without loading PostVehicle entities.
+ */
+public interface VehicleCardView {
+    UUID getId();
+
+    String getVehicleName();
+
+    String getBrand();
+
+    Double getDailyPrice();
+
+    Double getRating();
+
+    String getFirstImage();
+
+    String getFirstThumbnail(); // null nếu ảnh chưa có derivative: client dùng firstImage
+
+    String getAddress(); // city/area shown on the card
+}
@@ -0,0 +1,31 @@
+package com.example.car_rental_server.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+public class VehicleSearchRequestDTO {
+    // Filters (all optional)
+    private String brand;
+    private String category;
+    private Integer seats;
+    private String transmission;
+    private String fuelType;
+    private Double minPrice;
+    private Double maxPrice;
+
+    // Chỉ lấy xe còn trống trong khoảng [startDate, endDate) (cần cả hai)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+
+    // Sort: price_asc, price_desc, rating_desc, name_asc
+    private String sort;
+
+    // Paging
+    private Integer page;
+    private Integer size;
+}
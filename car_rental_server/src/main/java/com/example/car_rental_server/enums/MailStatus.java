@@ -0,0 +1,8 @@
+package com.example.car_rental_server.enums;
+
+public enum MailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
@@ -0,0 +1,221 @@
+package com.example.car_rental_server.filter;
+
+import com.example.car_rental_server.service.idempotency.IIdempotencyStore;
+import com.example.car_rental_server.service.idempotency.IdempotentResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Replays the stored response when a client retries a POST with the same Idempotency-Key,
+ * instead of creating another booking / vehicle (and sending the notification or uploading images again).
+ * Keys are scoped per user and path; only 2xx responses are stored, failures can be retried.
+ * The SHA-256 of the request body is stored with the key: reusing a key with a different payload gets 422
+ * instead of the first request's response.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Set<String> IDEMPOTENT_PATHS = Set.of("/api/user/bookings", "/api/owner/vehicles");
+    // Admin outbox relay gửi lại (at-least-once) với Idempotency-Key = eventId
+    private static final Pattern IDEMPOTENT_PATTERN = Pattern.compile("/api/notifications/users/\\d+/create");
+
+    private final IIdempotencyStore store;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equalsIgnoreCase(request.getMethod())
+                || !(IDEMPOTENT_PATHS.contains(request.getServletPath())
+                || IDEMPOTENT_PATTERN.matcher(request.getServletPath()).matches());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, HEADER + " is too long");
+            return;
+        }
+
+        // JSON được đọc vào bộ nhớ (nhỏ) và phát lại cho controller; multipart băm từng part (đã nằm trên đĩa)
+        HttpServletRequest hashedRequest = isMultipart(request) || isForm(request) ? request : new CachedBodyRequest(request);
+        String requestHash = bodyHash(hashedRequest);
+
+        String key = scopedKey(request, idempotencyKey);
+        IdempotentResponse stored = store.begin(key, requestHash);
+        if (stored != null) {
+            if (!stored.matches(requestHash)) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        HEADER + " was already used with a different request body");
+            } else if (stored.isInProgress()) {
+                response.sendError(HttpServletResponse.SC_CONFLICT, "A request with this " + HEADER + " is still being processed");
+            } else {
+                replay(stored, response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(hashedRequest, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            store.release(key);
+            throw e;
+        }
+
+        int status = wrapper.getStatus();
+        if (status >= 200 && status < 300) {
+            store.complete(key, new IdempotentResponse(status, wrapper.getContentType(), wrapper.getContentAsByteArray(), requestHash));
+        } else {
+            store.release(key);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void replay(IdempotentResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) response.setContentType(stored.getContentType());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private String scopedKey(HttpServletRequest request, String idempotencyKey) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String principal = auth != null ? auth.getName() : "anonymous";
+        String raw = principal + "|" + request.getMethod() + " " + request.getServletPath() + "|" + idempotencyKey;
+        return HexFormat.of().formatHex(newDigest().digest(raw.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String bodyHash(HttpServletRequest request) throws IOException, ServletException {
+        MessageDigest digest = newDigest();
+        if (request instanceof CachedBodyRequest cached) {
+            digest.update(cached.body);
+        } else if (isForm(request)) {
+            // Form đã được container parse từ body: băm tham số theo thứ tự tên
+            new TreeMap<>(request.getParameterMap()).forEach((name, values) -> {
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                for (String value : values) {
+                    digest.update((byte) 0);
+                    digest.update(value.getBytes(StandardCharsets.UTF_8));
+                }
+                digest.update((byte) 1);
+            });
+        } else {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (Part part : request.getParts()) {
+                digest.update(part.getName().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                if (part.getSubmittedFileName() != null) digest.update(part.getSubmittedFileName().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                try (InputStream in = part.getInputStream()) {
+                    int n;
+                    while ((n = in.read(buffer)) != -1) digest.update(buffer, 0, n);
+                }
+                digest.update((byte) 0);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith("multipart/");
+    }
+
+    private static boolean isForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith("application/x-www-form-urlencoded");
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Body đọc một lần để băm, controller đọc lại từ bản trong bộ nhớ
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
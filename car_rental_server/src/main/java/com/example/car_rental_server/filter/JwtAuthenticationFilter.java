@@ -1,39 +1,45 @@
 package com.example.car_rental_server.filter;
 
+import com.example.car_rental_server.security.AuthenticatedUser;
+import com.example.car_rental_server.security.JwtPrincipalCache;
 import com.example.car_rental_server.security.JwtService;
+import com.example.car_rental_server.utils.LogRedactor;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final Map<String, List<GrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final JwtPrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        // Log tất cả cookie
-        if (request.getCookies() != null) {
-            for (Cookie c : request.getCookies()) {
-                System.out.println("Cookie: " + c.getName() + " = " + c.getValue());
-            }
-        }
-
         String token = null;
         // Ưu tiên lấy từ cookie "jwt"
         if (request.getCookies() != null) {
@@ -52,32 +58,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         }
 
-        // Log giá trị token lấy được
-        System.out.println("Token lấy được: " + token);
+        // Không bao giờ log token thô, chỉ fingerprint (và chỉ khi bật DEBUG)
+        if (log.isDebugEnabled()) {
+            log.debug("{} {} token={}", request.getMethod(), request.getRequestURI(), LogRedactor.secret(token));
+        }
 
-        // Validate và log lỗi chi tiết
+        // Parse 1 lần: chữ ký + hạn + claims; user lấy từ cache ngắn hạn thay vì DB mỗi request
         if (token != null) {
             try {
-                if (jwtService.validateToken(token)) {
-                    String username = jwtService.getUsernameFromToken(token);
-                    UserDetails user = userDetailsService.loadUserByUsername(username);
-
-                    System.out.println("JWT Token: " + token);
-                    System.out.println("Username: " + username);
-                    System.out.println("Authorities: " + user.getAuthorities());
+                Claims claims = jwtService.parseClaims(token);
+                String username = claims.getSubject();
+                AuthenticatedUser user = username != null ? principalCache.get(username) : null;
+                if (user == null || !user.enabled()) {
+                    log.debug("User không tồn tại hoặc đã bị khoá: {}", username);
+                } else {
                     UsernamePasswordAuthenticationToken auth =
-                            new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+                            new UsernamePasswordAuthenticationToken(user, null, authoritiesFor(claims, user));
                     SecurityContextHolder.getContext().setAuthentication(auth);
-                } else {
-                    System.out.println("Token không hợp lệ hoặc đã hết hạn!");
                 }
-            } catch (Exception e) {
-                System.out.println("Lỗi validateToken: " + e.getMessage());
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Token không hợp lệ hoặc đã hết hạn: {}", e.getMessage());
             }
-        } else {
-            System.out.println("Không tìm thấy token trong request!");
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // Quyền lấy từ claim "role"; nếu role trong DB (qua cache) đã đổi thì theo DB, tối đa trễ 1 TTL
+    private Collection<? extends GrantedAuthority> authoritiesFor(Claims claims, AuthenticatedUser user) {
+        String role = claims.get("role", String.class);
+        if (user.role() != null && !user.role().equals(role)) {
+            role = user.role();
+        }
+        if (role == null) return List.of();
+        return AUTHORITIES.computeIfAbsent(role, r -> List.of(new SimpleGrantedAuthority(r)));
+    }
+}
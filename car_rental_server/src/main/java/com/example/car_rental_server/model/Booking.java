@@ -14,7 +14,7 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = @Index(name = "idx_bookings_booking_date", columnList = "bookingDate"))
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -0,0 +1,22 @@
+package com.example.car_rental_server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Number of bookings per vehicle per day, maintained alongside {@link DailyBookingStats}.
+ */
+@Entity
+@Table(name = "daily_vehicle_booking_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyVehicleBookingStats {
+    @EmbeddedId
+    private DailyVehicleBookingStatsId id;
+
+    @Column(nullable = false)
+    private long bookings;
+}
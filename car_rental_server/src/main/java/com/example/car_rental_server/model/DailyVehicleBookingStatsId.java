@@ -0,0 +1,19 @@
+package com.example.car_rental_server.model;
+
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class DailyVehicleBookingStatsId implements Serializable {
+    private LocalDate statDate;
+    private UUID vehicleId;
+}
@@ -0,0 +1,35 @@
+package com.example.car_rental_server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    @Id
+    @Column(length = 64)
+    private String id; // SHA-256 của (user, method, path, Idempotency-Key)
+
+    @Column(nullable = false)
+    private Boolean completed;
+
+    @Column(length = 64)
+    private String requestHash; // SHA-256 của body: cùng key khác payload -> 422
+
+    private Integer responseStatus;
+    private String contentType;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB")
+    private byte[] body;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt; // đang xử lý: hết lease; đã xong: hết TTL
+}
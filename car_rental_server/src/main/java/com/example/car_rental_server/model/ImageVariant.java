@@ -0,0 +1,26 @@
+package com.example.car_rental_server.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+/**
+ * Derivatives of one entry of PostVehicle.imageList: a small thumbnail for list cards and a
+ * medium rendition for detail views. Both are null for images uploaded before derivatives existed.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageVariant {
+    @Column(length = 512)
+    private String originalUrl;
+
+    @Column(length = 512)
+    private String thumbnailUrl;
+
+    @Column(length = 512)
+    private String mediumUrl;
+}
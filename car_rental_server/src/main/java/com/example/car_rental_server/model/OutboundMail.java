@@ -0,0 +1,60 @@
+package com.example.car_rental_server.model;
+
+import com.example.car_rental_server.enums.MailStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một email chờ gửi. Request chỉ INSERT dòng này; MailDispatcher gửi SMTP ở background.
+ * Bảng dùng chung với car_rental_admin (cùng DB), định nghĩa phải giữ giống nhau ở hai module;
+ * admin chỉ INSERT, chỉ server chạy MailDispatcher.
+ */
+@Entity
+@Table(name = "outbound_mail", indexes = {
+        @Index(name = "idx_outbound_mail_status_next", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_outbound_mail_claim", columnList = "claimToken")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboundMail {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 320)
+    private String recipient;
+
+    @Column(nullable = false, length = 500)
+    private String subject;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String body; // HTML đã render
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private MailStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Worker đang giữ dòng này và hạn giữ; quá hạn (worker chết) thì worker khác nhận lại
+    @Column(length = 36)
+    private String claimToken;
+    private LocalDateTime leaseUntil;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+}
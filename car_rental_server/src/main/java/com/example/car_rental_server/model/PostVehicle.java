@@ -5,6 +5,7 @@ import com.example.car_rental_server.enums.VehicleStatus;
 import jakarta.persistence.*;
 import lombok.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 import java.util.UUID;
@@ -36,11 +37,20 @@ public class PostVehicle {
     // Images (max 5)
     @ElementCollection
     @CollectionTable(name = "vehicle_images", joinColumns = @JoinColumn(name = "vehicle_id"))
+    @OrderColumn(name = "image_order") // giữ thứ tự upload: ảnh index 0 là ảnh đại diện của card
+    @BatchSize(size = 50) // load ảnh của cả trang bằng 1 query IN (...)
     private List<String> imageList; // List of image URLs
 
+    // Thumbnail/medium của từng ảnh trong imageList (sinh lúc upload), dùng cho card list
+    @ElementCollection
+    @CollectionTable(name = "vehicle_image_variants", joinColumns = @JoinColumn(name = "vehicle_id"))
+    @BatchSize(size = 50)
+    private List<ImageVariant> imageVariants;
+
     // Features & Amenities
     @ElementCollection
     @CollectionTable(name = "vehicle_features", joinColumns = @JoinColumn(name = "vehicle_id"))
+    @BatchSize(size = 50)
     private List<String> features;  // List of feature names
 
     // Location
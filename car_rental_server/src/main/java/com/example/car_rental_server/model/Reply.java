@@ -6,7 +6,11 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "replies")
+@Table(name = "replies", indexes = {
+        // top-level theo review (parent_id IS NULL) và con của một reply, cùng thứ tự keyset (createdAt, id)
+        @Index(name = "idx_reply_review_parent_created", columnList = "review_id, parent_id, createdAt, id"),
+        @Index(name = "idx_reply_parent_created", columnList = "parent_id, createdAt, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,6 +42,12 @@ public class Reply {
     @JoinColumn(name = "parent_id")
     private Reply parent;
 
+    // Ghi lúc insert để dựng cây 1 lượt: depth = 1 cho top-level, rootId = id của reply top-level (null nếu chính nó là top-level)
+    private Integer depth;
+
+    @Column(name = "root_id")
+    private Long rootId;
+
     // Ensure createdAt is set before insert (covers builder/other creation paths)
     @PrePersist
     public void prePersist() {
@@ -3,6 +3,7 @@ package com.example.car_rental_server.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -28,6 +29,17 @@ public class Review {
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Đếm vote denormalized, chỉ cập nhật bằng UPDATE ... + delta trong ReviewVoteService
+    @Column(name = "helpful_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long helpfulCount = 0L;
+
+    @Column(name = "not_helpful_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long notHelpfulCount = 0L;
+
     // Who wrote the review (user) - liên kết nếu bạn có entity User
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
@@ -0,0 +1,33 @@
+package com.example.car_rental_server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stored_images", indexes = @Index(name = "idx_stored_images_url", columnList = "url"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredImage {
+    @Id
+    @Column(length = 64)
+    private String contentHash; // SHA-256 (hex) của nội dung file
+
+    @Column(nullable = false, length = 512)
+    private String url;
+
+    @Column(length = 512)
+    private String thumbnailUrl;
+
+    @Column(length = 512)
+    private String mediumUrl;
+
+    private Long sizeBytes;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,55 @@
+package com.example.car_rental_server.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Rating aggregate per vehicle, maintained in the same transaction as each review insert
+ * so the summary endpoint and PostVehicle.rating never need to scan the reviews table.
+ */
+@Entity
+@Table(name = "vehicle_rating_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VehicleRatingStats {
+    @Id
+    private UUID vehicleId;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    @Column(nullable = false)
+    private long reviewCount;
+
+    // Histogram theo số sao
+    @Column(nullable = false)
+    private long star1;
+    @Column(nullable = false)
+    private long star2;
+    @Column(nullable = false)
+    private long star3;
+    @Column(nullable = false)
+    private long star4;
+    @Column(nullable = false)
+    private long star5;
+
+    public double getAverage() {
+        return reviewCount == 0 ? 0.0 : (double) ratingSum / reviewCount;
+    }
+
+    public long getStar(int star) {
+        return switch (star) {
+            case 1 -> star1;
+            case 2 -> star2;
+            case 3 -> star3;
+            case 4 -> star4;
+            case 5 -> star5;
+            default -> 0;
+        };
+    }
+}
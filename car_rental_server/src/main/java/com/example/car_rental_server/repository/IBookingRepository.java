@@ -1,10 +1,18 @@
 package com.example.car_rental_server.repository;
 
+import com.example.car_rental_server.dto.BookingRangeView;
+import com.example.car_rental_server.enums.BookingStatus;
 import com.example.car_rental_server.model.Booking;
 import com.example.car_rental_server.model.PostVehicle;
 import com.example.car_rental_server.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,4 +20,59 @@ public interface IBookingRepository extends JpaRepository<Booking, UUID> {
     List<Booking> findAllByUser(User user);
     List<Booking> findAllByOwner(User owner);
     List<Booking> findAllByVehicle(PostVehicle vehicle);
-}
\ No newline at end of file
+
+    // Lịch sử booking của user theo keyset (bookingDate DESC, id DESC)
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId ORDER BY b.bookingDate DESC, b.id DESC")
+    List<Booking> findFirstByUserKeyset(@Param("userId") Long userId, Pageable limit);
+
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId "
+            + "AND (b.bookingDate < :bookingDate OR (b.bookingDate = :bookingDate AND b.id < :id)) "
+            + "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<Booking> findNextByUserKeyset(@Param("userId") Long userId,
+                                       @Param("bookingDate") LocalDateTime bookingDate,
+                                       @Param("id") UUID id,
+                                       Pageable limit);
+
+    // Khoảng ngày của các booking đang giữ xe, chỉ lấy 4 cột để nạp availability index
+    @Query("SELECT b.id AS id, b.vehicle.id AS vehicleId, b.startDate AS startDate, b.endDate AS endDate "
+            + "FROM Booking b WHERE b.status IN :statuses AND b.startDate IS NOT NULL AND b.endDate IS NOT NULL")
+    List<BookingRangeView> findRangesByStatusIn(@Param("statuses") Collection<BookingStatus> statuses);
+
+    // Overlap theo nửa khoảng [startDate, endDate); booking trong ngày (endDate <= startDate) giữ đúng 1 ngày
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.vehicle.id = :vehicleId AND b.status IN :statuses "
+            + "AND b.startDate < :endDate "
+            + "AND (b.endDate > :startDate OR (b.endDate <= b.startDate AND b.startDate >= :startDate))")
+    boolean existsOverlapping(@Param("vehicleId") UUID vehicleId,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate,
+                              @Param("statuses") Collection<BookingStatus> statuses);
+
+    // ===== Rollup daily_booking_stats (tính lại theo khoảng [from, to) trên bookingDate) =====
+
+    // [ngày, status, số booking, tổng tiền]
+    @Query("SELECT CAST(b.bookingDate AS LocalDate), b.status, COUNT(b), COALESCE(SUM(b.totalAmount), 0.0) FROM Booking b "
+            + "WHERE b.bookingDate >= :from AND b.bookingDate < :to "
+            + "GROUP BY CAST(b.bookingDate AS LocalDate), b.status")
+    List<Object[]> aggregateByDayAndStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // [ngày, số khách khác nhau]
+    @Query("SELECT CAST(b.bookingDate AS LocalDate), COUNT(DISTINCT b.user.id) FROM Booking b "
+            + "WHERE b.bookingDate >= :from AND b.bookingDate < :to "
+            + "GROUP BY CAST(b.bookingDate AS LocalDate)")
+    List<Object[]> countCustomersByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // [ngày, vehicleId, số booking]
+    @Query("SELECT CAST(b.bookingDate AS LocalDate), b.vehicle.id, COUNT(b) FROM Booking b "
+            + "WHERE b.bookingDate >= :from AND b.bookingDate < :to AND b.vehicle IS NOT NULL "
+            + "GROUP BY CAST(b.bookingDate AS LocalDate), b.vehicle.id")
+    List<Object[]> countByDayAndVehicle(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // User đã có booking khác trong cùng ngày chưa (để đếm khách khác nhau khi cộng dồn)
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.user.id = :userId AND b.id <> :bookingId "
+            + "AND b.bookingDate >= :from AND b.bookingDate < :to")
+    boolean existsOtherByUserBetween(@Param("userId") Long userId, @Param("bookingId") UUID bookingId,
+                                     @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT MIN(b.bookingDate) FROM Booking b")
+    LocalDateTime findFirstBookingDate();
+}
@@ -0,0 +1,41 @@
+package com.example.car_rental_server.repository;
+
+import com.example.car_rental_server.model.DailyBookingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface IDailyBookingStatsRepository extends JpaRepository<DailyBookingStats, LocalDate> {
+
+    // Cộng dồn nguyên tử trên DB; trả về 0 nếu ngày chưa có dòng
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE DailyBookingStats s SET s.bookings = s.bookings + 1, s.revenue = s.revenue + :amount, "
+            + "s.customers = s.customers + :newCustomers WHERE s.statDate = :day")
+    int addBooking(@Param("day") LocalDate day, @Param("amount") double amount, @Param("newCustomers") long newCustomers);
+
+    // Cộng delta vào cột của đúng một trạng thái (status = BookingStatus.name())
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE DailyBookingStats s SET "
+            + "s.pendingCount = s.pendingCount + (CASE WHEN :status = 'PENDING' THEN :delta ELSE 0 END), "
+            + "s.pendingRevenue = s.pendingRevenue + (CASE WHEN :status = 'PENDING' THEN :amount ELSE 0.0 END), "
+            + "s.confirmedCount = s.confirmedCount + (CASE WHEN :status = 'CONFIRMED' THEN :delta ELSE 0 END), "
+            + "s.confirmedRevenue = s.confirmedRevenue + (CASE WHEN :status = 'CONFIRMED' THEN :amount ELSE 0.0 END), "
+            + "s.activeCount = s.activeCount + (CASE WHEN :status = 'ACTIVE' THEN :delta ELSE 0 END), "
+            + "s.activeRevenue = s.activeRevenue + (CASE WHEN :status = 'ACTIVE' THEN :amount ELSE 0.0 END), "
+            + "s.completedCount = s.completedCount + (CASE WHEN :status = 'COMPLETED' THEN :delta ELSE 0 END), "
+            + "s.completedRevenue = s.completedRevenue + (CASE WHEN :status = 'COMPLETED' THEN :amount ELSE 0.0 END), "
+            + "s.cancelledCount = s.cancelledCount + (CASE WHEN :status = 'CANCELLED' THEN :delta ELSE 0 END), "
+            + "s.cancelledRevenue = s.cancelledRevenue + (CASE WHEN :status = 'CANCELLED' THEN :amount ELSE 0.0 END) "
+            + "WHERE s.statDate = :day")
+    int adjustStatus(@Param("day") LocalDate day, @Param("status") String status,
+                     @Param("delta") long delta, @Param("amount") double amount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM DailyBookingStats s WHERE s.statDate >= :from AND s.statDate <= :to")
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,25 @@
+package com.example.car_rental_server.repository;
+
+import com.example.car_rental_server.model.DailyVehicleBookingStats;
+import com.example.car_rental_server.model.DailyVehicleBookingStatsId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Repository
+public interface IDailyVehicleBookingStatsRepository extends JpaRepository<DailyVehicleBookingStats, DailyVehicleBookingStatsId> {
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE DailyVehicleBookingStats s SET s.bookings = s.bookings + 1 "
+            + "WHERE s.id.statDate = :day AND s.id.vehicleId = :vehicleId")
+    int increment(@Param("day") LocalDate day, @Param("vehicleId") UUID vehicleId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM DailyVehicleBookingStats s WHERE s.id.statDate >= :from AND s.id.statDate <= :to")
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
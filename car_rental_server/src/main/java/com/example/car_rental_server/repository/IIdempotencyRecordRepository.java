@@ -0,0 +1,26 @@
+package com.example.car_rental_server.repository;
+
+import com.example.car_rental_server.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IIdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    // Tiếp quản dòng đã hết hạn (claim quá lease hoặc response quá TTL); 0 = request khác đã tiếp quản trước
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE IdempotencyRecord r SET r.completed = false, r.requestHash = :requestHash, r.responseStatus = null, "
+            + "r.contentType = null, r.body = null, r.expiresAt = :expiresAt WHERE r.id = :id AND r.expiresAt <= :now")
+    int takeOverExpired(@Param("id") String id, @Param("requestHash") String requestHash,
+                        @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+}
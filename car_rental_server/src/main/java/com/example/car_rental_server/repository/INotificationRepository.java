@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -18,6 +19,18 @@ public interface INotificationRepository extends JpaRepository<Notification, Lon
     // User-specific: find notifications where recipientId == userId
     Page<Notification> findByRecipientIdOrderByCreatedAtDesc(Long recipientId, Pageable pageable);
 
+    // User-specific keyset pagination (createdAt DESC, id DESC)
+    @Query("SELECT n FROM Notification n WHERE n.recipientId = :recipientId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFirstByRecipientKeyset(@Param("recipientId") Long recipientId, Pageable limit);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipientId = :recipientId "
+            + "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findNextByRecipientKeyset(@Param("recipientId") Long recipientId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable limit);
+
     // Count unread for a user (by recipientId)
     long countByRecipientIdAndIsReadFalse(Long recipientId);
 
@@ -0,0 +1,70 @@
+package com.example.car_rental_server.repository;
+
+import com.example.car_rental_server.enums.MailStatus;
+import com.example.car_rental_server.model.OutboundMail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IOutboundMailRepository extends JpaRepository<OutboundMail, Long> {
+
+    // Mail đến hạn gửi, hoặc đang SENDING nhưng lease đã hết (worker trước bị dừng giữa chừng)
+    @Query("SELECT m.id FROM OutboundMail m " +
+            "WHERE (m.status = :pending AND m.nextAttemptAt <= :now) " +
+            "OR (m.status = :sending AND m.leaseUntil < :now) " +
+            "ORDER BY m.nextAttemptAt ASC, m.id ASC")
+    List<Long> findDueIds(@Param("pending") MailStatus pending,
+                          @Param("sending") MailStatus sending,
+                          @Param("now") LocalDateTime now,
+                          Pageable pageable);
+
+    /**
+     * Claim nguyên tử: chỉ những dòng vẫn còn đến hạn mới được gắn token, nên hai worker
+     * (hoặc nhiều instance server) không bao giờ gửi trùng một mail.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundMail m SET m.status = :sending, m.claimToken = :token, m.leaseUntil = :leaseUntil " +
+            "WHERE m.id IN :ids " +
+            "AND ((m.status = :pending AND m.nextAttemptAt <= :now) OR (m.status = :sending AND m.leaseUntil < :now))")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("token") String token,
+              @Param("pending") MailStatus pending,
+              @Param("sending") MailStatus sending,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<OutboundMail> findByClaimToken(String claimToken);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundMail m SET m.status = :sent, m.sentAt = :now, m.attempts = m.attempts + 1, " +
+            "m.claimToken = NULL, m.leaseUntil = NULL, m.lastError = NULL " +
+            "WHERE m.id IN :ids AND m.claimToken = :token")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("token") String token,
+                 @Param("sent") MailStatus sent,
+                 @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundMail m SET m.status = :status, m.nextAttemptAt = :nextAttemptAt, m.attempts = m.attempts + 1, " +
+            "m.claimToken = NULL, m.leaseUntil = NULL, m.lastError = :error " +
+            "WHERE m.id = :id AND m.claimToken = :token")
+    int markFailed(@Param("id") Long id,
+                   @Param("token") String token,
+                   @Param("status") MailStatus status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    long countByStatus(MailStatus status);
+}
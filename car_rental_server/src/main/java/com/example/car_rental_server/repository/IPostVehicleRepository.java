@@ -1,8 +1,19 @@
 package com.example.car_rental_server.repository;
 
+import com.example.car_rental_server.dto.VehicleCardView;
+import com.example.car_rental_server.enums.VehicleStatus;
 import com.example.car_rental_server.model.PostVehicle;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,13 +21,45 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface IPostVehicleRepository extends JpaRepository<PostVehicle, UUID> {
+public interface IPostVehicleRepository extends JpaRepository<PostVehicle, UUID>, JpaSpecificationExecutor<PostVehicle> {
     // Tìm tất cả xe của owner (thống kê dashboard)
     List<PostVehicle> findAllByOwner_Id(Long ownerId);
 
     // Tìm tất cả xe của owner (tên khác, giữ lại nếu cần cho code cũ)
     List<PostVehicle> findByOwner_Id(Long ownerId);
 
+    // Catalog: join owner trong cùng câu select, imageList/features được batch-fetch (@BatchSize)
+    @Override
+    @EntityGraph(attributePaths = {"owner"})
+    Page<PostVehicle> findAll(Specification<PostVehicle> spec, Pageable pageable);
+
     @Query("SELECT v FROM PostVehicle v JOIN FETCH v.owner WHERE v.id = :id")
     Optional<PostVehicle> findByIdWithOwner(UUID id);
-}
\ No newline at end of file
+
+    // Card list: chỉ select các cột cần hiển thị, ảnh đầu tiên (index 0 của imageList) và thumbnail của nó lấy bằng subquery
+    @Query(value = "SELECT v.id AS id, v.vehicleName AS vehicleName, v.brand AS brand, v.dailyPrice AS dailyPrice, "
+            + "v.rating AS rating, v.address AS address, "
+            + "(SELECT img FROM PostVehicle pv JOIN pv.imageList img WHERE pv.id = v.id AND INDEX(img) = 0) AS firstImage, "
+            + "(SELECT MIN(iv.thumbnailUrl) FROM PostVehicle pv JOIN pv.imageVariants iv WHERE pv.id = v.id "
+            + "AND iv.originalUrl = (SELECT img FROM PostVehicle pv2 JOIN pv2.imageList img WHERE pv2.id = v.id AND INDEX(img) = 0)) AS firstThumbnail "
+            + "FROM PostVehicle v WHERE v.status = :status",
+            countQuery = "SELECT COUNT(v) FROM PostVehicle v WHERE v.status = :status")
+    Page<VehicleCardView> findCardsByStatus(@Param("status") VehicleStatus status, Pageable pageable);
+
+    // SELECT ... FOR UPDATE trên dòng xe: tuần tự hoá các booking của cùng một xe giữa nhiều instance
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM PostVehicle v WHERE v.id = :id")
+    Optional<PostVehicle> findByIdForUpdate(@Param("id") UUID id);
+
+    // Đồng bộ rating hiển thị từ vehicle_rating_stats (không load entity)
+    @Modifying
+    @Query("UPDATE PostVehicle v SET v.rating = :rating, v.reviewsCount = :reviewsCount WHERE v.id = :id")
+    int updateRatingSummary(@Param("id") UUID id, @Param("rating") Double rating, @Param("reviewsCount") Integer reviewsCount);
+
+    // Xe không còn review nào (vd. review bị xoá thẳng trong DB): đưa rating hiển thị về 0 khi rebuildAll
+    @Modifying
+    @Query("UPDATE PostVehicle v SET v.rating = 0.0, v.reviewsCount = 0 "
+            + "WHERE (v.rating <> 0.0 OR v.reviewsCount <> 0) "
+            + "AND NOT EXISTS (SELECT 1 FROM Review r WHERE r.vehicle.id = v.id)")
+    int resetRatingSummaryWithoutReviews();
+}
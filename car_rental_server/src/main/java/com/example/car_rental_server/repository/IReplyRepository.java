@@ -1,13 +1,17 @@
 package com.example.car_rental_server.repository;
 
 import com.example.car_rental_server.model.Reply;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface IReplyRepository extends JpaRepository<Reply, Long> {
@@ -16,14 +20,46 @@ public interface IReplyRepository extends JpaRepository<Reply, Long> {
     List<Reply> findByParent_IdOrderByCreatedAtAsc(Long parentId);
 
     /**
-     * Fetch replies for a review and also fetch:
-     *  - reply.user
-     *  - reply.parent
-     *  - reply.parent.user
-     *
-     * This ensures parent's user.avatar is available without extra lazy loads.
+     * Fetch replies for a review together with reply.user, ordered so that a parent always comes
+     * before its children. The parent's name/avatar is taken from the parent's DTO in the same pass,
+     * so parent / parent.user are no longer joined.
      */
-    @EntityGraph(attributePaths = {"user", "parent", "parent.user"})
-    @Query("SELECT r FROM Reply r WHERE r.review.id = :reviewId ORDER BY r.createdAt ASC")
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT r FROM Reply r WHERE r.review.id = :reviewId ORDER BY r.createdAt ASC, r.id ASC")
     List<Reply> findByReviewIdWithUser(@Param("reviewId") Long reviewId);
-}
\ No newline at end of file
+
+    // Top-level replies của review theo keyset (createdAt ASC, id ASC)
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT r FROM Reply r WHERE r.review.id = :reviewId AND r.parent IS NULL ORDER BY r.createdAt ASC, r.id ASC")
+    List<Reply> findFirstTopLevelKeyset(@Param("reviewId") Long reviewId, Pageable limit);
+
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT r FROM Reply r WHERE r.review.id = :reviewId AND r.parent IS NULL "
+            + "AND (r.createdAt > :createdAt OR (r.createdAt = :createdAt AND r.id > :id)) "
+            + "ORDER BY r.createdAt ASC, r.id ASC")
+    List<Reply> findNextTopLevelKeyset(@Param("reviewId") Long reviewId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable limit);
+
+    // Con trực tiếp của một reply theo keyset
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT r FROM Reply r WHERE r.parent.id = :parentId ORDER BY r.createdAt ASC, r.id ASC")
+    List<Reply> findFirstChildrenKeyset(@Param("parentId") Long parentId, Pageable limit);
+
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT r FROM Reply r WHERE r.parent.id = :parentId "
+            + "AND (r.createdAt > :createdAt OR (r.createdAt = :createdAt AND r.id > :id)) "
+            + "ORDER BY r.createdAt ASC, r.id ASC")
+    List<Reply> findNextChildrenKeyset(@Param("parentId") Long parentId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable limit);
+
+    // childCount cho cả trang trong 1 query: [parentId, count]
+    @Query("SELECT r.parent.id, COUNT(r) FROM Reply r WHERE r.parent.id IN :parentIds GROUP BY r.parent.id")
+    List<Object[]> countChildrenByParentIds(@Param("parentIds") Collection<Long> parentIds);
+
+    @EntityGraph(attributePaths = {"user"})
+    Optional<Reply> findWithUserById(Long id);
+}
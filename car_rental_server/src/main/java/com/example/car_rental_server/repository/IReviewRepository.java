@@ -1,17 +1,23 @@
 package com.example.car_rental_server.repository;
 
+import com.example.car_rental_server.dto.ReviewVoteCountView;
 import com.example.car_rental_server.model.Review;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface IReviewRepository extends JpaRepository<Review, Long> {
+    // user (tên, avatar) được join luôn để map DTO không phải load từng người
+    @EntityGraph(attributePaths = {"user"})
     Page<Review> findByVehicle_IdOrderByCreatedAtDesc(UUID vehicleId, Pageable pageable);
+    @EntityGraph(attributePaths = {"user"})
     List<Review> findByVehicle_IdOrderByCreatedAtDesc(UUID vehicleId);
 
     long countByVehicle_IdAndRating(UUID vehicleId, Integer rating);
@@ -20,4 +26,44 @@ public interface IReviewRepository extends JpaRepository<Review, Long> {
     Double findAverageRatingByVehicleId(@Param("vehicleId") UUID vehicleId);
 
     long countByVehicle_Id(UUID vehicleId);
-}
\ No newline at end of file
+
+    // Keyset pagination (createdAt DESC, id DESC): không cần COUNT, không OFFSET
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT r FROM Review r WHERE r.vehicle.id = :vehicleId ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findFirstByVehicleKeyset(@Param("vehicleId") UUID vehicleId, Pageable limit);
+
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT r FROM Review r WHERE r.vehicle.id = :vehicleId "
+            + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findNextByVehicleKeyset(@Param("vehicleId") UUID vehicleId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable limit);
+
+    // Histogram [rating, count] để rebuild vehicle_rating_stats
+    @Query("SELECT r.rating, COUNT(r) FROM Review r WHERE r.vehicle.id = :vehicleId GROUP BY r.rating")
+    List<Object[]> countByRatingForVehicle(@Param("vehicleId") UUID vehicleId);
+
+    // [vehicleId, rating, count] cho toàn bộ xe (backfill)
+    @Query("SELECT r.vehicle.id, r.rating, COUNT(r) FROM Review r GROUP BY r.vehicle.id, r.rating")
+    List<Object[]> countByVehicleAndRating();
+
+    // Cộng delta nguyên tử vào counter, giữ row lock của review tới khi commit
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Review r SET r.helpfulCount = r.helpfulCount + :helpfulDelta, "
+            + "r.notHelpfulCount = r.notHelpfulCount + :notHelpfulDelta WHERE r.id = :id")
+    int adjustVoteCounts(@Param("id") Long id,
+                         @Param("helpfulDelta") long helpfulDelta,
+                         @Param("notHelpfulDelta") long notHelpfulDelta);
+
+    @Query("SELECT r.helpfulCount AS helpfulCount, r.notHelpfulCount AS notHelpfulCount FROM Review r WHERE r.id = :id")
+    Optional<ReviewVoteCountView> findVoteCountsById(@Param("id") Long id);
+
+    // Backfill counter từ bảng review_votes
+    @Modifying
+    @Query("UPDATE Review r SET "
+            + "r.helpfulCount = (SELECT COUNT(v) FROM ReviewVote v WHERE v.review.id = r.id AND v.helpful = true), "
+            + "r.notHelpfulCount = (SELECT COUNT(v) FROM ReviewVote v WHERE v.review.id = r.id AND v.helpful = false)")
+    int recountVoteCounts();
+}
@@ -2,8 +2,13 @@ package com.example.car_rental_server.repository;
 
 import com.example.car_rental_server.model.ReviewVote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,6 +20,18 @@ public interface IReviewVoteRepository extends JpaRepository<ReviewVote, Long> {
 
     Optional<ReviewVote> findByReview_IdAndUser_Id(Long reviewId, Long userId);
 
+    // Vote của người xem trên các review của trang
+    List<ReviewVote> findByUser_IdAndReview_IdIn(Long userId, Collection<Long> reviewIds);
+
+    // Đổi/xoá vote có điều kiện: trả về 0 nếu vote đã bị request song song thay đổi
+    @Modifying
+    @Query("UPDATE ReviewVote v SET v.helpful = :helpful WHERE v.id = :id AND v.helpful = :expected")
+    int switchVote(@Param("id") Long id, @Param("expected") boolean expected, @Param("helpful") boolean helpful);
+
+    @Modifying
+    @Query("DELETE FROM ReviewVote v WHERE v.id = :id AND v.helpful = :expected")
+    int deleteIfUnchanged(@Param("id") Long id, @Param("expected") boolean expected);
+
     // optional helper to delete by review/user
     void deleteByReview_IdAndUser_Id(Long reviewId, Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.car_rental_server.repository;
+
+import com.example.car_rental_server.model.StoredImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IStoredImageRepository extends JpaRepository<StoredImage, String> {
+    List<StoredImage> findByUrlIn(Collection<String> urls);
+
+    // Chỉ ghi khi dòng vẫn chưa có rendition: 0 = request khác đã bổ sung trước
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StoredImage s SET s.thumbnailUrl = :thumbnailUrl, s.mediumUrl = :mediumUrl "
+            + "WHERE s.contentHash = :hash AND s.thumbnailUrl IS NULL")
+    int setDerivativesIfMissing(@Param("hash") String hash, @Param("thumbnailUrl") String thumbnailUrl,
+                                @Param("mediumUrl") String mediumUrl);
+}
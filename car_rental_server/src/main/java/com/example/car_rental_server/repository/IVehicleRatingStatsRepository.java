@@ -0,0 +1,25 @@
+package com.example.car_rental_server.repository;
+
+import com.example.car_rental_server.model.VehicleRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface IVehicleRatingStatsRepository extends JpaRepository<VehicleRatingStats, UUID> {
+
+    // Cộng dồn nguyên tử trên DB, không read-modify-write; trả về 0 nếu xe chưa có dòng stats
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE VehicleRatingStats s SET s.ratingSum = s.ratingSum + :rating, s.reviewCount = s.reviewCount + 1, "
+            + "s.star1 = s.star1 + (CASE WHEN :rating = 1 THEN 1 ELSE 0 END), "
+            + "s.star2 = s.star2 + (CASE WHEN :rating = 2 THEN 1 ELSE 0 END), "
+            + "s.star3 = s.star3 + (CASE WHEN :rating = 3 THEN 1 ELSE 0 END), "
+            + "s.star4 = s.star4 + (CASE WHEN :rating = 4 THEN 1 ELSE 0 END), "
+            + "s.star5 = s.star5 + (CASE WHEN :rating = 5 THEN 1 ELSE 0 END) "
+            + "WHERE s.vehicleId = :vehicleId")
+    int increment(@Param("vehicleId") UUID vehicleId, @Param("rating") int rating);
+}
@@ -0,0 +1,24 @@
+package com.example.car_rental_server.security;
+
+import com.example.car_rental_server.model.User;
+
+import java.security.Principal;
+
+/**
+ * Principal that JwtAuthenticationFilter puts in the SecurityContext. It is cached and shared across
+ * requests, so it is an immutable snapshot of what authorisation needs, never the User entity itself;
+ * load the User by {@link #email()} where an entity is needed.
+ */
+public record AuthenticatedUser(Long id, String email, String role, boolean enabled) implements Principal {
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(),
+                user.getRole() != null ? user.getRole().getName() : null, user.isEnabled());
+    }
+
+    // Authentication.getName() trả về email như khi principal còn là UserDetails
+    @Override
+    public String getName() {
+        return email;
+    }
+}
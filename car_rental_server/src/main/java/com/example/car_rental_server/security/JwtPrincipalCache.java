@@ -0,0 +1,65 @@
+package com.example.car_rental_server.security;
+
+import com.example.car_rental_server.repository.IUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Short-lived cache of authenticated principals in front of IUserRepository.findByEmail, so a valid
+ * JWT does not cost a DB round trip on every request. Entries expire after a short TTL: a user
+ * blocked (status = false) or re-roled from the admin app is picked up within that window.
+ * Entries are immutable {@link AuthenticatedUser} snapshots, never managed/detached User entities.
+ */
+@Component
+public class JwtPrincipalCache {
+    private final IUserRepository userRepository;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    public JwtPrincipalCache(IUserRepository userRepository,
+                             @Value("${app.security.principal-cache.ttl:30s}") Duration ttl,
+                             @Value("${app.security.principal-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the principal for this email (possibly disabled), or null if the user does not exist
+     */
+    public AuthenticatedUser get(String email) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry != null && entry.expiresAt > now) return entry.principal;
+        }
+        // Load ngoài lock: 2 request cùng lúc có thể cùng load, chấp nhận được
+        AuthenticatedUser principal = userRepository.findByEmail(email).map(AuthenticatedUser::of).orElse(null);
+        if (principal != null) {
+            synchronized (entries) {
+                entries.put(email, new Entry(principal, now + ttlMillis));
+            }
+        }
+        return principal;
+    }
+
+    // Gọi khi user được cập nhật trong chính server này để không phải chờ hết TTL
+    public void evict(String email) {
+        if (email == null) return;
+        synchronized (entries) {
+            entries.remove(email);
+        }
+    }
+
+    private record Entry(AuthenticatedUser principal, long expiresAt) {
+    }
+}
@@ -9,11 +9,10 @@ import com.example.car_rental_server.repository.IApprovalApplicationRepository;
 import com.example.car_rental_server.repository.IUserRepository;
 import com.example.car_rental_server.service.notification.INotificationService;
 import com.example.car_rental_server.utils.MailService;
-import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.UnsupportedEncodingException;
 import java.time.LocalDateTime;
 
 @Service
@@ -25,6 +24,7 @@ public class ApprovalApplicationService implements IApprovalApplicationService {
     private final MailService mailService;
 
     @Override
+    @Transactional
     public ApprovalApplicationResponseDTO submitApplication(String userEmail, ApprovalApplicationRequestDTO req) {
         User user = userRepo.findByEmail(userEmail).orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -51,7 +51,7 @@ public class ApprovalApplicationService implements IApprovalApplicationService {
         String appUrl = "http://localhost:3000/user/application";
         try {
             mailService.sendOwnerApplicationPendingHtmlMail(user.getEmail(), user.getName(), appUrl);
-        } catch (MessagingException | UnsupportedEncodingException e) {
+        } catch (RuntimeException e) {
             e.printStackTrace();
         }
 
@@ -65,7 +65,7 @@ public class ApprovalApplicationService implements IApprovalApplicationService {
                     user.getEmail(),
                     appUrlAdmin
             );
-        } catch (MessagingException | UnsupportedEncodingException e) {
+        } catch (RuntimeException e) {
             e.printStackTrace();
         }
 
@@ -1,6 +1,7 @@
 package com.example.car_rental_server.service.booking;
 
 import com.example.car_rental_server.dto.BookingDTO;
+import com.example.car_rental_server.dto.CursorPageDTO;
 import com.example.car_rental_server.enums.BookingStatus;
 import com.example.car_rental_server.enums.VehicleStatus;
 import com.example.car_rental_server.model.Booking;
@@ -10,38 +11,126 @@ import com.example.car_rental_server.repository.IBookingRepository;
 import com.example.car_rental_server.repository.IPostVehicleRepository;
 import com.example.car_rental_server.repository.IUserRepository;
 import com.example.car_rental_server.service.notification.INotificationService;
-import lombok.RequiredArgsConstructor;
+import com.example.car_rental_server.service.stats.IBookingStatsService;
+import com.example.car_rental_server.utils.CursorCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class BookingService implements IBookingService {
     private final IBookingRepository bookingRepo;
     private final IUserRepository userRepo;
     private final IPostVehicleRepository vehicleRepo;
     private final INotificationService notificationService;
+    private final VehicleAvailabilityIndex availabilityIndex;
+    private final TransactionTemplate admissionTx;
+    private final IBookingStatsService bookingStatsService;
 
+    private static final String OVERLAP_MESSAGE = "Xe đã được đặt trong khoảng thời gian này";
+    // Lock theo xe (striped): các xe khác nhau không chặn nhau, không có lock toàn cục
+    private static final int LOCK_STRIPES = 64;
+    private final ReentrantLock[] vehicleLocks = createLocks();
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new ReentrantLock();
+        return locks;
+    }
+
+    public BookingService(IBookingRepository bookingRepo,
+                          IUserRepository userRepo,
+                          IPostVehicleRepository vehicleRepo,
+                          INotificationService notificationService,
+                          VehicleAvailabilityIndex availabilityIndex,
+                          PlatformTransactionManager transactionManager,
+                          IBookingStatsService bookingStatsService) {
+        this.bookingRepo = bookingRepo;
+        this.userRepo = userRepo;
+        this.vehicleRepo = vehicleRepo;
+        this.notificationService = notificationService;
+        this.availabilityIndex = availabilityIndex;
+        this.bookingStatsService = bookingStatsService;
+        // READ_COMMITTED: sau khi chờ được row lock của xe, kiểm tra overlap phải thấy booking instance khác
+        // vừa commit (REPEATABLE READ mặc định của MySQL sẽ đọc snapshot cũ)
+        this.admissionTx = new TransactionTemplate(transactionManager);
+        this.admissionTx.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Booking admission: requests for the same vehicle are serialised by a striped in-process lock
+     * and, inside the transaction, by a row lock on the vehicle (SELECT ... FOR UPDATE) so that
+     * several server instances are safe too. An overlapping request is rejected with IllegalStateException.
+     */
     @Override
     public BookingDTO createBooking(BookingDTO dto) {
+        if (dto.getVehicleId() == null || dto.getStartDate() == null || dto.getEndDate() == null) {
+            throw new IllegalArgumentException("vehicleId, startDate and endDate are required");
+        }
+        if (dto.getEndDate().isBefore(dto.getStartDate())) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        // Fast path: index đã biết xe bận thì từ chối luôn, không mở transaction
+        if (!availabilityIndex.isFree(dto.getVehicleId(), dto.getStartDate(), dto.getEndDate())) {
+            throw new IllegalStateException(OVERLAP_MESSAGE);
+        }
+
+        BookingDTO created;
+        ReentrantLock lock = lockFor(dto.getVehicleId());
+        lock.lock();
+        try {
+            created = admitInTransaction(dto);
+            if (created != null) {
+                availabilityIndex.add(created.getId(), created.getVehicleId(), created.getStartDate(), created.getEndDate());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return created;
+    }
+
+    // Không qua striped lock: test dùng để mô phỏng hai instance cùng admit một xe
+    BookingDTO admitInTransaction(BookingDTO dto) {
+        return admissionTx.execute(status -> admitBooking(dto));
+    }
+
+    // Chạy trong transaction; row lock của xe phải là câu lệnh đầu tiên để mọi lần đọc sau đó thấy dữ liệu mới nhất
+    private BookingDTO admitBooking(BookingDTO dto) {
+        Optional<PostVehicle> vehicleOpt = vehicleRepo.findByIdForUpdate(dto.getVehicleId());
         Optional<User> userOpt = userRepo.findById(dto.getUserId());
-        Optional<PostVehicle> vehicleOpt = vehicleRepo.findById(dto.getVehicleId());
         if (userOpt.isEmpty()) {
-            System.out.println("ERROR: Không tìm thấy user với id = " + dto.getUserId());
+            log.warn("Không tìm thấy user với id = {}", dto.getUserId());
             return null;
         }
         if (vehicleOpt.isEmpty()) {
-            System.out.println("ERROR: Không tìm thấy xe với id = " + dto.getVehicleId());
+            log.warn("Không tìm thấy xe với id = {}", dto.getVehicleId());
             return null;
         }
         User user = userOpt.get();
         PostVehicle vehicle = vehicleOpt.get();
         User owner = vehicle.getOwner();
 
+        // Kiểm tra lại trên DB (nguồn sự thật), index chỉ là fast path
+        LocalDate checkEnd = dto.getEndDate().isAfter(dto.getStartDate()) ? dto.getEndDate() : dto.getStartDate().plusDays(1);
+        if (bookingRepo.existsOverlapping(vehicle.getId(), dto.getStartDate(), checkEnd, VehicleAvailabilityIndex.BLOCKING_STATUSES)) {
+            throw new IllegalStateException(OVERLAP_MESSAGE);
+        }
+
         long days = java.time.temporal.ChronoUnit.DAYS.between(dto.getStartDate(), dto.getEndDate());
         if (days <= 0) days = 1; // ít nhất 1 ngày
 
@@ -62,18 +151,37 @@ public class BookingService implements IBookingService {
                 .build();
 
         booking = bookingRepo.save(booking);
+        bookingStatsService.recordCreated(booking);
 
-        // Sau khi booking thành công, gửi thông báo cho owner
+        // Notification + outbox event commit cùng booking; relay đẩy STOMP sau commit
         notificationService.notifyOwnerNewBooking(
-                booking.getOwner().getId(),
-                booking.getVehicle().getVehicleName(),
-                booking.getUser().getName(),
+                owner.getId(),
+                vehicle.getVehicleName(),
+                user.getName(),
                 booking.getStartDate(),
                 booking.getEndDate()
         );
         return toDTO(booking);
     }
 
+    private ReentrantLock lockFor(UUID vehicleId) {
+        return vehicleLocks[Math.floorMod(vehicleId.hashCode(), LOCK_STRIPES)];
+    }
+
+    // Index chỉ phản ánh trạng thái đã commit: rollback thì không được để lại booking "ma" trong index
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     @Override
     public List<BookingDTO> getMyBookings(Long userId) {
         Optional<User> userOpt = userRepo.findById(userId);
@@ -83,6 +191,17 @@ public class BookingService implements IBookingService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPageDTO<BookingDTO> getMyBookingsByCursor(Long userId, String cursor, Integer size) {
+        int limit = CursorCodec.clampSize(size);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+        CursorCodec.Key<LocalDateTime, UUID> key = CursorCodec.decode(cursor, LocalDateTime::parse, UUID::fromString);
+        List<Booking> rows = (key == null)
+                ? bookingRepo.findFirstByUserKeyset(userId, fetch)
+                : bookingRepo.findNextByUserKeyset(userId, key.sortKey(), key.id(), fetch);
+        return CursorPageDTO.of(rows, limit, this::toDTO, b -> CursorCodec.encode(b.getBookingDate(), b.getId()));
+    }
+
     @Override
     public List<BookingDTO> getOwnerBookings(Long ownerId) {
         Optional<User> ownerOpt = userRepo.findById(ownerId);
@@ -100,6 +219,7 @@ public class BookingService implements IBookingService {
     }
 
     @Override
+    @Transactional // status + daily_booking_stats commit cùng nhau
     public BookingDTO confirmBooking(UUID bookingId, Long ownerId) {
         Optional<Booking> bookingOpt = bookingRepo.findById(bookingId);
         if (bookingOpt.isEmpty()) return null;
@@ -107,8 +227,13 @@ public class BookingService implements IBookingService {
         if (!booking.getOwner().getId().equals(ownerId)) return null;
 
         // Cập nhật trạng thái booking
+        BookingStatus oldStatus = booking.getStatus();
         booking.setStatus(BookingStatus.CONFIRMED);
         booking = bookingRepo.save(booking);
+        bookingStatsService.recordStatusChange(booking, oldStatus);
+        UUID id = booking.getId(), vehicleId = booking.getVehicle().getId();
+        LocalDate start = booking.getStartDate(), end = booking.getEndDate();
+        afterCommit(() -> availabilityIndex.add(id, vehicleId, start, end));
 
         // Cập nhật trạng thái xe
         PostVehicle vehicle = booking.getVehicle();
@@ -119,17 +244,23 @@ public class BookingService implements IBookingService {
     }
 
     @Override
+    @Transactional
     public BookingDTO cancelBooking(UUID  bookingId, Long requesterId) {
         Optional<Booking> bookingOpt = bookingRepo.findById(bookingId);
         if (bookingOpt.isEmpty()) return null;
         Booking booking = bookingOpt.get();
         if (!booking.getUser().getId().equals(requesterId) && !booking.getOwner().getId().equals(requesterId)) return null;
+        BookingStatus oldStatus = booking.getStatus();
         booking.setStatus(BookingStatus.CANCELLED);
         booking = bookingRepo.save(booking);
+        bookingStatsService.recordStatusChange(booking, oldStatus);
+        UUID id = booking.getId();
+        afterCommit(() -> availabilityIndex.remove(id));
         return toDTO(booking);
     }
 
     @Override
+    @Transactional
     public BookingDTO completeBooking(UUID bookingId, Long ownerId) {
         Optional<Booking> bookingOpt = bookingRepo.findById(bookingId);
         if (bookingOpt.isEmpty()) return null;
@@ -137,8 +268,12 @@ public class BookingService implements IBookingService {
         if (!booking.getOwner().getId().equals(ownerId)) return null;
 
         // Đánh dấu booking đã hoàn tất
+        BookingStatus oldStatus = booking.getStatus();
         booking.setStatus(BookingStatus.COMPLETED);
         booking = bookingRepo.save(booking);
+        bookingStatsService.recordStatusChange(booking, oldStatus);
+        UUID id = booking.getId();
+        afterCommit(() -> availabilityIndex.remove(id));
 
         // Đặt lại trạng thái xe thành AVAILABLE
         PostVehicle vehicle = booking.getVehicle();
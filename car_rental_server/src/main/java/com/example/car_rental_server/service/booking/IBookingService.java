@@ -1,6 +1,7 @@
 package com.example.car_rental_server.service.booking;
 
 import com.example.car_rental_server.dto.BookingDTO;
+import com.example.car_rental_server.dto.CursorPageDTO;
 
 import java.util.List;
 import java.util.UUID;
@@ -8,6 +9,7 @@ import java.util.UUID;
 public interface IBookingService {
     BookingDTO createBooking(BookingDTO dto); // User đặt xe
     List<BookingDTO> getMyBookings(Long userId); // Lịch sử đặt xe của user
+    CursorPageDTO<BookingDTO> getMyBookingsByCursor(Long userId, String cursor, Integer size); // Lịch sử (infinite scroll)
     List<BookingDTO> getOwnerBookings(Long ownerId); // Chủ xe xem booking
     BookingDTO getBookingDetail(UUID  bookingId);
     BookingDTO confirmBooking(UUID  bookingId, Long ownerId); // Owner xác nhận
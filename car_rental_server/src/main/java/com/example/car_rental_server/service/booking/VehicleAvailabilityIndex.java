@@ -0,0 +1,126 @@
+package com.example.car_rental_server.service.booking;
+
+import com.example.car_rental_server.dto.BookingRangeView;
+import com.example.car_rental_server.enums.BookingStatus;
+import com.example.car_rental_server.repository.IBookingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the date ranges that block each vehicle (PENDING, CONFIRMED, ACTIVE bookings).
+ * Ranges are half-open [startDate, endDate): the return day is free for the next pickup,
+ * and a same-day booking still blocks one day (same rule as the price calculation).
+ *
+ * Each vehicle keeps its ranges ordered by start date together with the longest range length,
+ * so an overlap check only scans starts in [start - maxLength, end) instead of every booking.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VehicleAvailabilityIndex {
+    public static final Set<BookingStatus> BLOCKING_STATUSES =
+            EnumSet.of(BookingStatus.PENDING, BookingStatus.CONFIRMED, BookingStatus.ACTIVE);
+
+    private final IBookingRepository bookingRepo;
+
+    private final Map<UUID, Schedule> schedules = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> vehicleByBooking = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<BookingRangeView> ranges = bookingRepo.findRangesByStatusIn(BLOCKING_STATUSES);
+        schedules.clear();
+        vehicleByBooking.clear();
+        for (BookingRangeView r : ranges) {
+            add(r.getId(), r.getVehicleId(), r.getStartDate(), r.getEndDate());
+        }
+        log.info("Availability index loaded: {} bookings, {} vehicles", ranges.size(), schedules.size());
+    }
+
+    public void add(UUID bookingId, UUID vehicleId, LocalDate startDate, LocalDate endDate) {
+        if (bookingId == null || vehicleId == null || startDate == null || endDate == null) return;
+        remove(bookingId);
+        schedules.computeIfAbsent(vehicleId, id -> new Schedule()).add(bookingId, startDate, normalizeEnd(startDate, endDate));
+        vehicleByBooking.put(bookingId, vehicleId);
+    }
+
+    public void remove(UUID bookingId) {
+        if (bookingId == null) return;
+        UUID vehicleId = vehicleByBooking.remove(bookingId);
+        if (vehicleId == null) return;
+        Schedule schedule = schedules.get(vehicleId);
+        if (schedule != null) schedule.remove(bookingId);
+    }
+
+    public boolean isFree(UUID vehicleId, LocalDate startDate, LocalDate endDate) {
+        Schedule schedule = schedules.get(vehicleId);
+        return schedule == null || !schedule.overlaps(startDate, normalizeEnd(startDate, endDate));
+    }
+
+    /**
+     * Vehicles with at least one blocking booking overlapping [startDate, endDate).
+     * Callers combine this with their own filters (e.g. NOT IN for the catalog search).
+     */
+    public Set<UUID> busyVehicles(LocalDate startDate, LocalDate endDate) {
+        LocalDate end = normalizeEnd(startDate, endDate);
+        Set<UUID> busy = new HashSet<>();
+        schedules.forEach((vehicleId, schedule) -> {
+            if (schedule.overlaps(startDate, end)) busy.add(vehicleId);
+        });
+        return busy;
+    }
+
+    private static LocalDate normalizeEnd(LocalDate startDate, LocalDate endDate) {
+        return endDate.isAfter(startDate) ? endDate : startDate.plusDays(1);
+    }
+
+    private static final class Schedule {
+        // startDate -> (bookingId -> endDate); several PENDING bookings may share a start date
+        private final NavigableMap<LocalDate, Map<UUID, LocalDate>> byStart = new TreeMap<>();
+        private final Map<UUID, LocalDate> startByBooking = new HashMap<>();
+        private long maxLengthDays = 0;
+
+        synchronized void add(UUID bookingId, LocalDate start, LocalDate end) {
+            byStart.computeIfAbsent(start, d -> new HashMap<>()).put(bookingId, end);
+            startByBooking.put(bookingId, start);
+            maxLengthDays = Math.max(maxLengthDays, ChronoUnit.DAYS.between(start, end));
+        }
+
+        // maxLengthDays chỉ tăng, không thu hẹp khi xoá: vẫn đúng, chỉ quét rộng hơn một chút
+        synchronized void remove(UUID bookingId) {
+            LocalDate start = startByBooking.remove(bookingId);
+            if (start == null) return;
+            Map<UUID, LocalDate> sameStart = byStart.get(start);
+            if (sameStart == null) return;
+            sameStart.remove(bookingId);
+            if (sameStart.isEmpty()) byStart.remove(start);
+        }
+
+        synchronized boolean overlaps(LocalDate start, LocalDate end) {
+            // Chỉ những range bắt đầu trong [start - maxLength, end) mới có thể giao với [start, end)
+            LocalDate from = start.minusDays(maxLengthDays);
+            for (Map<UUID, LocalDate> sameStart : byStart.subMap(from, true, end, false).values()) {
+                for (LocalDate otherEnd : sameStart.values()) {
+                    if (otherEnd.isAfter(start)) return true;
+                }
+            }
+            return false;
+        }
+    }
+}
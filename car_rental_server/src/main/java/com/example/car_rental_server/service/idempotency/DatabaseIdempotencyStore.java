@@ -0,0 +1,105 @@
+package com.example.car_rental_server.service.idempotency;
+
+import com.example.car_rental_server.model.IdempotencyRecord;
+import com.example.car_rental_server.repository.IIdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared store backed by the idempotency_keys table, so retries that land on another instance are
+ * replayed too. The primary key makes the claim atomic: the second concurrent insert fails.
+ * An in-progress claim expires after the lease; an expired row is taken over with a conditional UPDATE.
+ */
+@Service
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "database")
+public class DatabaseIdempotencyStore implements IIdempotencyStore {
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+
+    private final IIdempotencyRecordRepository recordRepo;
+    private final TransactionTemplate requiresNew;
+    private final Duration ttl;
+    private final Duration lease;
+    private final AtomicLong lastPurge = new AtomicLong();
+
+    public DatabaseIdempotencyStore(IIdempotencyRecordRepository recordRepo,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                                    @Value("${app.idempotency.lease:2m}") Duration lease) {
+        this.recordRepo = recordRepo;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+        this.lease = lease;
+    }
+
+    @Override
+    public IdempotentResponse begin(String key, String requestHash) {
+        purgeExpiredIfDue();
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyRecord> existing = recordRepo.findById(key);
+        if (existing.isPresent()) {
+            if (existing.get().getExpiresAt().isAfter(now)) return toResponse(existing.get());
+            // Claim hết lease (instance chết giữa chừng) hoặc response hết TTL: chỉ 1 request tiếp quản được
+            Integer taken = requiresNew.execute(status -> recordRepo.takeOverExpired(key, requestHash, now, now.plus(lease)));
+            if (taken != null && taken > 0) return null;
+            return currentResponse(key);
+        }
+        try {
+            requiresNew.executeWithoutResult(status -> recordRepo.saveAndFlush(IdempotencyRecord.builder()
+                    .id(key)
+                    .completed(false)
+                    .requestHash(requestHash)
+                    .expiresAt(now.plus(lease))
+                    .build()));
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            // Request khác với cùng key vừa claim trước
+            return currentResponse(key);
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        requiresNew.executeWithoutResult(status -> recordRepo.save(IdempotencyRecord.builder()
+                .id(key)
+                .completed(true)
+                .responseStatus(response.getStatus())
+                .contentType(response.getContentType())
+                .body(response.getBody())
+                .requestHash(response.getRequestHash())
+                .expiresAt(LocalDateTime.now().plus(ttl))
+                .build()));
+    }
+
+    @Override
+    public void release(String key) {
+        requiresNew.executeWithoutResult(status -> recordRepo.deleteById(key));
+    }
+
+    private IdempotentResponse currentResponse(String key) {
+        return recordRepo.findById(key).map(this::toResponse).orElse(IdempotentResponse.inProgress(null));
+    }
+
+    private IdempotentResponse toResponse(IdempotencyRecord record) {
+        if (!Boolean.TRUE.equals(record.getCompleted())) return IdempotentResponse.inProgress(record.getRequestHash());
+        return new IdempotentResponse(record.getResponseStatus(), record.getContentType(), record.getBody(), record.getRequestHash());
+    }
+
+    private void purgeExpiredIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastPurge.get();
+        if (now - last > PURGE_INTERVAL_MILLIS && lastPurge.compareAndSet(last, now)) {
+            recordRepo.deleteExpired(LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.car_rental_server.service.idempotency;
+
+public interface IIdempotencyStore {
+    /**
+     * Claim a key for execution. An in-progress claim only holds for the lease, so a key claimed by a
+     * request that never finished (e.g. the instance crashed) can be taken over afterwards.
+     *
+     * @param requestHash SHA-256 of the request body, stored with the claim and the response
+     * @return null if the caller now owns the key and must execute the request,
+     * otherwise the stored response (or an in-progress marker, see {@link IdempotentResponse#isInProgress()})
+     */
+    IdempotentResponse begin(String key, String requestHash);
+
+    void complete(String key, IdempotentResponse response);
+
+    // Bỏ claim khi request lỗi để client có thể retry với cùng key
+    void release(String key);
+}
@@ -0,0 +1,30 @@
+package com.example.car_rental_server.service.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Response captured for an Idempotency-Key, together with the SHA-256 of the request body it answered.
+ * A response created by {@link #inProgress(String)} marks a key whose first request is still executing.
+ */
+@Getter
+@AllArgsConstructor
+public class IdempotentResponse {
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+    private final String requestHash;
+
+    public static IdempotentResponse inProgress(String requestHash) {
+        return new IdempotentResponse(0, null, new byte[0], requestHash);
+    }
+
+    public boolean isInProgress() {
+        return status == 0;
+    }
+
+    // Cùng key nhưng payload khác: không được replay response của request đầu
+    public boolean matches(String otherRequestHash) {
+        return requestHash == null || requestHash.equals(otherRequestHash);
+    }
+}
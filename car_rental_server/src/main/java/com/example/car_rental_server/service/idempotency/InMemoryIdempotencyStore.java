@@ -0,0 +1,59 @@
+package com.example.car_rental_server.service.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU + TTL store, good for a single instance. Use app.idempotency.store=database
+ * when several instances sit behind a load balancer.
+ */
+@Service
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IIdempotencyStore {
+
+    private final long ttlMillis;
+    private final long leaseMillis;
+    private final Map<String, Entry> entries;
+
+    public InMemoryIdempotencyStore(@Value("${app.idempotency.ttl:24h}") Duration ttl,
+                                    @Value("${app.idempotency.lease:2m}") Duration lease,
+                                    @Value("${app.idempotency.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttl.toMillis();
+        this.leaseMillis = lease.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized IdempotentResponse begin(String key, String requestHash) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.response;
+        }
+        entries.put(key, new Entry(IdempotentResponse.inProgress(requestHash), now + leaseMillis));
+        return null;
+    }
+
+    @Override
+    public synchronized void complete(String key, IdempotentResponse response) {
+        entries.put(key, new Entry(response, System.currentTimeMillis() + ttlMillis));
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        entries.remove(key);
+    }
+
+    private record Entry(IdempotentResponse response, long expiresAt) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.car_rental_server.service.mail;
+
+public interface IOutboundMailQueue {
+    /**
+     * Lưu mail vào hàng đợi (joins the caller's transaction if any) and return immediately;
+     * SMTP happens later in MailDispatcher.
+     */
+    void enqueue(String to, String subject, String html);
+}
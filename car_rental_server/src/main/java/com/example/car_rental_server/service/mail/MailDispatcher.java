@@ -0,0 +1,224 @@
+package com.example.car_rental_server.service.mail;
+
+import com.example.car_rental_server.enums.MailStatus;
+import com.example.car_rental_server.model.OutboundMail;
+import com.example.car_rental_server.repository.IOutboundMailRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drains the outbound_mail queue in the background.
+ * Each poll claims a batch atomically (safe with several instances), splits it across a small
+ * fixed worker pool, and each worker sends its chunk through one SMTP connection
+ * (JavaMailSender.send(MimeMessage...)). Failures are retried with exponential backoff;
+ * after max-attempts the mail is marked DEAD and left in the table for inspection.
+ * One poll drains at most max-batches-per-poll full batches, so a large backlog does not hold the
+ * scheduler thread that the other @Scheduled jobs share.
+ */
+@Slf4j
+@Component
+public class MailDispatcher {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final IOutboundMailRepository mailRepository;
+    private final JavaMailSender mailSender;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final Duration lease;
+    private final String fromEmail;
+    private final String fromName;
+
+    public MailDispatcher(IOutboundMailRepository mailRepository,
+                          JavaMailSender mailSender,
+                          @Value("${app.mail.queue.workers:2}") int workerCount,
+                          @Value("${app.mail.queue.batch-size:50}") int batchSize,
+                          @Value("${app.mail.queue.max-batches-per-poll:10}") int maxBatchesPerPoll,
+                          @Value("${app.mail.queue.max-attempts:8}") int maxAttempts,
+                          @Value("${app.mail.queue.backoff-base:30s}") Duration backoffBase,
+                          @Value("${app.mail.queue.backoff-max:1h}") Duration backoffMax,
+                          @Value("${app.mail.queue.lease:5m}") Duration lease,
+                          @Value("${app.mail.from:autorentdanang@gmail.com}") String fromEmail,
+                          @Value("${app.mail.from-name:AutoRent Da Nang}") String fromName) {
+        this.mailRepository = mailRepository;
+        this.mailSender = mailSender;
+        this.workerCount = Math.max(1, workerCount);
+        this.workers = Executors.newFixedThreadPool(this.workerCount, r -> {
+            Thread t = new Thread(r, "mail-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchesPerPoll = Math.max(1, maxBatchesPerPoll);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBase = backoffBase;
+        this.backoffMax = backoffMax;
+        this.lease = lease;
+        this.fromEmail = fromEmail;
+        this.fromName = fromName;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.queue.poll-interval:2s}")
+    public void poll() {
+        try {
+            // Lô đầy thì có thể còn mail đến hạn: rút tiếp, nhưng có giới hạn để job khác vẫn tới lượt
+            for (int i = 0; i < maxBatchesPerPoll && drain() == batchSize; i++) {
+                // continue
+            }
+        } catch (RuntimeException e) {
+            log.error("Mail queue poll failed", e);
+        }
+    }
+
+    /**
+     * Claim and send one batch.
+     *
+     * @return number of mails claimed by this call
+     */
+    public int drain() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = mailRepository.findDueIds(MailStatus.PENDING, MailStatus.SENDING, now, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) return 0;
+
+        String token = UUID.randomUUID().toString();
+        if (mailRepository.claim(due, token, MailStatus.PENDING, MailStatus.SENDING, now, now.plus(lease)) == 0) return 0;
+        List<OutboundMail> claimed = mailRepository.findByClaimToken(token);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<OutboundMail> chunk : split(claimed, workerCount)) {
+            futures.add(workers.submit(() -> sendChunk(chunk, token)));
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                // Dòng chưa cập nhật sẽ được nhận lại khi hết lease
+                log.error("Mail worker failed", e.getCause());
+            }
+        }
+        return claimed.size();
+    }
+
+    private void sendChunk(List<OutboundMail> chunk, String token) {
+        Map<MimeMessage, OutboundMail> byMessage = new HashMap<>();
+        for (OutboundMail mail : chunk) {
+            try {
+                byMessage.put(toMessage(mail), mail);
+            } catch (MessagingException | UnsupportedEncodingException e) {
+                // Địa chỉ/nội dung sai thì thử lại cũng vô ích
+                fail(mail, token, e, true);
+            }
+        }
+        if (byMessage.isEmpty()) return;
+
+        Map<Object, Exception> failed;
+        try {
+            mailSender.send(byMessage.keySet().toArray(new MimeMessage[0]));
+            failed = Map.of();
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages();
+            // Lỗi kết nối/xác thực: không có chi tiết từng message -> coi như cả chunk lỗi
+            if (failed.isEmpty()) failed = allFailed(byMessage, e);
+        } catch (MailException e) {
+            failed = allFailed(byMessage, e);
+        }
+
+        List<Long> sent = new ArrayList<>();
+        for (Map.Entry<MimeMessage, OutboundMail> entry : byMessage.entrySet()) {
+            Exception error = failed.get(entry.getKey());
+            if (error == null) {
+                sent.add(entry.getValue().getId());
+            } else {
+                fail(entry.getValue(), token, error, false);
+            }
+        }
+        if (!sent.isEmpty()) {
+            mailRepository.markSent(sent, token, MailStatus.SENT, LocalDateTime.now());
+        }
+    }
+
+    private MimeMessage toMessage(OutboundMail mail) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(fromEmail, fromName);
+        helper.setTo(mail.getRecipient());
+        helper.setSubject(mail.getSubject());
+        helper.setText(mail.getBody(), true);
+        return message;
+    }
+
+    private void fail(OutboundMail mail, String token, Exception error, boolean permanent) {
+        int attempts = mail.getAttempts() + 1;
+        boolean dead = permanent || attempts >= maxAttempts;
+        LocalDateTime next = LocalDateTime.now().plus(backoff(attempts));
+        mailRepository.markFailed(mail.getId(), token, dead ? MailStatus.DEAD : MailStatus.PENDING, next, truncate(error));
+        if (dead) {
+            log.error("Mail {} to {} is dead after {} attempts: {}", mail.getId(), mail.getRecipient(), attempts, error.getMessage());
+        } else {
+            log.warn("Mail {} failed (attempt {}), retry at {}: {}", mail.getId(), attempts, next, error.getMessage());
+        }
+    }
+
+    // base * 2^(attempts-1), chặn trên bởi backoff-max
+    Duration backoff(int attempts) {
+        int shift = Math.min(attempts - 1, 20);
+        Duration delay = backoffBase.multipliedBy(1L << shift);
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    private static Map<Object, Exception> allFailed(Map<MimeMessage, OutboundMail> byMessage, Exception e) {
+        Map<Object, Exception> failed = new HashMap<>();
+        byMessage.keySet().forEach(m -> failed.put(m, e));
+        return failed;
+    }
+
+    private static String truncate(Exception e) {
+        String msg = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return msg.length() > MAX_ERROR_LENGTH ? msg.substring(0, MAX_ERROR_LENGTH) : msg;
+    }
+
+    private static <T> List<List<T>> split(List<T> items, int parts) {
+        int chunkSize = (items.size() + parts - 1) / parts;
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += chunkSize) {
+            chunks.add(items.subList(i, Math.min(items.size(), i + chunkSize)));
+        }
+        return chunks;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.car_rental_server.service.mail;
+
+import com.example.car_rental_server.enums.MailStatus;
+import com.example.car_rental_server.model.OutboundMail;
+import com.example.car_rental_server.repository.IOutboundMailRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class OutboundMailQueue implements IOutboundMailQueue {
+    private final IOutboundMailRepository mailRepository;
+
+    @Override
+    @Transactional
+    public void enqueue(String to, String subject, String html) {
+        if (to == null || to.isBlank()) throw new IllegalArgumentException("Mail recipient is required");
+        LocalDateTime now = LocalDateTime.now();
+        mailRepository.save(OutboundMail.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(html)
+                .status(MailStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+}
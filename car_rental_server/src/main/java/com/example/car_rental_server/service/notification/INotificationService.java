@@ -1,5 +1,6 @@
 package com.example.car_rental_server.service.notification;
 
+import com.example.car_rental_server.dto.CursorPageDTO;
 import com.example.car_rental_server.model.Notification;
 
 import java.time.LocalDate;
@@ -17,6 +18,9 @@ public interface INotificationService {
     // get latest notifications for a specific user, limit controls page size
     List<Notification> getLatestNotificationsForUser(Long userId, int limit);
 
+    // keyset (cursor) pagination for infinite scroll, no count query
+    CursorPageDTO<Notification> getNotificationsForUserByCursor(Long userId, String cursor, Integer size);
+
     // mark a single notification as read
     void markAsRead(Long id);
 
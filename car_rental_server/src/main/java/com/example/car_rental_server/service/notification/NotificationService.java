@@ -1,10 +1,13 @@
 package com.example.car_rental_server.service.notification;
 
+import com.example.car_rental_server.dto.CursorPageDTO;
+import com.example.car_rental_server.enums.OutboxChannel;
 import com.example.car_rental_server.model.Notification;
 import com.example.car_rental_server.repository.INotificationRepository;
+import com.example.car_rental_server.service.outbox.IOutboxService;
+import com.example.car_rental_server.utils.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,9 +20,10 @@ import java.util.List;
 public class NotificationService implements INotificationService {
 
     private final INotificationRepository notificationRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final IOutboxService outboxService;
 
     @Override
+    @Transactional
     public void notifyOwnerNewBooking(Long ownerId, String vehicleName, String userName, LocalDate start, LocalDate end) {
         String content = "User " + userName +
                 " has booked your vehicle \"" + vehicleName +
@@ -35,14 +39,11 @@ public class NotificationService implements INotificationService {
                 .build();
 
         Notification saved = notificationRepository.save(noti);
-        try {
-            messagingTemplate.convertAndSend("/topic/notifications-user-" + ownerId, saved);
-        } catch (Exception ex) {
-            System.err.println("Failed to broadcast booking notification: " + ex.getMessage());
-        }
+        outboxService.enqueue(OutboxChannel.STOMP, "/topic/notifications-user-" + ownerId, saved);
     }
 
     @Override
+    @Transactional
     public void notifyOwnerRequest(Long senderId, String userName) {
         Notification noti = Notification.builder()
                 .content("User " + userName + " has submitted an owner application.")
@@ -54,15 +55,11 @@ public class NotificationService implements INotificationService {
                 .recipientId(null)    // admin/global notification => recipientId left null
                 .build();
         Notification saved = notificationRepository.save(noti);
-
-        try {
-            messagingTemplate.convertAndSend("/topic/owner-request", saved);
-        } catch (Exception ex) {
-            System.err.println("Failed to broadcast owner-request notification: " + ex.getMessage());
-        }
+        outboxService.enqueue(OutboxChannel.STOMP, "/topic/owner-request", saved);
     }
 
     @Override
+    @Transactional
     public void notifyVehicleSubmission(Long senderId, String userName, String vehicleId, String vehicleName) {
         String friendlyName = (vehicleName != null && !vehicleName.isBlank()) ? (" the vehicle \"" + vehicleName + "\"") : " a new vehicle";
         String url = (vehicleId != null && !vehicleId.isBlank()) ? ("/admin/vehicles/" + vehicleId) : "/admin/vehicles";
@@ -77,21 +74,12 @@ public class NotificationService implements INotificationService {
                 .recipientId(null)   // admin/global notification
                 .build();
         Notification saved = notificationRepository.save(noti);
-
-        try {
-            messagingTemplate.convertAndSend("/topic/owner-request", saved);
-        } catch (Exception ex) {
-            System.err.println("Failed to broadcast vehicle-submission on /topic/owner-request: " + ex.getMessage());
-        }
-
-        try {
-            messagingTemplate.convertAndSend("/topic/vehicle-submitted", saved);
-        } catch (Exception ex) {
-            System.err.println("Failed to broadcast vehicle-submission on /topic/vehicle-submitted: " + ex.getMessage());
-        }
+        outboxService.enqueue(OutboxChannel.STOMP, "/topic/owner-request", saved);
+        outboxService.enqueue(OutboxChannel.STOMP, "/topic/vehicle-submitted", saved);
     }
 
     @Override
+    @Transactional
     public Notification createNotificationForUser(Long userId, Notification noti) {
         noti.setIsRead(false);
         noti.setCreatedAt(LocalDateTime.now());
@@ -101,13 +89,8 @@ public class NotificationService implements INotificationService {
         // noti.setSenderId(systemId or adminId);
         Notification saved = notificationRepository.save(noti);
 
-        // Broadcast realtime to user-specific topic
-        try {
-            String topic = "/topic/notifications-user-" + userId;
-            messagingTemplate.convertAndSend(topic, saved);
-        } catch (Exception ex) {
-            System.err.println("Failed to broadcast notification to user " + userId + ": " + ex.getMessage());
-        }
+        // Broadcast realtime to user-specific topic (qua outbox, sau commit)
+        outboxService.enqueue(OutboxChannel.STOMP, "/topic/notifications-user-" + userId, saved);
         return saved;
     }
 
@@ -117,6 +100,17 @@ public class NotificationService implements INotificationService {
         return notificationRepository.findByRecipientIdOrderByCreatedAtDesc(userId, page).getContent();
     }
 
+    @Override
+    public CursorPageDTO<Notification> getNotificationsForUserByCursor(Long userId, String cursor, Integer size) {
+        int limit = CursorCodec.clampSize(size);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+        CursorCodec.Key<LocalDateTime, Long> key = CursorCodec.decode(cursor, LocalDateTime::parse, Long::valueOf);
+        List<Notification> rows = (key == null)
+                ? notificationRepository.findFirstByRecipientKeyset(userId, fetch)
+                : notificationRepository.findNextByRecipientKeyset(userId, key.sortKey(), key.id(), fetch);
+        return CursorPageDTO.of(rows, limit, n -> n, n -> CursorCodec.encode(n.getCreatedAt(), n.getId()));
+    }
+
     @Override
     @Transactional
     public void markAsRead(Long id) {
@@ -0,0 +1,11 @@
+package com.example.car_rental_server.service.outbox;
+
+import com.example.car_rental_server.enums.OutboxChannel;
+
+public interface IOutboxService {
+    /**
+     * Ghi một event vào outbox trong transaction hiện tại (must be called inside one);
+     * relay phát sau khi commit. Trả về eventId (dedupe id).
+     */
+    String enqueue(OutboxChannel channel, String destination, Object payload);
+}
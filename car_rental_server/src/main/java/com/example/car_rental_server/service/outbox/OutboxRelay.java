@@ -0,0 +1,157 @@
+package com.example.car_rental_server.service.outbox;
+
+import com.example.car_rental_server.enums.OutboxChannel;
+import com.example.car_rental_server.enums.OutboxStatus;
+import com.example.car_rental_server.model.OutboxEvent;
+import com.example.car_rental_server.repository.IOutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes STOMP outbox events to the in-process broker (HTTP events belong to the admin relay).
+ * Each event is sent with an "event-id" header; a crash between send and markPublished means
+ * the event is sent again after the lease expires, so clients should ignore ids they have seen.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    public static final String EVENT_ID_HEADER = "event-id";
+    private static final OutboxChannel CHANNEL = OutboxChannel.STOMP;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final IOutboxEventRepository outboxRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final Duration lease;
+    private final Duration retention;
+
+    private final ExecutorService wakeUpExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "outbox-relay");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    public OutboxRelay(IOutboxEventRepository outboxRepository,
+                       SimpMessagingTemplate messagingTemplate,
+                       ObjectMapper objectMapper,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${app.outbox.backoff-base:2s}") Duration backoffBase,
+                       @Value("${app.outbox.backoff-max:10m}") Duration backoffMax,
+                       @Value("${app.outbox.lease:1m}") Duration lease,
+                       @Value("${app.outbox.retention:7d}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBase = backoffBase;
+        this.backoffMax = backoffMax;
+        this.lease = lease;
+        this.retention = retention;
+    }
+
+    // Gọi sau commit: gộp nhiều lần đánh thức liên tiếp thành một lượt drain trên thread riêng
+    public void wakeUp(OutboxChannel channel) {
+        if (channel != CHANNEL) return;
+        if (wakeUpPending.compareAndSet(false, true)) {
+            wakeUpExecutor.execute(() -> {
+                wakeUpPending.set(false);
+                poll();
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:1s}")
+    public void poll() {
+        try {
+            while (drain() == batchSize) {
+                // continue
+            }
+        } catch (RuntimeException e) {
+            log.error("Outbox poll failed", e);
+        }
+    }
+
+    /**
+     * Claim and publish one batch, in id order.
+     *
+     * @return number of events claimed by this call
+     */
+    public int drain() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = outboxRepository.findDueIds(CHANNEL, OutboxStatus.PENDING, OutboxStatus.PUBLISHING, now, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) return 0;
+
+        String token = UUID.randomUUID().toString();
+        if (outboxRepository.claim(due, token, OutboxStatus.PENDING, OutboxStatus.PUBLISHING, now, now.plus(lease)) == 0) return 0;
+        List<OutboxEvent> claimed = outboxRepository.findByClaimTokenOrderByIdAsc(token);
+
+        List<Long> published = new ArrayList<>();
+        for (OutboxEvent event : claimed) {
+            try {
+                Object body = objectMapper.readTree(event.getPayload());
+                messagingTemplate.convertAndSend(event.getDestination(), body, Map.of(EVENT_ID_HEADER, event.getEventId()));
+                published.add(event.getId());
+            } catch (Exception e) {
+                fail(event, token, e);
+            }
+        }
+        if (!published.isEmpty()) {
+            outboxRepository.markPublished(published, token, OutboxStatus.PUBLISHED, LocalDateTime.now());
+        }
+        return claimed.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval:1h}")
+    public void purge() {
+        int deleted = outboxRepository.deletePublishedBefore(CHANNEL, OutboxStatus.PUBLISHED, LocalDateTime.now().minus(retention));
+        if (deleted > 0) log.info("Purged {} published outbox events", deleted);
+    }
+
+    private void fail(OutboxEvent event, String token, Exception error) {
+        int attempts = event.getAttempts() + 1;
+        boolean dead = attempts >= maxAttempts;
+        LocalDateTime next = LocalDateTime.now().plus(backoff(attempts));
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        if (message.length() > MAX_ERROR_LENGTH) message = message.substring(0, MAX_ERROR_LENGTH);
+        outboxRepository.markFailed(event.getId(), token, dead ? OutboxStatus.DEAD : OutboxStatus.PENDING, next, message);
+        if (dead) {
+            log.error("Outbox event {} to {} is dead after {} attempts: {}", event.getEventId(), event.getDestination(), attempts, message);
+        } else {
+            log.warn("Outbox event {} failed (attempt {}), retry at {}: {}", event.getEventId(), attempts, next, message);
+        }
+    }
+
+    // base * 2^(attempts-1), chặn trên bởi backoff-max
+    private Duration backoff(int attempts) {
+        Duration delay = backoffBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        wakeUpExecutor.shutdown();
+    }
+}
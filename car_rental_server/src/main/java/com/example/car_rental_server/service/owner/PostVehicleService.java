@@ -7,18 +7,20 @@ import com.example.car_rental_server.model.User;
 import com.example.car_rental_server.repository.IPostVehicleRepository;
 import com.example.car_rental_server.repository.IUserRepository;
 import com.example.car_rental_server.service.notification.INotificationService;
+import com.example.car_rental_server.service.upload.IImageStore;
 import com.example.car_rental_server.utils.MailService;
-import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.UnsupportedEncodingException;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PostVehicleService implements IPostVehicleService {
@@ -26,6 +28,7 @@ public class PostVehicleService implements IPostVehicleService {
     private final IUserRepository userRepository;
     private final MailService mailService;
     private final INotificationService notificationService;
+    private final IImageStore imageStore;
 
     @Value("${app.frontend.url:http://localhost:3000}")
     private String frontendUrl;
@@ -86,6 +89,7 @@ public class PostVehicleService implements IPostVehicleService {
         entity.setDescription(dto.getDescription());
         entity.setCategory(dto.getCategory());
         entity.setImageList(dto.getImageList());
+        entity.setImageVariants(imageStore.variantsFor(dto.getImageList()));
         entity.setFeatures(dto.getFeatures());
         entity.setAddress(dto.getAddress());
         entity.setPlaceId(dto.getPlaceId());
@@ -101,11 +105,13 @@ public class PostVehicleService implements IPostVehicleService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PostVehicleDTO> getAllVehicles() {
         return postVehicleRepo.findAll().stream().map(this::toDTO).collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PostVehicleDTO> getVehiclesByOwner(Long ownerId) {
         return postVehicleRepo.findByOwner_Id(ownerId).stream().map(this::toDTO).collect(Collectors.toList());
     }
@@ -113,11 +119,12 @@ public class PostVehicleService implements IPostVehicleService {
     @Override
     public Optional<PostVehicleDTO> getVehicleById(UUID id) {
         Optional<PostVehicle> vOpt = postVehicleRepo.findByIdWithOwner(id);
-        vOpt.ifPresent(v -> System.out.println("Vehicle owner: " + v.getOwner()));
+        vOpt.ifPresent(v -> log.debug("Vehicle owner: {}", v.getOwner() != null ? v.getOwner().getId() : null));
         return vOpt.map(this::toDTO);
     }
 
     @Override
+    @Transactional // vehicle + notification/outbox + outbound_mail commit cùng nhau
     public PostVehicleDTO createVehicle(PostVehicleDTO dto) {
         PostVehicle vehicle = toEntity(dto);
         vehicle.setId(null);
@@ -125,49 +132,13 @@ public class PostVehicleService implements IPostVehicleService {
         vehicle = postVehicleRepo.save(vehicle);
         PostVehicleDTO createdDto = toDTO(vehicle);
 
-        // --- Create notification + Send emails: best-effort (log errors, don't break creation) ---
-        try {
-            User owner = vehicle.getOwner();
-
-            // Notify admin
-            if (owner != null) {
-                try {
-                    String vehicleIdStr = vehicle.getId() != null ? vehicle.getId().toString() : null;
-                    notificationService.notifyVehicleSubmission(owner.getId(), owner.getName(), vehicleIdStr, vehicle.getVehicleName());
-                } catch (Exception e) {
-                    System.err.println("Failed to create/broadcast notification for new vehicle: " + e.getMessage());
-                }
-            }
-
-            // Mail to owner
-            if (owner != null && owner.getEmail() != null) {
-                String ownerAppUrl = frontendUrl;
-                try {
-                    mailService.sendVehiclePendingToOwner(owner.getEmail(), owner.getName(), vehicle.getVehicleName(), ownerAppUrl);
-                } catch (MessagingException | UnsupportedEncodingException me) {
-                    System.err.println("Failed to send pending mail to owner: " + me.getMessage());
-                }
-            }
-
-            // Mail to admin
-            if (adminEmail != null && !adminEmail.isBlank()) {
-                String ownerName = owner != null ? owner.getName() : "Owner";
-                String ownerEmail = owner != null ? owner.getEmail() : "";
-                String adminPanelUrl = adminUrl;
-                try {
-                    mailService.sendVehicleSubmissionNotificationToAdmin(adminEmail, ownerName, ownerEmail, vehicle.getVehicleName(), adminPanelUrl);
-                } catch (MessagingException | UnsupportedEncodingException me) {
-                    System.err.println("Failed to send vehicle submission mail to admin: " + me.getMessage());
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Unexpected error when sending vehicle emails/notifications: " + e.getMessage());
-        }
+        notifySubmission(vehicle);
 
         return createdDto;
     }
 
     @Override
+    @Transactional
     public PostVehicleDTO updateVehicle(UUID id, PostVehicleDTO dto) {
         PostVehicle vehicle = postVehicleRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Vehicle not found"));
@@ -194,6 +165,7 @@ public class PostVehicleService implements IPostVehicleService {
         vehicle.setDescription(dto.getDescription());
         vehicle.setCategory(dto.getCategory());
         vehicle.setImageList(dto.getImageList());
+        vehicle.setImageVariants(imageStore.variantsFor(dto.getImageList()));
         vehicle.setFeatures(dto.getFeatures());
         vehicle.setAddress(dto.getAddress());
         vehicle.setPlaceId(dto.getPlaceId());
@@ -224,44 +196,37 @@ public class PostVehicleService implements IPostVehicleService {
         vehicle = postVehicleRepo.save(vehicle);
         PostVehicleDTO updatedDto = toDTO(vehicle);
 
-        // If owner resubmitted a previously rejected vehicle, notify admin + send confirmation email (best-effort)
+        // If owner resubmitted a previously rejected vehicle, notify admin + send confirmation email
         if (oldStatus == VehicleStatus.REJECTED) {
-            try {
-                User owner = vehicle.getOwner();
-                String vehicleIdStr = vehicle.getId() != null ? vehicle.getId().toString() : null;
+            notifySubmission(vehicle);
+        }
 
-                // Notification to admin
-                try {
-                    notificationService.notifyVehicleSubmission(owner.getId(), owner.getName(), vehicleIdStr, vehicle.getVehicleName());
-                } catch (Exception ex) {
-                    System.err.println("Failed to notify admin about vehicle resubmission: " + ex.getMessage());
-                }
+        return updatedDto;
+    }
 
-                // Email to owner confirming resubmission
-                try {
-                    if (owner != null && owner.getEmail() != null) {
-                        mailService.sendVehiclePendingToOwner(owner.getEmail(), owner.getName(), vehicle.getVehicleName(), frontendUrl);
-                    }
-                } catch (MessagingException | UnsupportedEncodingException me) {
-                    System.err.println("Failed to send resubmission mail to owner: " + me.getMessage());
-                }
+    /**
+     * Notification/outbox và outbound_mail ghi trong transaction của xe nên không bắt lỗi ở đây: các service bên
+     * trong là proxy @Transactional, lỗi của chúng đã đánh rollback-only và nuốt đi chỉ đổi thành
+     * UnexpectedRollbackException lúc commit. Người nhận trống bị bỏ qua trước khi enqueue.
+     */
+    private void notifySubmission(PostVehicle vehicle) {
+        User owner = vehicle.getOwner();
+        if (owner != null) {
+            String vehicleIdStr = vehicle.getId() != null ? vehicle.getId().toString() : null;
+            notificationService.notifyVehicleSubmission(owner.getId(), owner.getName(), vehicleIdStr, vehicle.getVehicleName());
 
-                // Email to admin
-                if (adminEmail != null && !adminEmail.isBlank()) {
-                    try {
-                        String ownerName = owner != null ? owner.getName() : "Owner";
-                        String ownerEmail = owner != null ? owner.getEmail() : "";
-                        mailService.sendVehicleSubmissionNotificationToAdmin(adminEmail, ownerName, ownerEmail, vehicle.getVehicleName(), adminUrl);
-                    } catch (MessagingException | UnsupportedEncodingException me) {
-                        System.err.println("Failed to send resubmission mail to admin: " + me.getMessage());
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println("Unexpected error when handling resubmission notifications/emails: " + e.getMessage());
+            if (owner.getEmail() != null && !owner.getEmail().isBlank()) {
+                mailService.sendVehiclePendingToOwner(owner.getEmail(), owner.getName(), vehicle.getVehicleName(), frontendUrl);
+            } else {
+                log.warn("Owner {} has no email, skipping pending mail for vehicle {}", owner.getId(), vehicleIdStr);
             }
         }
 
-        return updatedDto;
+        if (adminEmail != null && !adminEmail.isBlank()) {
+            String ownerName = owner != null ? owner.getName() : "Owner";
+            String ownerEmail = owner != null && owner.getEmail() != null ? owner.getEmail() : "";
+            mailService.sendVehicleSubmissionNotificationToAdmin(adminEmail, ownerName, ownerEmail, vehicle.getVehicleName(), adminUrl);
+        }
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.example.car_rental_server.service.reply;
 
+import com.example.car_rental_server.dto.CursorPageDTO;
 import com.example.car_rental_server.dto.ReplyDTO;
 
 import java.util.List;
@@ -7,4 +8,6 @@ import java.util.List;
 public interface IReplyService {
     ReplyDTO createReply(Long reviewId, Long parentId, String content);
     List<ReplyDTO> getRepliesTreeForReview(Long reviewId);
+    CursorPageDTO<ReplyDTO> getTopLevelReplies(Long reviewId, String cursor, Integer size);
+    CursorPageDTO<ReplyDTO> getChildReplies(Long reviewId, Long parentId, String cursor, Integer size);
 }
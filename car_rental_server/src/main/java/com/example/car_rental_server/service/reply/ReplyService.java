@@ -1,5 +1,6 @@
 package com.example.car_rental_server.service.reply;
 
+import com.example.car_rental_server.dto.CursorPageDTO;
 import com.example.car_rental_server.dto.ReplyDTO;
 import com.example.car_rental_server.model.Reply;
 import com.example.car_rental_server.model.Review;
@@ -7,12 +8,17 @@ import com.example.car_rental_server.model.User;
 import com.example.car_rental_server.repository.IReplyRepository;
 import com.example.car_rental_server.repository.IReviewRepository;
 import com.example.car_rental_server.repository.IUserRepository;
+import com.example.car_rental_server.utils.CursorCodec;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -27,6 +33,7 @@ public class ReplyService implements IReplyService {
     private final IReplyRepository replyRepository;
     private final IReviewRepository reviewRepository;
     private final IUserRepository userRepository;
+    private final ReplyTreeCache replyTreeCache;
 
     private ReplyDTO toDTO(Reply r) {
         if (r == null) return null;
@@ -74,10 +81,57 @@ public class ReplyService implements IReplyService {
                 throw new IllegalArgumentException("Parent reply does not belong to the same review");
             }
             reply.setParent(parent);
+            setThreadPosition(reply, parent);
+        } else {
+            reply.setDepth(1);
         }
 
         Reply saved = replyRepository.save(reply);
-        return toDTO(saved);
+        ReplyDTO dto = toDTO(saved);
+
+        // Chèn vào cây đang cache sau khi commit (không invalidate cả cây)
+        int depth = saved.getDepth();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    replyTreeCache.append(reviewId, copyOf(dto), depth);
+                }
+            });
+        } else {
+            replyTreeCache.evict(reviewId);
+        }
+        return dto;
+    }
+
+    // depth/rootId từ parent; dòng cũ chưa có cột thì đi ngược lên (vòng lặp, không đệ quy)
+    private void setThreadPosition(Reply reply, Reply parent) {
+        if (parent.getDepth() != null && (parent.getRootId() != null || parent.getParent() == null)) {
+            reply.setDepth(parent.getDepth() + 1);
+            reply.setRootId(parent.getRootId() != null ? parent.getRootId() : parent.getId());
+            return;
+        }
+        int depth = 1;
+        Reply top = parent;
+        while (top.getParent() != null) {
+            top = top.getParent();
+            depth++;
+        }
+        reply.setDepth(depth + 1);
+        reply.setRootId(top.getId());
+    }
+
+    // Cache giữ bản riêng, DTO trả về cho client không bị dùng chung
+    private ReplyDTO copyOf(ReplyDTO dto) {
+        return ReplyDTO.builder()
+                .id(dto.getId())
+                .content(dto.getContent())
+                .createdAt(dto.getCreatedAt())
+                .userId(dto.getUserId())
+                .userName(dto.getUserName())
+                .avatar(dto.getAvatar())
+                .parentId(dto.getParentId())
+                .build();
     }
 
     private User resolveCurrentUser() {
@@ -95,86 +149,64 @@ public class ReplyService implements IReplyService {
     @Override
     @Transactional(readOnly = true)
     public List<ReplyDTO> getRepliesTreeForReview(Long reviewId) {
-        final int maxDisplayDepth = 3;
+        List<ReplyDTO> cached = replyTreeCache.get(reviewId);
+        if (cached != null) return cached;
 
-        // fetch replies with user and parent.user to avoid N+1
+        long version = replyTreeCache.version(reviewId);
+        // 1 query: replies + author, theo (createdAt, id) nên parent luôn đứng trước con
         List<Reply> all = replyRepository.findByReviewIdWithUser(reviewId);
+        ReplyTreeCache.ReplyTree tree = new ReplyTreeCache.ReplyTree();
+        for (Reply r : all) tree.add(toDTO(r), r.getDepth());
+        replyTreeCache.put(reviewId, tree, version);
+        return tree.snapshot();
+    }
 
-        // build map id -> Reply
-        Map<Long, Reply> replyMap = new HashMap<>();
-        for (Reply r : all) replyMap.put(r.getId(), r);
-
-        // compute depth per reply
-        Map<Long, Integer> depthMap = new HashMap<>();
-        for (Reply r : all) computeDepth(r, replyMap, depthMap);
-
-        // build DTO map
-        Map<Long, ReplyDTO> dtoMap = new LinkedHashMap<>();
-        for (Reply r : all) dtoMap.put(r.getId(), toDTO(r));
-
-        List<ReplyDTO> roots = new ArrayList<>();
-
-        for (Reply r : all) {
-            ReplyDTO dto = dtoMap.get(r.getId());
-            int depth = depthMap.getOrDefault(r.getId(), 1);
-
-            if (depth <= maxDisplayDepth) {
-                // normal attach
-                if (r.getParent() == null) {
-                    roots.add(dto);
-                } else {
-                    ReplyDTO parentDto = dtoMap.get(r.getParent().getId());
-                    if (parentDto != null) {
-                        parentDto.getChildren().add(dto);
-                        // Optionally set replyTo metadata for visible replies as well (so UI can show "Replying to X")
-                        if (r.getParent().getUser() != null) {
-                            dto.setReplyToId(r.getParent().getId());
-                            dto.setReplyToUserName(r.getParent().getUser().getName());
-                            dto.setReplyToAvatar(r.getParent().getUser().getAvatar()); // NEW: avatar
-                        }
-                    } else {
-                        roots.add(dto);
-                    }
-                }
-            } else {
-                // depth > maxDisplayDepth: attach under ancestor at display depth
-                Reply ancestor = r;
-                int stepsUp = depth - maxDisplayDepth;
-                for (int i = 0; i < stepsUp; i++) {
-                    if (ancestor.getParent() == null) break;
-                    Reply next = replyMap.get(ancestor.getParent().getId());
-                    ancestor = (next == null) ? ancestor.getParent() : next;
-                }
-                ReplyDTO ancestorDto = dtoMap.get(ancestor.getId());
-                if (ancestorDto != null) {
-                    ancestorDto.getChildren().add(dto);
-                    if (r.getParent() != null && r.getParent().getUser() != null) {
-                        dto.setReplyToId(r.getParent().getId());
-                        dto.setReplyToUserName(r.getParent().getUser().getName());
-                        dto.setReplyToAvatar(r.getParent().getUser().getAvatar()); // NEW: avatar
-                    }
-                } else {
-                    roots.add(dto);
-                }
-            }
-        }
+    // Phân trang: chỉ top-level + childCount, con được mở dần qua getChildReplies
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReplyDTO> getTopLevelReplies(Long reviewId, String cursor, Integer size) {
+        int limit = CursorCodec.clampSize(size);
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        CursorCodec.Key<LocalDateTime, Long> key = CursorCodec.decode(cursor, LocalDateTime::parse, Long::valueOf);
+        List<Reply> rows = (key == null)
+                ? replyRepository.findFirstTopLevelKeyset(reviewId, fetch)
+                : replyRepository.findNextTopLevelKeyset(reviewId, key.sortKey(), key.id(), fetch);
+        return toPage(rows, limit, null);
+    }
 
-        return roots;
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReplyDTO> getChildReplies(Long reviewId, Long parentId, String cursor, Integer size) {
+        Reply parent = replyRepository.findWithUserById(parentId)
+                .filter(p -> Objects.equals(p.getReview().getId(), reviewId))
+                .orElseThrow(() -> new RuntimeException("Reply not found: " + parentId));
+        int limit = CursorCodec.clampSize(size);
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        CursorCodec.Key<LocalDateTime, Long> key = CursorCodec.decode(cursor, LocalDateTime::parse, Long::valueOf);
+        List<Reply> rows = (key == null)
+                ? replyRepository.findFirstChildrenKeyset(parentId, fetch)
+                : replyRepository.findNextChildrenKeyset(parentId, key.sortKey(), key.id(), fetch);
+        return toPage(rows, limit, parent);
     }
 
-    private int computeDepth(Reply r, Map<Long, Reply> replyMap, Map<Long, Integer> depthMap) {
-        if (r == null) return 0;
-        Long id = r.getId();
-        if (depthMap.containsKey(id)) return depthMap.get(id);
-        if (r.getParent() == null) {
-            depthMap.put(id, 1);
-            return 1;
+    private CursorPageDTO<ReplyDTO> toPage(List<Reply> rows, int limit, Reply parent) {
+        List<Reply> pageRows = rows.size() > limit ? rows.subList(0, limit) : rows;
+        Map<Long, Long> childCounts = new HashMap<>();
+        if (!pageRows.isEmpty()) {
+            List<Long> ids = pageRows.stream().map(Reply::getId).toList();
+            for (Object[] row : replyRepository.countChildrenByParentIds(ids)) {
+                childCounts.put((Long) row[0], ((Number) row[1]).longValue());
+            }
         }
-        Long pid = r.getParent().getId();
-        Reply parent = replyMap.get(pid);
-        int parentDepth = (parent == null) ? 1 : computeDepth(parent, replyMap, depthMap);
-        int d = parentDepth + 1;
-        depthMap.put(id, d);
-        return d;
+        return CursorPageDTO.of(rows, limit, r -> {
+            ReplyDTO dto = toDTO(r);
+            dto.setChildCount(childCounts.getOrDefault(r.getId(), 0L));
+            if (parent != null && parent.getUser() != null) {
+                dto.setReplyToId(parent.getId());
+                dto.setReplyToUserName(parent.getUser().getName());
+                dto.setReplyToAvatar(parent.getUser().getAvatar());
+            }
+            return dto;
+        }, r -> CursorCodec.encode(r.getCreatedAt(), r.getId()));
     }
-}
\ No newline at end of file
+}
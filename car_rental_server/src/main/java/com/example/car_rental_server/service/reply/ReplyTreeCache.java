@@ -0,0 +1,162 @@
+package com.example.car_rental_server.service.reply;
+
+import com.example.car_rental_server.dto.ReplyDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-review reply trees, bounded by size (LRU) and TTL.
+ * New replies are appended to a cached tree after commit instead of invalidating it.
+ * Readers always get a deep copy, so serialisation never sees a tree that is being modified.
+ */
+@Component
+public class ReplyTreeCache {
+    public static final int MAX_DISPLAY_DEPTH = 3;
+    private static final int VERSION_STRIPES = 64;
+
+    private final long ttlMillis;
+    private final Map<Long, Entry> trees;
+    // Tăng mỗi khi có reply mới: tree load từ DB trước thời điểm đó sẽ không được đưa vào cache
+    private final AtomicLong[] versions = new AtomicLong[VERSION_STRIPES];
+
+    public ReplyTreeCache(@Value("${app.reply-cache.ttl:10m}") Duration ttl,
+                          @Value("${app.reply-cache.max-reviews:500}") int maxReviews) {
+        this.ttlMillis = ttl.toMillis();
+        this.trees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxReviews;
+            }
+        };
+        for (int i = 0; i < VERSION_STRIPES; i++) versions[i] = new AtomicLong();
+    }
+
+    /**
+     * @return deep copy of the cached roots, or null on miss/expiry
+     */
+    public List<ReplyDTO> get(Long reviewId) {
+        ReplyTree tree;
+        synchronized (trees) {
+            Entry entry = trees.get(reviewId);
+            if (entry == null) return null;
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                trees.remove(reviewId);
+                return null;
+            }
+            tree = entry.tree;
+        }
+        return tree.snapshot();
+    }
+
+    // Gọi trước khi đọc DB; truyền lại cho put()
+    public long version(Long reviewId) {
+        return stripe(reviewId).get();
+    }
+
+    public void put(Long reviewId, ReplyTree tree, long versionAtLoad) {
+        synchronized (trees) {
+            // Có reply mới commit trong lúc load: bỏ qua, lần đọc sau sẽ load lại
+            if (stripe(reviewId).get() != versionAtLoad) return;
+            trees.put(reviewId, new Entry(tree, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    public void append(Long reviewId, ReplyDTO reply, int depth) {
+        ReplyTree tree;
+        synchronized (trees) {
+            stripe(reviewId).incrementAndGet();
+            Entry entry = trees.get(reviewId);
+            if (entry == null) return;
+            tree = entry.tree;
+        }
+        tree.add(reply, depth);
+    }
+
+    public void evict(Long reviewId) {
+        synchronized (trees) {
+            stripe(reviewId).incrementAndGet();
+            trees.remove(reviewId);
+        }
+    }
+
+    private AtomicLong stripe(Long reviewId) {
+        return versions[Math.floorMod(reviewId.hashCode(), VERSION_STRIPES)];
+    }
+
+    private record Entry(ReplyTree tree, long expiresAt) {
+    }
+
+    /**
+     * Display tree built in one linear pass over replies ordered by (createdAt, id), so a parent is
+     * always added before its children. Replies deeper than MAX_DISPLAY_DEPTH are attached under their
+     * ancestor at that depth (with replyTo info), which also bounds the tree height.
+     */
+    public static class ReplyTree {
+        private final List<ReplyDTO> roots = new ArrayList<>();
+        private final Map<Long, ReplyDTO> nodes = new HashMap<>();
+        private final Map<Long, Long> anchors = new HashMap<>(); // id -> node that receives its children
+        private final Map<Long, Integer> depths = new HashMap<>();
+
+        /**
+         * @param depth persisted depth, or null for legacy rows (then parent depth + 1)
+         */
+        public synchronized void add(ReplyDTO reply, Integer depth) {
+            // Tree load sau khi reply đã commit rồi mới chạy append của chính reply đó: đã có thì bỏ qua
+            if (nodes.containsKey(reply.getId())) return;
+            Long parentId = reply.getParentId();
+            ReplyDTO parent = parentId != null ? nodes.get(parentId) : null;
+            int d = depth != null ? depth : (parent == null ? 1 : depths.getOrDefault(parentId, 1) + 1);
+
+            nodes.put(reply.getId(), reply);
+            depths.put(reply.getId(), d);
+
+            if (parent == null) {
+                roots.add(reply);
+                anchors.put(reply.getId(), reply.getId());
+                return;
+            }
+            if (parent.getUserName() != null) {
+                reply.setReplyToId(parentId);
+                reply.setReplyToUserName(parent.getUserName());
+                reply.setReplyToAvatar(parent.getAvatar());
+            }
+            ReplyDTO container = nodes.get(anchors.get(parentId));
+            container.getChildren().add(reply);
+            // Từ độ sâu hiển thị tối đa trở xuống, con cháu dồn về cùng một node
+            anchors.put(reply.getId(), d <= MAX_DISPLAY_DEPTH ? reply.getId() : anchors.get(parentId));
+        }
+
+        public synchronized List<ReplyDTO> snapshot() {
+            List<ReplyDTO> copy = new ArrayList<>(roots.size());
+            for (ReplyDTO root : roots) copy.add(deepCopy(root));
+            return copy;
+        }
+
+        // Chiều cao cây hiển thị <= MAX_DISPLAY_DEPTH + 1 nên đệ quy ở đây có giới hạn
+        private static ReplyDTO deepCopy(ReplyDTO source) {
+            List<ReplyDTO> children = new ArrayList<>(source.getChildren().size());
+            for (ReplyDTO child : source.getChildren()) children.add(deepCopy(child));
+            return ReplyDTO.builder()
+                    .id(source.getId())
+                    .content(source.getContent())
+                    .createdAt(source.getCreatedAt())
+                    .userId(source.getUserId())
+                    .userName(source.getUserName())
+                    .avatar(source.getAvatar())
+                    .parentId(source.getParentId())
+                    .replyToId(source.getReplyToId())
+                    .replyToUserName(source.getReplyToUserName())
+                    .replyToAvatar(source.getReplyToAvatar())
+                    .children(children)
+                    .build();
+        }
+    }
+}
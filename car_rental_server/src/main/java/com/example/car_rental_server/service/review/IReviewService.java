@@ -1,5 +1,7 @@
 package com.example.car_rental_server.service.review;
 
+import com.example.car_rental_server.dto.CursorPageDTO;
+import com.example.car_rental_server.dto.RatingSummaryDTO;
 import com.example.car_rental_server.dto.ReviewDTO;
 import com.example.car_rental_server.model.Review;
 import org.springframework.data.domain.Page;
@@ -10,7 +12,9 @@ import java.util.UUID;
 public interface IReviewService {
     ReviewDTO createReview(ReviewDTO dto);
     Page<ReviewDTO> getReviewsForVehicle(UUID vehicleId, int page, int size);
+    CursorPageDTO<ReviewDTO> getReviewsForVehicleByCursor(UUID vehicleId, String cursor, Integer size);
     List<ReviewDTO> getAllReviewsForVehicle(UUID vehicleId);
+    RatingSummaryDTO getRatingSummary(UUID vehicleId); // đọc từ vehicle_rating_stats, O(1)
     double getAverageRating(UUID vehicleId);
     long countReviews(UUID vehicleId);
     long countByStar(UUID vehicleId, int star);
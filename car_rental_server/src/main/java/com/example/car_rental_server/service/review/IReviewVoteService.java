@@ -2,5 +2,5 @@ package com.example.car_rental_server.service.review;
 
 public interface IReviewVoteService {
     ReviewVoteService.VoteResult toggleVote(Long reviewId, boolean helpful);
-    
+    int rebuildVoteCounts(); // backfill helpful/not_helpful counter từ review_votes
 }
@@ -0,0 +1,13 @@
+package com.example.car_rental_server.service.review;
+
+import com.example.car_rental_server.dto.RatingSummaryDTO;
+import com.example.car_rental_server.model.VehicleRatingStats;
+
+import java.util.UUID;
+
+public interface IVehicleRatingStatsService {
+    VehicleRatingStats recordRating(UUID vehicleId, int rating); // gọi trong transaction tạo review
+    RatingSummaryDTO getSummary(UUID vehicleId);
+    VehicleRatingStats rebuild(UUID vehicleId);
+    int rebuildAll(); // backfill, trả về số xe đã tính lại
+}
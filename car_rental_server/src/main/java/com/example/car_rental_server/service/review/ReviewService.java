@@ -1,5 +1,7 @@
 package com.example.car_rental_server.service.review;
 
+import com.example.car_rental_server.dto.CursorPageDTO;
+import com.example.car_rental_server.dto.RatingSummaryDTO;
 import com.example.car_rental_server.dto.ReviewDTO;
 import com.example.car_rental_server.model.PostVehicle;
 import com.example.car_rental_server.model.Review;
@@ -9,6 +11,7 @@ import com.example.car_rental_server.repository.IReviewRepository;
 import com.example.car_rental_server.repository.IPostVehicleRepository;
 import com.example.car_rental_server.repository.IReviewVoteRepository;
 import com.example.car_rental_server.repository.IUserRepository;
+import com.example.car_rental_server.utils.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.*;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
@@ -18,7 +21,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -31,43 +37,60 @@ public class ReviewService implements IReviewService {
     private final IPostVehicleRepository postVehicleRepository;
     private final IUserRepository userRepository; // used to resolve current user by email
     private final IReviewVoteRepository reviewVoteRepository;
+    private final IVehicleRatingStatsService ratingStatsService;
 
-    // (only showing the toDTO method replacement; keep rest of the file as you have it)
     private ReviewDTO toDTO(Review r) {
         if (r == null) return null;
-        ReviewDTO dto = ReviewDTO.builder()
-                .id(r.getId())
-                .rating(r.getRating())
-                .content(r.getContent())
-                .createdAt(r.getCreatedAt())
-                .vehicleId(r.getVehicle() != null ? r.getVehicle().getId() : null)
-                .build();
-        if (r.getUser() != null) {
-            dto.setUserId(r.getUser().getId());
-            dto.setUserName(r.getUser().getName());
-            dto.setAvatar(r.getUser().getAvatar());
-        }
+        return toDTOs(List.of(r)).get(0);
+    }
 
-        // counts
-        long helpful = reviewVoteRepository.countByReview_IdAndHelpfulTrue(r.getId());
-        long notHelpful = reviewVoteRepository.countByReview_IdAndHelpfulFalse(r.getId());
-        dto.setHelpfulCount(helpful);
-        dto.setNotHelpfulCount(notHelpful);
+    /**
+     * Map a page of reviews with a fixed number of queries: vote counts come from the counter
+     * columns, the viewer's votes from one IN query, and the viewer is resolved once (not per review).
+     */
+    private List<ReviewDTO> toDTOs(List<Review> reviews) {
+        if (reviews.isEmpty()) return List.of();
+        List<Long> ids = reviews.stream().map(Review::getId).collect(Collectors.toList());
+
+        Map<Long, Integer> viewerVotes = new HashMap<>();
+        Long viewerId = resolveViewerId();
+        if (viewerId != null) {
+            for (ReviewVote rv : reviewVoteRepository.findByUser_IdAndReview_IdIn(viewerId, ids)) {
+                viewerVotes.put(rv.getReview().getId(), rv.getHelpful() ? 1 : -1);
+            }
+        }
 
-        // user vote
-        int userVote = 0;
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
-            String principal = auth.getName();
-            Optional<User> u = userRepository.findByEmail(principal);
-            if (u.isEmpty()) u = userRepository.findByName(principal);
-            if (u.isPresent()) {
-                Optional<ReviewVote> rv = reviewVoteRepository.findByReview_IdAndUser_Id(r.getId(), u.get().getId());
-                if (rv.isPresent()) userVote = rv.get().getHelpful() ? 1 : -1;
+        List<ReviewDTO> result = new ArrayList<>(reviews.size());
+        for (Review r : reviews) {
+            ReviewDTO dto = ReviewDTO.builder()
+                    .id(r.getId())
+                    .rating(r.getRating())
+                    .content(r.getContent())
+                    .createdAt(r.getCreatedAt())
+                    .vehicleId(r.getVehicle() != null ? r.getVehicle().getId() : null)
+                    .build();
+            if (r.getUser() != null) {
+                dto.setUserId(r.getUser().getId());
+                dto.setUserName(r.getUser().getName());
+                dto.setAvatar(r.getUser().getAvatar());
             }
+            // counter denormalized trên review, không cần đếm review_votes
+            dto.setHelpfulCount(r.getHelpfulCount() != null ? r.getHelpfulCount() : 0L);
+            dto.setNotHelpfulCount(r.getNotHelpfulCount() != null ? r.getNotHelpfulCount() : 0L);
+            dto.setUserVote(viewerVotes.getOrDefault(r.getId(), 0));
+            result.add(dto);
         }
-        dto.setUserVote(userVote);
-        return dto;
+        return result;
+    }
+
+    // Người xem hiện tại (null nếu anonymous)
+    private Long resolveViewerId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) return null;
+        String principal = auth.getName();
+        Optional<User> u = userRepository.findByEmail(principal);
+        if (u.isEmpty()) u = userRepository.findByName(principal);
+        return u.map(User::getId).orElse(null);
     }
 
     // Convert DTO -> entity (partial). Caller must set vehicle/user entities.
@@ -134,46 +157,64 @@ public class ReviewService implements IReviewService {
 
         Review saved = reviewRepository.save(r);
 
-        // Recalculate average rating and update vehicle.rating (best-effort)
-        try {
-            Double avg = reviewRepository.findAverageRatingByVehicleId(vehicleId);
-            long total = reviewRepository.countByVehicle_Id(vehicleId);
-            vehicle.setRating(avg != null ? avg : 0.0);
-            postVehicleRepository.save(vehicle);
-        } catch (Exception ex) {
-            // Log to stderr to avoid breaking creation flow
-            System.err.println("Failed to update vehicle rating: " + ex.getMessage());
-        }
+        // Cập nhật aggregate (sum/count/histogram) + vehicle.rating, reviewsCount trong cùng transaction
+        ratingStatsService.recordRating(vehicleId, saved.getRating());
 
         return toDTO(saved);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ReviewDTO> getReviewsForVehicle(UUID vehicleId, int page, int size) {
         Pageable pageable = PageRequest.of(Math.max(0, page), Math.max(1, size), Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<Review> pageEnt = reviewRepository.findByVehicle_IdOrderByCreatedAtDesc(vehicleId, pageable);
-        return pageEnt.map(this::toDTO);
+        return new PageImpl<>(toDTOs(pageEnt.getContent()), pageable, pageEnt.getTotalElements());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReviewDTO> getReviewsForVehicleByCursor(UUID vehicleId, String cursor, Integer size) {
+        int limit = CursorCodec.clampSize(size);
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        CursorCodec.Key<LocalDateTime, Long> key = CursorCodec.decode(cursor, LocalDateTime::parse, Long::valueOf);
+        List<Review> rows = (key == null)
+                ? reviewRepository.findFirstByVehicleKeyset(vehicleId, fetch)
+                : reviewRepository.findNextByVehicleKeyset(vehicleId, key.sortKey(), key.id(), fetch);
+        // map cả lô (kể cả dòng thừa dùng để biết hasNext) để giữ số query cố định
+        return CursorPageDTO.of(toDTOs(rows), limit, dto -> dto, dto -> CursorCodec.encode(dto.getCreatedAt(), dto.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<ReviewDTO> getAllReviewsForVehicle(UUID vehicleId) {
-        List<Review> list = reviewRepository.findByVehicle_IdOrderByCreatedAtDesc(vehicleId);
-        return list.stream().map(this::toDTO).collect(Collectors.toList());
+        return toDTOs(reviewRepository.findByVehicle_IdOrderByCreatedAtDesc(vehicleId));
+    }
+
+    @Override
+    public RatingSummaryDTO getRatingSummary(UUID vehicleId) {
+        return ratingStatsService.getSummary(vehicleId);
     }
 
     @Override
     public double getAverageRating(UUID vehicleId) {
-        Double avg = reviewRepository.findAverageRatingByVehicleId(vehicleId);
-        return avg != null ? avg : 0.0;
+        return ratingStatsService.getSummary(vehicleId).getAverage();
     }
 
     @Override
     public long countReviews(UUID vehicleId) {
-        return reviewRepository.countByVehicle_Id(vehicleId);
+        return ratingStatsService.getSummary(vehicleId).getCount();
     }
 
     @Override
     public long countByStar(UUID vehicleId, int star) {
-        return reviewRepository.countByVehicle_IdAndRating(vehicleId, Integer.valueOf(star));
+        RatingSummaryDTO summary = ratingStatsService.getSummary(vehicleId);
+        return switch (star) {
+            case 1 -> summary.getS1();
+            case 2 -> summary.getS2();
+            case 3 -> summary.getS3();
+            case 4 -> summary.getS4();
+            case 5 -> summary.getS5();
+            default -> 0;
+        };
     }
 }
\ No newline at end of file
@@ -1,13 +1,13 @@
 package com.example.car_rental_server.service.review;
 
-import com.example.car_rental_server.model.Review;
+import com.example.car_rental_server.dto.ReviewVoteCountView;
 import com.example.car_rental_server.model.ReviewVote;
 import com.example.car_rental_server.model.User;
-import com.example.car_rental_server.repository.IReplyRepository;
 import com.example.car_rental_server.repository.IReviewRepository;
 import com.example.car_rental_server.repository.IReviewVoteRepository;
 import com.example.car_rental_server.repository.IUserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -24,7 +24,9 @@ import java.util.Optional;
  * - If user has same vote: remove vote (toggle off).
  * - If user has opposite vote: update vote to new value.
  *
- * Returns updated counts and the user's current vote state where needed.
+ * Counts are kept in Review.helpfulCount / notHelpfulCount and changed with atomic
+ * UPDATE ... + delta statements; vote rows are switched/deleted conditionally so that
+ * racing toggles from the same user cannot apply the same delta twice.
  */
 @Service
 @RequiredArgsConstructor
@@ -51,39 +53,63 @@ public class ReviewVoteService implements IReviewVoteService {
             throw new RuntimeException("Authentication required"); // Controller should convert to 401
         }
 
-        Review review = reviewRepository.findById(reviewId)
-                .orElseThrow(() -> new RuntimeException("Review not found: " + reviewId));
-
         Optional<ReviewVote> maybe = reviewVoteRepository.findByReview_IdAndUser_Id(reviewId, current.getId());
 
+        long helpfulDelta = 0;
+        long notHelpfulDelta = 0;
+        int userVote;
         if (maybe.isPresent()) {
             ReviewVote existing = maybe.get();
-            if (existing.getHelpful() == helpful) {
+            boolean previous = existing.getHelpful();
+            if (previous == helpful) {
                 // same vote -> remove (toggle off)
-                reviewVoteRepository.delete(existing);
+                if (reviewVoteRepository.deleteIfUnchanged(existing.getId(), previous) == 0) throw concurrentChange();
+                if (helpful) helpfulDelta = -1; else notHelpfulDelta = -1;
+                userVote = 0;
             } else {
                 // change vote
-                existing.setHelpful(helpful);
-                reviewVoteRepository.save(existing);
+                if (reviewVoteRepository.switchVote(existing.getId(), previous, helpful) == 0) throw concurrentChange();
+                helpfulDelta = helpful ? 1 : -1;
+                notHelpfulDelta = helpful ? -1 : 1;
+                userVote = helpful ? 1 : -1;
             }
         } else {
-            // create new
+            // create new (unique (review_id, user_id) chặn insert trùng khi double-click)
+            if (!reviewRepository.existsById(reviewId)) {
+                throw new RuntimeException("Review not found: " + reviewId);
+            }
             ReviewVote v = ReviewVote.builder()
                     .helpful(helpful)
-                    .review(review)
+                    .review(reviewRepository.getReferenceById(reviewId))
                     .user(current)
                     .build();
-            reviewVoteRepository.save(v);
+            try {
+                reviewVoteRepository.saveAndFlush(v);
+            } catch (DataIntegrityViolationException e) {
+                throw concurrentChange();
+            }
+            if (helpful) helpfulDelta = 1; else notHelpfulDelta = 1;
+            userVote = helpful ? 1 : -1;
         }
 
-        long helpfulCount = reviewVoteRepository.countByReview_IdAndHelpfulTrue(reviewId);
-        long notHelpfulCount = reviewVoteRepository.countByReview_IdAndHelpfulFalse(reviewId);
-        // find current user's vote state after update
-        Optional<ReviewVote> after = reviewVoteRepository.findByReview_IdAndUser_Id(reviewId, current.getId());
-        Integer userVote = 0;
-        if (after.isPresent()) userVote = after.get().getHelpful() ? 1 : -1;
+        // Cập nhật counter nguyên tử rồi đọc lại đúng dòng đó (đang giữ row lock nên là giá trị của chính transaction này).
+        // MySQL không có UPDATE ... RETURNING nên cần thêm 1 lần đọc theo khoá chính thay vì 2 query COUNT.
+        if (reviewRepository.adjustVoteCounts(reviewId, helpfulDelta, notHelpfulDelta) == 0) {
+            throw new RuntimeException("Review not found: " + reviewId);
+        }
+        ReviewVoteCountView counts = reviewRepository.findVoteCountsById(reviewId)
+                .orElseThrow(() -> new RuntimeException("Review not found: " + reviewId));
+        return new VoteResult(counts.getHelpfulCount(), counts.getNotHelpfulCount(), userVote);
+    }
+
+    @Override
+    @Transactional
+    public int rebuildVoteCounts() {
+        return reviewRepository.recountVoteCounts();
+    }
 
-        return new VoteResult(helpfulCount, notHelpfulCount, userVote);
+    private IllegalStateException concurrentChange() {
+        return new IllegalStateException("Vote was changed by another request, please retry");
     }
 
     // small DTO result
@@ -0,0 +1,113 @@
+package com.example.car_rental_server.service.review;
+
+import com.example.car_rental_server.dto.RatingSummaryDTO;
+import com.example.car_rental_server.model.VehicleRatingStats;
+import com.example.car_rental_server.repository.IPostVehicleRepository;
+import com.example.car_rental_server.repository.IReviewRepository;
+import com.example.car_rental_server.repository.IVehicleRatingStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class VehicleRatingStatsService implements IVehicleRatingStatsService {
+    private final IVehicleRatingStatsRepository statsRepo;
+    private final IReviewRepository reviewRepo;
+    private final IPostVehicleRepository vehicleRepo;
+
+    /**
+     * Adds one rating to the vehicle aggregate and syncs PostVehicle.rating / reviewsCount.
+     * Must run inside the review insert transaction: the UPDATE holds the stats row lock until commit,
+     * so concurrent reviews of the same vehicle apply in order.
+     */
+    @Override
+    @Transactional
+    public VehicleRatingStats recordRating(UUID vehicleId, int rating) {
+        if (statsRepo.increment(vehicleId, rating) == 0) {
+            // Xe chưa có dòng stats (review đầu tiên hoặc chưa backfill): khoá dòng xe rồi thử lại,
+            // tránh 2 transaction cùng insert dòng stats
+            vehicleRepo.findByIdForUpdate(vehicleId);
+            if (statsRepo.increment(vehicleId, rating) == 0) {
+                // rebuild đếm cả review vừa insert trong transaction này
+                return rebuild(vehicleId);
+            }
+        }
+        VehicleRatingStats stats = statsRepo.findById(vehicleId).orElseThrow();
+        syncVehicle(stats);
+        return stats;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RatingSummaryDTO getSummary(UUID vehicleId) {
+        VehicleRatingStats stats = statsRepo.findById(vehicleId)
+                // chưa backfill: tính bằng 1 query group by, không ghi
+                .orElseGet(() -> aggregate(vehicleId, reviewRepo.countByRatingForVehicle(vehicleId)));
+        return RatingSummaryDTO.builder()
+                .average(stats.getAverage())
+                .count(stats.getReviewCount())
+                .s5(stats.getStar5())
+                .s4(stats.getStar4())
+                .s3(stats.getStar3())
+                .s2(stats.getStar2())
+                .s1(stats.getStar1())
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public VehicleRatingStats rebuild(UUID vehicleId) {
+        VehicleRatingStats stats = statsRepo.save(aggregate(vehicleId, reviewRepo.countByRatingForVehicle(vehicleId)));
+        syncVehicle(stats);
+        return stats;
+    }
+
+    @Override
+    @Transactional
+    public int rebuildAll() {
+        Map<UUID, List<Object[]>> byVehicle = new HashMap<>();
+        for (Object[] row : reviewRepo.countByVehicleAndRating()) {
+            byVehicle.computeIfAbsent((UUID) row[0], id -> new ArrayList<>())
+                    .add(new Object[]{row[1], row[2]});
+        }
+        statsRepo.deleteAllInBatch();
+        byVehicle.forEach((vehicleId, rows) -> {
+            VehicleRatingStats stats = statsRepo.save(aggregate(vehicleId, rows));
+            syncVehicle(stats);
+        });
+        // Xe không còn dòng stats nào thì rating cũ trên post_vehicle cũng phải về 0, cùng transaction
+        vehicleRepo.resetRatingSummaryWithoutReviews();
+        return byVehicle.size();
+    }
+
+    // rows: [rating, count]
+    private VehicleRatingStats aggregate(UUID vehicleId, List<Object[]> rows) {
+        VehicleRatingStats stats = VehicleRatingStats.builder().vehicleId(vehicleId).build();
+        for (Object[] row : rows) {
+            int star = ((Number) row[0]).intValue();
+            long count = ((Number) row[1]).longValue();
+            stats.setRatingSum(stats.getRatingSum() + (long) star * count);
+            stats.setReviewCount(stats.getReviewCount() + count);
+            switch (star) {
+                case 1 -> stats.setStar1(count);
+                case 2 -> stats.setStar2(count);
+                case 3 -> stats.setStar3(count);
+                case 4 -> stats.setStar4(count);
+                case 5 -> stats.setStar5(count);
+                default -> { } // rating ngoài 1..5 vẫn tính vào sum/count
+            }
+        }
+        return stats;
+    }
+
+    private void syncVehicle(VehicleRatingStats stats) {
+        vehicleRepo.updateRatingSummary(stats.getVehicleId(), stats.getAverage(), (int) stats.getReviewCount());
+    }
+}
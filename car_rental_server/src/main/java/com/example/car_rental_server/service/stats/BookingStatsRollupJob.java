@@ -0,0 +1,45 @@
+package com.example.car_rental_server.service.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Backfills the booking rollup on first start and recomputes the trailing window every night,
+ * correcting drift from missed incremental updates (e.g. bookings edited directly in the DB).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingStatsRollupJob {
+    private final IBookingStatsService statsService;
+
+    @Value("${app.stats.rebuild-days:35}")
+    private int rebuildDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            int days = statsService.backfillIfEmpty();
+            if (days > 0) log.info("Backfilled booking stats for {} days", days);
+        } catch (RuntimeException e) {
+            log.error("Booking stats backfill failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.stats.rebuild-cron:0 30 2 * * *}")
+    public void rebuildTrailingWindow() {
+        LocalDate today = LocalDate.now();
+        try {
+            statsService.rebuild(today.minusDays(Math.max(1, rebuildDays)), today);
+        } catch (RuntimeException e) {
+            log.error("Nightly booking stats rebuild failed", e);
+        }
+    }
+}
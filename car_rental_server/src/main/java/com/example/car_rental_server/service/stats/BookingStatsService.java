@@ -0,0 +1,185 @@
+package com.example.car_rental_server.service.stats;
+
+import com.example.car_rental_server.enums.BookingStatus;
+import com.example.car_rental_server.model.Booking;
+import com.example.car_rental_server.model.DailyBookingStats;
+import com.example.car_rental_server.model.DailyVehicleBookingStats;
+import com.example.car_rental_server.model.DailyVehicleBookingStatsId;
+import com.example.car_rental_server.repository.IBookingRepository;
+import com.example.car_rental_server.repository.IDailyBookingStatsRepository;
+import com.example.car_rental_server.repository.IDailyVehicleBookingStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Maintains daily_booking_stats / daily_vehicle_booking_stats. Booking writes apply atomic
+ * UPDATE deltas inside their own transaction; {@link #rebuild} recomputes a date range from the
+ * bookings table with GROUP BY queries (nightly for a trailing window, and once for the whole
+ * history when the rollup is empty) and corrects any drift.
+ */
+@Slf4j
+@Service
+public class BookingStatsService implements IBookingStatsService {
+    private final IBookingRepository bookingRepo;
+    private final IDailyBookingStatsRepository dailyRepo;
+    private final IDailyVehicleBookingStatsRepository vehicleDailyRepo;
+    private final TransactionTemplate requiresNew;
+
+    public BookingStatsService(IBookingRepository bookingRepo,
+                               IDailyBookingStatsRepository dailyRepo,
+                               IDailyVehicleBookingStatsRepository vehicleDailyRepo,
+                               PlatformTransactionManager transactionManager) {
+        this.bookingRepo = bookingRepo;
+        this.dailyRepo = dailyRepo;
+        this.vehicleDailyRepo = vehicleDailyRepo;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional
+    public void recordCreated(Booking booking) {
+        if (booking.getBookingDate() == null) return;
+        LocalDate day = booking.getBookingDate().toLocalDate();
+        double amount = amountOf(booking);
+        long newCustomer = booking.getUser() != null && !bookingRepo.existsOtherByUserBetween(
+                booking.getUser().getId(), booking.getId(), day.atStartOfDay(), day.plusDays(1).atStartOfDay()) ? 1 : 0;
+
+        // Tạo dòng trước khi UPDATE: UPDATE trúng khoảng trống sẽ giữ gap lock (MySQL) và chặn chính lệnh insert
+        if (!dailyRepo.existsById(day)) ensureDayRow(day);
+        dailyRepo.addBooking(day, amount, newCustomer);
+        if (booking.getStatus() != null) {
+            dailyRepo.adjustStatus(day, booking.getStatus().name(), 1, amount);
+        }
+        if (booking.getVehicle() != null) {
+            DailyVehicleBookingStatsId id = new DailyVehicleBookingStatsId(day, booking.getVehicle().getId());
+            if (!vehicleDailyRepo.existsById(id)) ensureVehicleRow(id);
+            vehicleDailyRepo.increment(day, id.getVehicleId());
+        }
+    }
+
+    @Override
+    @Transactional
+    public void recordStatusChange(Booking booking, BookingStatus from) {
+        BookingStatus to = booking.getStatus();
+        if (booking.getBookingDate() == null || from == to) return;
+        LocalDate day = booking.getBookingDate().toLocalDate();
+        double amount = amountOf(booking);
+        // Ngày chưa có dòng (chưa backfill) thì bỏ qua, job tính lại sẽ bù
+        if (from != null) dailyRepo.adjustStatus(day, from.name(), -1, -amount);
+        if (to != null) dailyRepo.adjustStatus(day, to.name(), 1, amount);
+    }
+
+    @Override
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        Map<LocalDate, DailyBookingStats> days = new TreeMap<>();
+        for (Object[] row : bookingRepo.aggregateByDayAndStatus(start, end)) {
+            DailyBookingStats stats = days.computeIfAbsent((LocalDate) row[0], d -> DailyBookingStats.builder().statDate(d).build());
+            long count = ((Number) row[2]).longValue();
+            double revenue = ((Number) row[3]).doubleValue();
+            stats.setBookings(stats.getBookings() + count);
+            stats.setRevenue(stats.getRevenue() + revenue);
+            addToStatus(stats, (BookingStatus) row[1], count, revenue);
+        }
+        for (Object[] row : bookingRepo.countCustomersByDay(start, end)) {
+            DailyBookingStats stats = days.get((LocalDate) row[0]);
+            if (stats != null) stats.setCustomers(((Number) row[1]).longValue());
+        }
+        List<DailyVehicleBookingStats> vehicleRows = new ArrayList<>();
+        for (Object[] row : bookingRepo.countByDayAndVehicle(start, end)) {
+            vehicleRows.add(DailyVehicleBookingStats.builder()
+                    .id(new DailyVehicleBookingStatsId((LocalDate) row[0], (UUID) row[1]))
+                    .bookings(((Number) row[2]).longValue())
+                    .build());
+        }
+
+        dailyRepo.deleteRange(from, to);
+        vehicleDailyRepo.deleteRange(from, to);
+        dailyRepo.saveAll(days.values());
+        vehicleDailyRepo.saveAll(vehicleRows);
+        log.info("Rebuilt booking stats {}..{}: {} days, {} vehicle rows", from, to, days.size(), vehicleRows.size());
+        return days.size();
+    }
+
+    @Override
+    @Transactional
+    public int backfillIfEmpty() {
+        if (dailyRepo.count() > 0) return 0;
+        LocalDateTime first = bookingRepo.findFirstBookingDate();
+        if (first == null) return 0;
+        return rebuild(first.toLocalDate(), LocalDate.now());
+    }
+
+    // Dòng rỗng được insert trong transaction riêng: 2 booking đầu tiên của ngày chạy song song
+    // không làm hỏng transaction của nhau, bên thua chỉ việc UPDATE dòng bên kia đã tạo
+    private void ensureDayRow(LocalDate day) {
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                if (!dailyRepo.existsById(day)) {
+                    dailyRepo.saveAndFlush(DailyBookingStats.builder().statDate(day).build());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // transaction khác vừa tạo dòng này
+        }
+    }
+
+    private void ensureVehicleRow(DailyVehicleBookingStatsId id) {
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                if (!vehicleDailyRepo.existsById(id)) {
+                    vehicleDailyRepo.saveAndFlush(DailyVehicleBookingStats.builder().id(id).build());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // transaction khác vừa tạo dòng này
+        }
+    }
+
+    private static void addToStatus(DailyBookingStats stats, BookingStatus status, long count, double revenue) {
+        if (status == null) return;
+        switch (status) {
+            case PENDING -> {
+                stats.setPendingCount(stats.getPendingCount() + count);
+                stats.setPendingRevenue(stats.getPendingRevenue() + revenue);
+            }
+            case CONFIRMED -> {
+                stats.setConfirmedCount(stats.getConfirmedCount() + count);
+                stats.setConfirmedRevenue(stats.getConfirmedRevenue() + revenue);
+            }
+            case ACTIVE -> {
+                stats.setActiveCount(stats.getActiveCount() + count);
+                stats.setActiveRevenue(stats.getActiveRevenue() + revenue);
+            }
+            case COMPLETED -> {
+                stats.setCompletedCount(stats.getCompletedCount() + count);
+                stats.setCompletedRevenue(stats.getCompletedRevenue() + revenue);
+            }
+            case CANCELLED -> {
+                stats.setCancelledCount(stats.getCancelledCount() + count);
+                stats.setCancelledRevenue(stats.getCancelledRevenue() + revenue);
+            }
+        }
+    }
+
+    private static double amountOf(Booking booking) {
+        return booking.getTotalAmount() != null ? booking.getTotalAmount() : 0.0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.car_rental_server.service.stats;
+
+import com.example.car_rental_server.enums.BookingStatus;
+import com.example.car_rental_server.model.Booking;
+
+import java.time.LocalDate;
+
+public interface IBookingStatsService {
+    // Gọi trong transaction tạo booking, sau khi save
+    void recordCreated(Booking booking);
+
+    // Gọi trong transaction đổi trạng thái, sau khi booking đã có status mới
+    void recordStatusChange(Booking booking, BookingStatus from);
+
+    // Tính lại rollup cho các ngày [from, to] từ bảng bookings; trả về số ngày có dữ liệu
+    int rebuild(LocalDate from, LocalDate to);
+
+    // Backfill toàn bộ lịch sử nếu rollup còn trống
+    int backfillIfEmpty();
+}
@@ -0,0 +1,28 @@
+package com.example.car_rental_server.service.upload;
+
+import com.example.car_rental_server.model.ImageVariant;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+public interface IImageStore {
+    // stage + publish: dùng cho upload đơn lẻ (avatar)
+    StoredUpload store(MultipartFile file);
+
+    StoredUpload store(byte[] bytes);
+
+    // Upload lên Cloudinary nhưng chưa ghi hash vào stored_images/LRU: request khác chưa thể dùng lại bản này
+    StoredUpload stage(MultipartFile file);
+
+    /**
+     * Ghi hash của một upload đã stage để các request sau dùng lại. Nếu request khác đã publish cùng nội dung
+     * trước thì bản vừa stage bị xoá và trả về bản đó (created = false).
+     */
+    StoredUpload publish(StoredUpload staged);
+
+    // Xoá một upload đã stage mà chưa publish; ảnh dùng lại hoặc đã publish không bị xoá vì có thể đang được chỗ khác tham chiếu
+    void discard(StoredUpload upload);
+
+    // Thumbnail/medium theo đúng thứ tự urls; URL không qua store (ảnh cũ, link ngoài) có derivative null
+    List<ImageVariant> variantsFor(List<String> urls);
+}
@@ -0,0 +1,168 @@
+package com.example.car_rental_server.service.upload;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes an uploaded image once and renders a fixed-size thumbnail (center-cropped, for list
+ * cards) and a medium rendition (fit to width, for detail pages), both as JPEG.
+ * <p>
+ * Memory is bounded by decoded pixels, not by file size: the source is decoded with ImageIO
+ * subsampling close to the medium width, and every decode first takes its pixel count from a
+ * shared budget, so concurrent uploads cannot decode more than pixel-budget pixels at once.
+ * Runs on the caller's thread, i.e. on the bounded {@link ImageUploadPipeline} pool.
+ */
+@Slf4j
+@Component
+public class ImageDerivativeGenerator {
+
+    private final int thumbnailWidth;
+    private final int thumbnailHeight;
+    private final int mediumWidth;
+    private final float quality;
+    private final int pixelBudget;
+    private final Duration budgetWait;
+    private final Semaphore decodedPixels;
+
+    public ImageDerivativeGenerator(@Value("${app.upload.derivatives.thumbnail-width:400}") int thumbnailWidth,
+                                    @Value("${app.upload.derivatives.thumbnail-height:300}") int thumbnailHeight,
+                                    @Value("${app.upload.derivatives.medium-width:1280}") int mediumWidth,
+                                    @Value("${app.upload.derivatives.quality:0.8}") float quality,
+                                    @Value("${app.upload.derivatives.pixel-budget:64000000}") int pixelBudget,
+                                    @Value("${app.upload.derivatives.budget-wait:30s}") Duration budgetWait) {
+        this.thumbnailWidth = thumbnailWidth;
+        this.thumbnailHeight = thumbnailHeight;
+        this.mediumWidth = mediumWidth;
+        this.quality = quality;
+        this.pixelBudget = Math.max(1, pixelBudget);
+        this.budgetWait = budgetWait;
+        this.decodedPixels = new Semaphore(this.pixelBudget, true);
+    }
+
+    /**
+     * @return the derivatives, or null if the input is not an image ImageIO can decode
+     *         (or the pixel budget stayed exhausted for budget-wait)
+     */
+    public ImageDerivatives render(InputStream source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source)) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return render(reader);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private ImageDerivatives render(ImageReader reader) throws IOException {
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+
+        // Subsample lúc decode: ảnh 24MP chỉ giải mã cỡ medium-width, không bung hết lên heap
+        int step = Math.max(1, width / mediumWidth);
+        while (decodedSize(width, height, step) > pixelBudget) step++;
+        int permits = (int) decodedSize(width, height, step);
+
+        if (!acquire(permits)) {
+            log.warn("Skipping image derivatives: decoded-pixel budget exhausted for {}", budgetWait);
+            return null;
+        }
+        try {
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceSubsampling(step, step, 0, 0);
+            BufferedImage decoded = reader.read(0, param);
+
+            BufferedImage medium = decoded.getWidth() > mediumWidth
+                    ? scale(decoded, mediumWidth, Math.max(1, Math.round((float) decoded.getHeight() * mediumWidth / decoded.getWidth())))
+                    : flatten(decoded);
+            BufferedImage thumbnail = cropToFill(medium, thumbnailWidth, thumbnailHeight);
+            return new ImageDerivatives(encodeJpeg(thumbnail), encodeJpeg(medium));
+        } finally {
+            decodedPixels.release(permits);
+        }
+    }
+
+    private boolean acquire(int permits) {
+        try {
+            return decodedPixels.tryAcquire(permits, budgetWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long decodedSize(int width, int height, int step) {
+        return (long) ((width + step - 1) / step) * ((height + step - 1) / step);
+    }
+
+    // Cắt giữa cho đúng tỉ lệ khung rồi thu nhỏ: card nào cũng cùng kích thước
+    private static BufferedImage cropToFill(BufferedImage src, int width, int height) {
+        double scale = Math.max((double) width / src.getWidth(), (double) height / src.getHeight());
+        int cropW = Math.min(src.getWidth(), (int) Math.round(width / scale));
+        int cropH = Math.min(src.getHeight(), (int) Math.round(height / scale));
+        int x = (src.getWidth() - cropW) / 2;
+        int y = (src.getHeight() - cropH) / 2;
+        return scale(src.getSubimage(x, y, cropW, cropH), width, height);
+    }
+
+    private static BufferedImage flatten(BufferedImage src) {
+        if (src.getType() == BufferedImage.TYPE_INT_RGB) return src;
+        return scale(src, src.getWidth(), src.getHeight());
+    }
+
+    // Vẽ lên nền trắng TYPE_INT_RGB: JPEG không có alpha
+    private static BufferedImage scale(BufferedImage src, int width, int height) {
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(src, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.car_rental_server.service.upload;
+
+/**
+ * JPEG-encoded renditions produced by {@link ImageDerivativeGenerator} for one source image.
+ */
+public record ImageDerivatives(byte[] thumbnail, byte[] medium) {
+}
@@ -0,0 +1,329 @@
+package com.example.car_rental_server.service.upload;
+
+import com.example.car_rental_server.model.ImageVariant;
+import com.example.car_rental_server.model.StoredImage;
+import com.example.car_rental_server.repository.IStoredImageRepository;
+import com.example.car_rental_server.utils.CloudinaryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Content-addressed front of Cloudinary: every image is keyed by the SHA-256 of its bytes in the
+ * stored_images table, with an in-memory LRU in front. Uploading a file whose content is already
+ * stored returns the existing URL without any network I/O. Content never changes for a hash, so
+ * the LRU needs no TTL. New content is decoded once by {@link ImageDerivativeGenerator} and its
+ * thumbnail/medium renditions are uploaded and recorded next to the original.
+ * <p>
+ * New content is staged first and only published (row + LRU) once its whole request succeeded, so a
+ * request that is rolled back never deletes an image another request has already started to reuse.
+ */
+@Slf4j
+@Service
+public class ImageStore implements IImageStore {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CloudinaryService cloudinaryService;
+    private final ImageDerivativeGenerator derivativeGenerator;
+    private final IStoredImageRepository storedImageRepository;
+    private final TransactionTemplate requiresNew;
+    private final Map<String, StoredImage> imagesByHash;
+
+    public ImageStore(CloudinaryService cloudinaryService,
+                      ImageDerivativeGenerator derivativeGenerator,
+                      IStoredImageRepository storedImageRepository,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${app.upload.dedupe.max-entries:10000}") int maxEntries) {
+        this.cloudinaryService = cloudinaryService;
+        this.derivativeGenerator = derivativeGenerator;
+        this.storedImageRepository = storedImageRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.imagesByHash = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredImage> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public StoredUpload store(MultipartFile file) {
+        return publish(stage(file));
+    }
+
+    @Override
+    public StoredUpload store(byte[] bytes) {
+        return publish(stage(bytes));
+    }
+
+    @Override
+    public StoredUpload stage(MultipartFile file) {
+        // Part của Tomcat nằm trên đĩa thì transferTo sẽ *move* file: sau đó không đọc lại part được nữa.
+        // Vì vậy chuyển part sang file tạm do store sở hữu rồi băm, upload và render đều đọc từ file đó.
+        Path temp = Path.of(System.getProperty("java.io.tmpdir"), "upload-" + UUID.randomUUID() + extension(file));
+        try {
+            file.transferTo(temp.toFile());
+            String hash;
+            try (InputStream in = Files.newInputStream(temp)) {
+                hash = sha256(in);
+            }
+            return stageIfAbsent(hash, Files.size(temp), () -> Files.newInputStream(temp),
+                    () -> cloudinaryService.uploadImage(temp.toFile()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.warn("Could not remove temp upload {}", temp, e);
+            }
+        }
+    }
+
+    private StoredUpload stage(byte[] bytes) {
+        MessageDigest digest = newDigest();
+        String hash = HexFormat.of().formatHex(digest.digest(bytes));
+        return stageIfAbsent(hash, bytes.length, () -> new ByteArrayInputStream(bytes), () -> cloudinaryService.uploadImageFromBytes(bytes));
+    }
+
+    @Override
+    public List<ImageVariant> variantsFor(List<String> urls) {
+        if (urls == null || urls.isEmpty()) return new ArrayList<>();
+        Map<String, StoredImage> byUrl = new HashMap<>();
+        for (StoredImage image : storedImageRepository.findByUrlIn(urls)) {
+            byUrl.put(image.getUrl(), image);
+        }
+        List<ImageVariant> variants = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            StoredImage image = byUrl.get(url);
+            variants.add(ImageVariant.builder()
+                    .originalUrl(url)
+                    .thumbnailUrl(image != null ? image.getThumbnailUrl() : null)
+                    .mediumUrl(image != null ? image.getMediumUrl() : null)
+                    .build());
+        }
+        return variants;
+    }
+
+    @Override
+    public StoredUpload publish(StoredUpload staged) {
+        if (!staged.created()) return staged;
+        StoredImage image = StoredImage.builder()
+                .contentHash(staged.contentHash())
+                .url(staged.url())
+                .thumbnailUrl(staged.thumbnailUrl())
+                .mediumUrl(staged.mediumUrl())
+                .sizeBytes(staged.sizeBytes())
+                .createdAt(LocalDateTime.now())
+                .build();
+        // contentHash là id tự gán nên saveAndFlush sẽ merge đè lên dòng có sẵn: kiểm tra trước, chèn song song thì bắt lỗi
+        StoredImage winner;
+        try {
+            winner = requiresNew.execute(status -> {
+                Optional<StoredImage> existing = storedImageRepository.findById(staged.contentHash());
+                if (existing.isPresent()) return existing.get();
+                storedImageRepository.saveAndFlush(image);
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            winner = storedImageRepository.findById(staged.contentHash()).orElseThrow(() -> e);
+        }
+        if (winner == null) {
+            remember(image);
+            return staged;
+        }
+        // Request khác publish cùng nội dung trước: dùng bản đó, xoá bản vừa stage
+        if (!staged.url().equals(winner.getUrl())) {
+            deleteRemote(staged.url(), staged.thumbnailUrl(), staged.mediumUrl());
+        }
+        remember(winner);
+        return toUpload(winner, false);
+    }
+
+    @Override
+    public void discard(StoredUpload upload) {
+        if (upload == null || !upload.created()) return;
+        // Đã publish (dòng stored_images trỏ tới đúng URL này) thì request khác có thể đang dùng: không xoá
+        boolean published = storedImageRepository.findById(upload.contentHash())
+                .map(image -> upload.url().equals(image.getUrl()))
+                .orElse(false);
+        if (published) {
+            log.warn("Not discarding published image {}", upload.url());
+            return;
+        }
+        deleteRemote(upload.url(), upload.thumbnailUrl(), upload.mediumUrl());
+    }
+
+    private StoredUpload stageIfAbsent(String hash, long size, Source source, Uploader uploader) {
+        StoredImage existing = lookup(hash);
+        if (existing != null) {
+            if (existing.getThumbnailUrl() == null) existing = fillMissingDerivatives(existing, source);
+            return toUpload(existing, false);
+        }
+
+        String url = call(uploader);
+        String[] variantUrls = uploadDerivatives(url, source);
+        return new StoredUpload(url, variantUrls[0], variantUrls[1], hash, size, true);
+    }
+
+    // Trả về {thumbnailUrl, mediumUrl}; null khi không phải ảnh hoặc lỗi
+    private String[] uploadDerivatives(String url, Source source) {
+        ImageDerivatives derivatives = renderQuietly(source);
+        String thumbnailUrl = null;
+        String mediumUrl = null;
+        if (derivatives != null) {
+            // Derivative là best-effort: lỗi thì ảnh gốc vẫn dùng được, card fallback về ảnh gốc
+            try {
+                thumbnailUrl = cloudinaryService.uploadImageFromBytes(derivatives.thumbnail());
+                mediumUrl = cloudinaryService.uploadImageFromBytes(derivatives.medium());
+            } catch (Exception e) {
+                log.warn("Could not upload derivatives of {}", url, e);
+                deleteRemote(thumbnailUrl);
+                thumbnailUrl = null;
+            }
+        }
+        return new String[]{thumbnailUrl, mediumUrl};
+    }
+
+    /**
+     * A stored row without renditions (derivative upload failed earlier) gets them the next time the same
+     * content is uploaded, instead of the dedupe reusing the incomplete row forever.
+     */
+    private StoredImage fillMissingDerivatives(StoredImage existing, Source source) {
+        String[] variantUrls = uploadDerivatives(existing.getUrl(), source);
+        if (variantUrls[0] == null) return existing;
+        Integer updated = requiresNew.execute(status ->
+                storedImageRepository.setDerivativesIfMissing(existing.getContentHash(), variantUrls[0], variantUrls[1]));
+        if (updated == null || updated == 0) {
+            // Request khác đã bổ sung trước: giữ bản đó
+            deleteRemote(variantUrls);
+            StoredImage current = storedImageRepository.findById(existing.getContentHash()).orElse(existing);
+            remember(current);
+            return current;
+        }
+        // Bản mới thay vì sửa object đang nằm trong LRU (các thread khác có thể đang đọc)
+        StoredImage filled = StoredImage.builder()
+                .contentHash(existing.getContentHash())
+                .url(existing.getUrl())
+                .thumbnailUrl(variantUrls[0])
+                .mediumUrl(variantUrls[1])
+                .sizeBytes(existing.getSizeBytes())
+                .createdAt(existing.getCreatedAt())
+                .build();
+        remember(filled);
+        return filled;
+    }
+
+    private static StoredUpload toUpload(StoredImage image, boolean created) {
+        return new StoredUpload(image.getUrl(), image.getThumbnailUrl(), image.getMediumUrl(), image.getContentHash(),
+                image.getSizeBytes() != null ? image.getSizeBytes() : 0L, created);
+    }
+
+    private ImageDerivatives renderQuietly(Source source) {
+        try (InputStream in = source.open()) {
+            return derivativeGenerator.render(in);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not render image derivatives", e);
+            return null;
+        }
+    }
+
+    private static String call(Uploader uploader) {
+        try {
+            return uploader.upload();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Upload failed: " + e.getMessage(), e);
+        }
+    }
+
+    private StoredImage lookup(String hash) {
+        synchronized (imagesByHash) {
+            StoredImage image = imagesByHash.get(hash);
+            if (image != null) return image;
+        }
+        StoredImage image = storedImageRepository.findById(hash).orElse(null);
+        if (image != null) remember(image);
+        return image;
+    }
+
+    private void remember(StoredImage image) {
+        synchronized (imagesByHash) {
+            imagesByHash.put(image.getContentHash(), image);
+        }
+    }
+
+    private void deleteRemote(String... urls) {
+        for (String url : urls) {
+            if (url == null) continue;
+            try {
+                cloudinaryService.deleteImageByUrl(url);
+            } catch (Exception e) {
+                log.warn("Could not remove image {} from Cloudinary", url, e);
+            }
+        }
+    }
+
+    private static String extension(MultipartFile file) {
+        String name = file.getOriginalFilename();
+        if (name == null) return "";
+        int dot = name.lastIndexOf('.');
+        String ext = dot >= 0 ? name.substring(dot) : "";
+        return ext.matches("\\.[A-Za-z0-9]{1,10}") ? ext : "";
+    }
+
+    private static String sha256(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, n);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Uploader {
+        String upload() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Source {
+        InputStream open() throws IOException;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.car_rental_server.service.upload;
+
+import lombok.Getter;
+
+/**
+ * Thrown by {@link ImageUploadPipeline} when one file of a request cannot be uploaded.
+ * Every other image of the same request has already been cancelled or removed from Cloudinary.
+ */
+@Getter
+public class ImageUploadException extends RuntimeException {
+    private final String fileName;
+
+    public ImageUploadException(String fileName, Throwable cause) {
+        super("Failed to upload: " + fileName, cause);
+        this.fileName = fileName;
+    }
+}
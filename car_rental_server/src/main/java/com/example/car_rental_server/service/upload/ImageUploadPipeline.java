@@ -0,0 +1,153 @@
+package com.example.car_rental_server.service.upload;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploads all images of one request concurrently on a bounded pool, so a five-image post takes
+ * roughly as long as its slowest image. Each file goes through {@link IImageStore}, so content
+ * that is already stored is reused and new content is streamed from its multipart temp file.
+ * On the first failure the remaining uploads are cancelled and the images this request created
+ * are deleted again (reused images are left alone), so a rejected request leaves nothing behind.
+ * New images are only published for reuse once every file of the request has been uploaded.
+ */
+@Slf4j
+@Component
+public class ImageUploadPipeline {
+
+    private final IImageStore imageStore;
+    private final ThreadPoolExecutor executor;
+
+    public ImageUploadPipeline(IImageStore imageStore,
+                               @Value("${app.upload.parallelism:8}") int parallelism,
+                               @Value("${app.upload.queue-capacity:64}") int queueCapacity) {
+        this.imageStore = imageStore;
+        int threads = Math.max(1, parallelism);
+        AtomicInteger seq = new AtomicInteger();
+        // Hàng đợi có giới hạn; đầy thì thread của request tự upload (CallerRuns) thay vì dồn thêm
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "image-upload-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Upload every file and return the secure URLs in the same order as {@code files}.
+     *
+     * @throws ImageUploadException naming the first file that failed
+     */
+    public List<String> uploadAll(MultipartFile[] files) {
+        if (files == null || files.length == 0) return new ArrayList<>();
+
+        Batch batch = new Batch();
+        CompletionService<StoredUpload> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<StoredUpload>, Integer> positions = new IdentityHashMap<>();
+        for (int i = 0; i < files.length; i++) {
+            MultipartFile file = files[i];
+            positions.put(completion.submit(() -> upload(batch, file)), i);
+        }
+
+        // Lấy theo thứ tự hoàn thành để phản ứng ngay với lỗi đầu tiên
+        StoredUpload[] staged = new StoredUpload[files.length];
+        for (int done = 0; done < files.length; done++) {
+            Future<StoredUpload> next = null;
+            try {
+                next = completion.take();
+                staged[positions.get(next)] = next.get();
+            } catch (ExecutionException e) {
+                throw abort(batch, positions.keySet(), files[positions.get(next)].getOriginalFilename(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw abort(batch, positions.keySet(), null, e);
+            }
+        }
+        return publishAll(files, staged);
+    }
+
+    // Chỉ khi cả request upload xong mới ghi hash để request khác dùng lại, nên discard ở trên không đụng ảnh đang được dùng
+    private List<String> publishAll(MultipartFile[] files, StoredUpload[] staged) {
+        List<String> urls = new ArrayList<>(staged.length);
+        for (int i = 0; i < staged.length; i++) {
+            try {
+                urls.add(imageStore.publish(staged[i]).url());
+            } catch (RuntimeException e) {
+                // Bản đã publish có thể đã được request khác dùng lại nên giữ; chỉ dọn các bản chưa publish
+                Arrays.asList(staged).subList(i, staged.length).forEach(this::discardQuietly);
+                log.warn("Image publish failed for {}: {}", files[i].getOriginalFilename(), e.getMessage());
+                throw new ImageUploadException(files[i].getOriginalFilename(), e);
+            }
+        }
+        return urls;
+    }
+
+    private StoredUpload upload(Batch batch, MultipartFile file) throws Exception {
+        if (batch.aborted) throw new CancellationException();
+        StoredUpload upload = imageStore.stage(file);
+        synchronized (batch) {
+            if (!batch.aborted) {
+                batch.uploaded.add(upload);
+                return upload;
+            }
+        }
+        // Request đã bị huỷ trong lúc ảnh này đang upload: tự dọn
+        discardQuietly(upload);
+        throw new CancellationException();
+    }
+
+    // Huỷ các upload còn lại và xoá các ảnh request này đã tạo; upload đang chạy tự dọn khi xong
+    private ImageUploadException abort(Batch batch, Collection<Future<StoredUpload>> futures, String fileName, Throwable cause) {
+        List<StoredUpload> orphans;
+        synchronized (batch) {
+            batch.aborted = true;
+            orphans = new ArrayList<>(batch.uploaded);
+        }
+        // Không interrupt: HTTP client không dừng được giữa chừng, để upload đang chạy xong rồi tự xoá
+        futures.forEach(f -> f.cancel(false));
+        orphans.forEach(this::discardQuietly);
+        log.warn("Image upload failed for {}: {}", fileName, cause != null ? cause.getMessage() : null);
+        return new ImageUploadException(fileName, cause);
+    }
+
+    private void discardQuietly(StoredUpload upload) {
+        try {
+            imageStore.discard(upload);
+        } catch (RuntimeException e) {
+            log.warn("Could not remove orphan image {} after failed upload", upload.url(), e);
+        }
+    }
+
+    // Trạng thái của một lần uploadAll
+    private static final class Batch {
+        private volatile boolean aborted;
+        private final List<StoredUpload> uploaded = new ArrayList<>();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
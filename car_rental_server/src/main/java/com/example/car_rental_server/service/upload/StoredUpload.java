@@ -0,0 +1,10 @@
+package com.example.car_rental_server.service.upload;
+
+/**
+ * Result of {@link IImageStore#store} / {@link IImageStore#stage}: the image URL and its derivatives (null when
+ * the content could not be decoded as an image), its content hash and size, and whether this call actually
+ * uploaded it ({@code created = false} means an existing copy was reused).
+ */
+public record StoredUpload(String url, String thumbnailUrl, String mediumUrl, String contentHash, long sizeBytes,
+                           boolean created) {
+}
@@ -3,7 +3,8 @@ package com.example.car_rental_server.service.user;
 import com.example.car_rental_server.dto.UserProfileDTO;
 import com.example.car_rental_server.model.User;
 import com.example.car_rental_server.repository.IUserRepository;
-import com.example.car_rental_server.utils.CloudinaryService;
+import com.example.car_rental_server.security.JwtPrincipalCache;
+import com.example.car_rental_server.service.upload.IImageStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -17,7 +18,8 @@ import java.util.Optional;
 public class UserService implements IUserService {
     private final IUserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final CloudinaryService cloudinaryService;
+    private final IImageStore imageStore;
+    private final JwtPrincipalCache principalCache;
 
     @Override
     public Optional<User> findByEmail(String email) {
@@ -31,7 +33,9 @@ public class UserService implements IUserService {
                 user.setPassword(passwordEncoder.encode(user.getPassword()));
             }
         }
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalCache.evict(saved.getEmail());
+        return saved;
     }
 
     @Override
@@ -46,6 +50,7 @@ public class UserService implements IUserService {
 
     @Override
     public void remove(Long id) {
+        userRepository.findById(id).ifPresent(u -> principalCache.evict(u.getEmail()));
         userRepository.deleteById(id);
     }
 
@@ -76,8 +81,8 @@ public class UserService implements IUserService {
                 String[] parts = newAvatar.split(",");
                 if (parts.length == 2) {
                     byte[] imageBytes = Base64.getDecoder().decode(parts[1]);
-                    String url = cloudinaryService.uploadImageFromBytes(imageBytes);
-                    user.setAvatar(url);
+                    // Avatar trùng nội dung (client gửi lại data URL cũ) dùng lại URL, không upload lại
+                    user.setAvatar(imageStore.store(imageBytes).url());
                 }
             } catch (Exception e) {
                 throw new RuntimeException("Upload avatar failed: " + e.getMessage());
@@ -89,6 +94,7 @@ public class UserService implements IUserService {
         }
 
         userRepository.save(user);
+        principalCache.evict(email);
         return UserProfileDTO.from(user);
     }
 
@@ -1,7 +1,12 @@
 package com.example.car_rental_server.service.vehicle;
 
+import com.example.car_rental_server.dto.CursorPageDTO;
 import com.example.car_rental_server.dto.PostVehicleDTO;
+import com.example.car_rental_server.dto.VehicleCardView;
+import com.example.car_rental_server.dto.VehicleSearchRequestDTO;
+import org.springframework.data.domain.Page;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -9,4 +14,8 @@ import java.util.UUID;
 public interface IVehicleService {
     List<PostVehicleDTO> getAllVehicles();
     Optional<PostVehicleDTO> getVehicleById(UUID id);
+    Page<PostVehicleDTO> searchVehicles(VehicleSearchRequestDTO request);
+    CursorPageDTO<PostVehicleDTO> searchVehiclesByCursor(VehicleSearchRequestDTO request, String cursor);
+    Page<VehicleCardView> getVehicleCards(Integer page, Integer size, String sort);
+    boolean isAvailable(UUID vehicleId, LocalDate startDate, LocalDate endDate);
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.example.car_rental_server.service.vehicle;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * vehicle_images.image_order was added after images were already stored. ddl-auto=update adds it as
+ * NOT NULL, so MySQL fills existing rows with 0 and Hibernate would collapse every such list to one image.
+ * On startup, vehicles whose images are not numbered 0..n-1 are renumbered once, keeping the order the table
+ * returns them in (the order imageList used to load in).
+ */
+@Slf4j
+@Component
+public class VehicleImageOrderBackfill {
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+
+    public VehicleImageOrderBackfill(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            Integer vehicles = tx.execute(status -> numberUnorderedImages());
+            if (vehicles != null && vehicles > 0) log.info("Numbered vehicle_images for {} vehicles", vehicles);
+        } catch (RuntimeException e) {
+            log.error("vehicle_images order backfill failed", e);
+        }
+    }
+
+    int numberUnorderedImages() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(
+                        "SELECT vi.vehicle_id, vi.image_list, vi.image_order FROM vehicle_images vi "
+                                + "WHERE vi.vehicle_id IN (SELECT u.vehicle_id FROM vehicle_images u GROUP BY u.vehicle_id "
+                                + "HAVING COUNT(DISTINCT u.image_order) <> COUNT(*) OR MAX(u.image_order) <> COUNT(*) - 1)")
+                .getResultList();
+        if (rows.isEmpty()) return 0;
+
+        // key theo UUID dạng chuỗi: vehicle_id có thể về dưới dạng byte[] tuỳ driver
+        Map<String, List<Object[]>> byVehicle = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            byVehicle.computeIfAbsent(keyOf(row[0]), k -> new ArrayList<>()).add(row);
+        }
+        for (List<Object[]> images : byVehicle.values()) {
+            // sort ổn định: các dòng cùng index (vd. toàn 0 sau khi thêm cột) giữ thứ tự đọc được, null xếp cuối
+            images.sort(Comparator.comparing(r -> (Number) r[2], Comparator.nullsLast(Comparator.comparingInt(Number::intValue))));
+            Object vehicleId = images.get(0)[0];
+            em.createNativeQuery("DELETE FROM vehicle_images WHERE vehicle_id = :vehicleId")
+                    .setParameter("vehicleId", vehicleId)
+                    .executeUpdate();
+            for (int i = 0; i < images.size(); i++) {
+                em.createNativeQuery("INSERT INTO vehicle_images (vehicle_id, image_list, image_order) VALUES (:vehicleId, :url, :idx)")
+                        .setParameter("vehicleId", vehicleId)
+                        .setParameter("url", images.get(i)[1])
+                        .setParameter("idx", i)
+                        .executeUpdate();
+            }
+        }
+        return byVehicle.size();
+    }
+
+    private static String keyOf(Object vehicleId) {
+        return vehicleId instanceof byte[] bytes ? HexFormat.of().formatHex(bytes) : String.valueOf(vehicleId);
+    }
+}
@@ -1,20 +1,38 @@
 package com.example.car_rental_server.service.vehicle;
 
+import com.example.car_rental_server.dto.CursorPageDTO;
 import com.example.car_rental_server.dto.PostVehicleDTO;
+import com.example.car_rental_server.dto.VehicleCardView;
+import com.example.car_rental_server.dto.VehicleSearchRequestDTO;
+import com.example.car_rental_server.enums.VehicleStatus;
 import com.example.car_rental_server.model.PostVehicle;
 import com.example.car_rental_server.repository.IPostVehicleRepository;
+import com.example.car_rental_server.service.booking.VehicleAvailabilityIndex;
+import com.example.car_rental_server.utils.CursorCodec;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class VehicleService implements IVehicleService {
+    private static final int DEFAULT_PAGE_SIZE = 12;
+    private static final int MAX_PAGE_SIZE = 50;
+
     private final IPostVehicleRepository postVehicleRepo;
+    private final VehicleAvailabilityIndex availabilityIndex;
 
     private PostVehicleDTO toDTO(PostVehicle v) {
         return PostVehicleDTO.builder()
@@ -47,12 +65,129 @@ public class VehicleService implements IVehicleService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PostVehicleDTO> getAllVehicles() {
         return postVehicleRepo.findAll().stream().map(this::toDTO).collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<PostVehicleDTO> getVehicleById(UUID id) {
         return postVehicleRepo.findById(id).map(this::toDTO);
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PostVehicleDTO> searchVehicles(VehicleSearchRequestDTO request) {
+        int page = request.getPage() == null ? 0 : Math.max(0, request.getPage());
+        int size = request.getSize() == null ? DEFAULT_PAGE_SIZE : Math.min(MAX_PAGE_SIZE, Math.max(1, request.getSize()));
+        Pageable pageable = PageRequest.of(page, size, resolveSort(request.getSort()));
+        return postVehicleRepo.findAll(buildSpecification(request), pageable).map(this::toDTO);
+    }
+
+    // Infinite scroll: keyset theo (dailyPrice, id) tăng dần, không OFFSET và không COUNT
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PostVehicleDTO> searchVehiclesByCursor(VehicleSearchRequestDTO request, String cursor) {
+        int limit = CursorCodec.clampSize(request.getSize());
+        Specification<PostVehicle> spec = buildSpecification(request)
+                .and((root, query, cb) -> cb.isNotNull(root.get("dailyPrice")));
+
+        CursorCodec.Key<Double, UUID> key = CursorCodec.decode(cursor, Double::valueOf, UUID::fromString);
+        if (key != null) {
+            Double lastPrice = key.sortKey();
+            UUID lastId = key.id();
+            spec = spec.and((root, query, cb) -> cb.or(
+                    cb.greaterThan(root.get("dailyPrice"), lastPrice),
+                    cb.and(cb.equal(root.get("dailyPrice"), lastPrice), cb.greaterThan(root.<UUID>get("id"), lastId))
+            ));
+        }
+
+        Sort sort = Sort.by(Sort.Direction.ASC, "dailyPrice").and(Sort.by(Sort.Direction.ASC, "id"));
+        List<PostVehicle> rows = postVehicleRepo.findBy(spec, q -> q.sortBy(sort).limit(limit + 1).all());
+        return CursorPageDTO.of(rows, limit, this::toDTO, v -> CursorCodec.encode(v.getDailyPrice(), v.getId()));
+    }
+
+    // Danh sách card: projection, không hydrate entity vào persistence context
+    @Override
+    @Transactional(readOnly = true)
+    public Page<VehicleCardView> getVehicleCards(Integer page, Integer size, String sort) {
+        int pageIndex = page == null ? 0 : Math.max(0, page);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(MAX_PAGE_SIZE, Math.max(1, size));
+        Pageable pageable = PageRequest.of(pageIndex, pageSize, resolveSort(sort));
+        return postVehicleRepo.findCardsByStatus(VehicleStatus.AVAILABLE, pageable);
+    }
+
+    @Override
+    public boolean isAvailable(UUID vehicleId, LocalDate startDate, LocalDate endDate) {
+        validateRange(startDate, endDate);
+        return availabilityIndex.isFree(vehicleId, startDate, endDate);
+    }
+
+    // Catalog chỉ hiển thị xe AVAILABLE, các filter còn lại là tuỳ chọn
+    private Specification<PostVehicle> buildSpecification(VehicleSearchRequestDTO request) {
+        Specification<PostVehicle> spec = (root, query, cb) -> cb.equal(root.get("status"), VehicleStatus.AVAILABLE);
+
+        if (request.getBrand() != null && !request.getBrand().isBlank()) {
+            String brand = request.getBrand().trim().toLowerCase();
+            spec = spec.and((root, query, cb) -> cb.equal(cb.lower(root.get("brand")), brand));
+        }
+        if (request.getCategory() != null && !request.getCategory().isBlank()) {
+            String category = request.getCategory().trim().toLowerCase();
+            spec = spec.and((root, query, cb) -> cb.equal(cb.lower(root.get("category")), category));
+        }
+        if (request.getTransmission() != null && !request.getTransmission().isBlank()) {
+            String transmission = request.getTransmission().trim().toLowerCase();
+            spec = spec.and((root, query, cb) -> cb.equal(cb.lower(root.get("transmission")), transmission));
+        }
+        if (request.getFuelType() != null && !request.getFuelType().isBlank()) {
+            String fuelType = request.getFuelType().trim().toLowerCase();
+            spec = spec.and((root, query, cb) -> cb.equal(cb.lower(root.get("fuelType")), fuelType));
+        }
+        if (request.getSeats() != null) {
+            Integer seats = request.getSeats();
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("vehicleSeat"), seats));
+        }
+        if (request.getMinPrice() != null) {
+            Double minPrice = request.getMinPrice();
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dailyPrice"), minPrice));
+        }
+        if (request.getMaxPrice() != null) {
+            Double maxPrice = request.getMaxPrice();
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("dailyPrice"), maxPrice));
+        }
+        if (request.getStartDate() != null && request.getEndDate() != null) {
+            validateRange(request.getStartDate(), request.getEndDate());
+            // Xe bận lấy từ availability index, không phải join bảng bookings mỗi lần search
+            Set<UUID> busy = availabilityIndex.busyVehicles(request.getStartDate(), request.getEndDate());
+            if (!busy.isEmpty()) {
+                spec = spec.and((root, query, cb) -> cb.not(root.get("id").in(busy)));
+            }
+        }
+        return spec;
+    }
+
+    private void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("startDate and endDate are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+    }
+
+    // Luôn thêm id làm tie-breaker để thứ tự giữa các trang ổn định
+    private Sort resolveSort(String sort) {
+        Sort primary;
+        if ("price_desc".equalsIgnoreCase(sort)) {
+            primary = Sort.by(Sort.Direction.DESC, "dailyPrice");
+        } else if ("rating_desc".equalsIgnoreCase(sort)) {
+            primary = Sort.by(Sort.Direction.DESC, "rating");
+        } else if ("name_asc".equalsIgnoreCase(sort)) {
+            primary = Sort.by(Sort.Direction.ASC, "vehicleName");
+        } else {
+            primary = Sort.by(Sort.Direction.ASC, "dailyPrice");
+        }
+        return primary.and(Sort.by(Sort.Direction.ASC, "id"));
+    }
+}
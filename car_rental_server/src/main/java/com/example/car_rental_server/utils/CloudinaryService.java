@@ -8,7 +8,10 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Service
 public class CloudinaryService {
@@ -17,13 +20,16 @@ public class CloudinaryService {
     public CloudinaryService(
             @Value("${cloudinary.cloud_name}") String cloudName,
             @Value("${cloudinary.api_key}") String apiKey,
-            @Value("${cloudinary.api_secret}") String apiSecret
+            @Value("${cloudinary.api_secret}") String apiSecret,
+            @Value("${cloudinary.upload_prefix:}") String uploadPrefix
     ) {
-        this.cloudinary = new Cloudinary(ObjectUtils.asMap(
-                "cloud_name", cloudName,
-                "api_key", apiKey,
-                "api_secret", apiSecret
-        ));
+        Map<String, Object> config = new HashMap<>();
+        config.put("cloud_name", cloudName);
+        config.put("api_key", apiKey);
+        config.put("api_secret", apiSecret);
+        // Mặc định https://api.cloudinary.com; test trỏ về stub server local
+        if (uploadPrefix != null && !uploadPrefix.isBlank()) config.put("upload_prefix", uploadPrefix);
+        this.cloudinary = new Cloudinary(config);
     }
 
     public String uploadImage(File imageFile) throws Exception {
@@ -49,9 +55,28 @@ public class CloudinaryService {
     }
 
 
+    /**
+     * Upload a multipart file without copying it onto the heap: the part is moved/streamed to a
+     * temp file and the HTTP client streams that file to Cloudinary. The temp file is always removed.
+     * A disk-backed part is moved, so it cannot be read again afterwards.
+     */
     public String uploadMultipart(MultipartFile file) throws IOException {
-        Map uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
-        return uploadResult.get("secure_url").toString();
+        File temp = new File(System.getProperty("java.io.tmpdir"), "upload-" + UUID.randomUUID() + extension(file));
+        try {
+            file.transferTo(temp);
+            Map uploadResult = cloudinary.uploader().upload(temp, ObjectUtils.emptyMap());
+            return uploadResult.get("secure_url").toString();
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private static String extension(MultipartFile file) {
+        String name = file.getOriginalFilename();
+        if (name == null) return "";
+        int dot = name.lastIndexOf('.');
+        String ext = dot >= 0 ? name.substring(dot) : "";
+        return ext.matches("\\.[A-Za-z0-9]{1,10}") ? ext : "";
     }
 
     public String uploadImageFromBytes(byte[] imageBytes) throws Exception {
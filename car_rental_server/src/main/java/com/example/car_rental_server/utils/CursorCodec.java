@@ -0,0 +1,64 @@
+package com.example.car_rental_server.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Encode/decode opaque keyset cursors of the form (sortKey, id), e.g. (createdAt, id) or (dailyPrice, id).
+ * Clients must treat the value as opaque and only pass it back unchanged; anything that does not decode
+ * back to the expected types is rejected with {@link InvalidCursorException} (mapped to 400).
+ */
+public final class CursorCodec {
+    public static final int DEFAULT_SIZE = 10;
+    public static final int MAX_SIZE = 50;
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Object sortKey, Object id) {
+        String raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor and parse both parts, e.g. {@code decode(cursor, LocalDateTime::parse, Long::valueOf)}.
+     *
+     * @return the parsed key, or null if the cursor is empty (first page)
+     * @throws InvalidCursorException if the cursor is not one we issued (bad Base64, separator or value types)
+     */
+    public static <S, I> Key<S, I> decode(String cursor, Function<String, S> sortKeyParser, Function<String, I> idParser) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARATOR);
+            if (idx <= 0 || idx == raw.length() - 1) throw new InvalidCursorException();
+            return new Key<>(sortKeyParser.apply(raw.substring(0, idx)), idParser.apply(raw.substring(idx + 1)));
+        } catch (InvalidCursorException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // IllegalArgumentException (Base64, UUID, NumberFormat) hoặc DateTimeParseException
+            throw new InvalidCursorException(e);
+        }
+    }
+
+    public static int clampSize(Integer size) {
+        if (size == null) return DEFAULT_SIZE;
+        return Math.min(MAX_SIZE, Math.max(1, size));
+    }
+
+    public record Key<S, I>(S sortKey, I id) {
+    }
+
+    public static class InvalidCursorException extends IllegalArgumentException {
+        InvalidCursorException() {
+            super("Invalid cursor");
+        }
+
+        InvalidCursorException(Throwable cause) {
+            super("Invalid cursor", cause);
+        }
+    }
+}
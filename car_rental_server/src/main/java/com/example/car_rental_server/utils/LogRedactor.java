@@ -0,0 +1,33 @@
+package com.example.car_rental_server.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Redaction policy for secrets that may end up in logs (JWT, cookie values, OTP...).
+ * A secret is never logged as-is: only a short SHA-256 fingerprint, enough to correlate
+ * two log lines about the same token without being able to replay it.
+ */
+public final class LogRedactor {
+    private static final int FINGERPRINT_HEX = 8;
+
+    private LogRedactor() {
+    }
+
+    public static String secret(String value) {
+        if (value == null) return "null";
+        if (value.isEmpty()) return "<empty>";
+        return "<redacted#" + fingerprint(value) + ">";
+    }
+
+    private static String fingerprint(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, FINGERPRINT_HEX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,146 +1,85 @@
 package com.example.car_rental_server.utils;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.example.car_rental_server.service.mail.IOutboundMailQueue;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.Scanner;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Render mail templates and put them on the outbound queue. Nothing here talks to SMTP:
+ * the request only pays for one INSERT, MailDispatcher sends in the background with retries.
+ */
 @Service
 @RequiredArgsConstructor
 public class MailService {
-    private final JavaMailSender mailSender;
-    private final String FROM_EMAIL = "autorentdanang@gmail.com";
-    private final String FROM_NAME = "AutoRent Da Nang";
-    
-    // Gửi mail cho user khi nộp đơn
-    public void sendOwnerApplicationPendingHtmlMail(String to, String userName, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
-        helper.setFrom("autorentdanang@gmail.com", "AutoRent Da Nang");
-        helper.setTo(to);
-        helper.setSubject("Your Owner Application is Pending Review");
-
-        String html = loadTemplate("email-templates/owner-application-pending.html")
-                .replace("${userName}", userName)
-                .replace("${appUrl}", appUrl)
-                .replace("${year}", String.valueOf(LocalDate.now().getYear()));
+    private final IOutboundMailQueue mailQueue;
+    private final MailTemplateEngine templateEngine;
 
-        helper.setText(html, true);
+    // Gửi mail cho user khi nộp đơn
+    public void sendOwnerApplicationPendingHtmlMail(String to, String userName, String appUrl) {
+        String html = render("email-templates/owner-application-pending.html",
+                "userName", userName,
+                "appUrl", appUrl);
 
-        mailSender.send(message);
+        mailQueue.enqueue(to, "Your Owner Application is Pending Review", html);
     }
 
     // Gửi mail cho admin khi có đơn mới
-    public void sendOwnerApplicationNotificationToAdmin(String adminEmail, String userName, String userEmail, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
-        helper.setFrom("autorentdanang@gmail.com", "AutoRent Da Nang");
-        helper.setTo(adminEmail);
-        helper.setSubject("New Owner Application Submitted");
-
-        String html = loadTemplate("email-templates/admin-owner-application-notify.html")
-                .replace("${userName}", userName)
-                .replace("${userEmail}", userEmail)
-                .replace("${appUrl}", appUrl)
-                .replace("${year}", String.valueOf(LocalDate.now().getYear()));
+    public void sendOwnerApplicationNotificationToAdmin(String adminEmail, String userName, String userEmail, String appUrl) {
+        String html = render("email-templates/admin-owner-application-notify.html",
+                "userName", userName,
+                "userEmail", userEmail,
+                "appUrl", appUrl);
 
-        helper.setText(html, true);
-
-        mailSender.send(message);
+        mailQueue.enqueue(adminEmail, "New Owner Application Submitted", html);
     }
 
-    public void sendOtpEmail(String to, String userName, String otp)
-            throws MessagingException, UnsupportedEncodingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
-        helper.setFrom("autorentdanang@gmail.com", "AutoRent Da Nang");
-        helper.setTo(to);
-        helper.setSubject("Your Email Verification Code");
-        String html = loadTemplate("email-templates/verify-email-otp.html")
-                .replace("${userName}", userName)
-                .replace("${otp}", otp)
-                .replace("${year}", String.valueOf(LocalDate.now().getYear()));
-        helper.setText(html, true);
-        mailSender.send(message);
+    public void sendOtpEmail(String to, String userName, String otp) {
+        String html = render("email-templates/verify-email-otp.html",
+                "userName", userName,
+                "otp", otp);
+        mailQueue.enqueue(to, "Your Email Verification Code", html);
     }
 
-    public void sendResetPasswordEmail(String to, String userName, String resetUrl)
-            throws MessagingException, UnsupportedEncodingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
-        helper.setFrom("autorentdanang@gmail.com", "AutoRent Da Nang");
-        helper.setTo(to);
-        helper.setSubject("Reset Your Password - AutoRent Da Nang");
-
-        String html = loadTemplate("email-templates/reset-password.html")
-                .replace("${userName}", userName)
-                .replace("${resetUrl}", resetUrl)
-                .replace("${year}", String.valueOf(LocalDate.now().getYear()));
+    public void sendResetPasswordEmail(String to, String userName, String resetUrl) {
+        String html = render("email-templates/reset-password.html",
+                "userName", userName,
+                "resetUrl", resetUrl);
 
-        helper.setText(html, true);
-        mailSender.send(message);
+        mailQueue.enqueue(to, "Reset Your Password - AutoRent Da Nang", html);
     }
 
     // New: Owner receives notification that their vehicle is pending review
-    public void sendVehiclePendingToOwner(String to, String userName, String vehicleName, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
-        helper.setFrom(FROM_EMAIL, FROM_NAME);
-        helper.setTo(to);
-        helper.setSubject("Your vehicle submission is pending review");
-
-        String html = loadTemplate("email-templates/owner-vehicle-pending.html")
-                .replace("${userName}", safe(userName))
-                .replace("${vehicleName}", safe(vehicleName))
-                .replace("${appUrl}", safe(appUrl))
-                .replace("${year}", String.valueOf(LocalDate.now().getYear()));
+    public void sendVehiclePendingToOwner(String to, String userName, String vehicleName, String appUrl) {
+        String html = render("email-templates/owner-vehicle-pending.html",
+                "userName", userName,
+                "vehicleName", vehicleName,
+                "appUrl", appUrl);
 
-        helper.setText(html, true);
-        mailSender.send(message);
+        mailQueue.enqueue(to, "Your vehicle submission is pending review", html);
     }
 
     // New: Notify admin that an owner submitted a vehicle
-    public void sendVehicleSubmissionNotificationToAdmin(String adminEmail, String userName, String userEmail, String vehicleName, String appUrl)
-            throws MessagingException, UnsupportedEncodingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
-        helper.setFrom(FROM_EMAIL, FROM_NAME);
-        helper.setTo(adminEmail);
-        helper.setSubject("New vehicle submitted for review: " + vehicleName);
-
-        String html = loadTemplate("email-templates/admin-vehicle-submitted.html")
-                .replace("${userName}", safe(userName))
-                .replace("${userEmail}", safe(userEmail))
-                .replace("${vehicleName}", safe(vehicleName))
-                .replace("${appUrl}", safe(appUrl))
-                .replace("${year}", String.valueOf(LocalDate.now().getYear()));
-
-        helper.setText(html, true);
-        mailSender.send(message);
+    public void sendVehicleSubmissionNotificationToAdmin(String adminEmail, String userName, String userEmail, String vehicleName, String appUrl) {
+        String html = render("email-templates/admin-vehicle-submitted.html",
+                "userName", userName,
+                "userEmail", userEmail,
+                "vehicleName", vehicleName,
+                "appUrl", appUrl);
+
+        mailQueue.enqueue(adminEmail, "New vehicle submitted for review: " + vehicleName, html);
     }
 
-    private String loadTemplate(String path) {
-        try (Scanner scanner = new Scanner(new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8.name())) {
-            return scanner.useDelimiter("\\A").next();
-        } catch (Exception e) {
-            throw new RuntimeException("Cannot load mail template: " + path, e);
+    // pairs: name1, value1, name2, value2... ; ${year} luôn có sẵn
+    private String render(String template, String... pairs) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            values.put(pairs[i], pairs[i + 1]);
         }
+        values.put("year", String.valueOf(LocalDate.now().getYear()));
+        return templateEngine.render(template, values);
     }
-
-
-    private String safe(String v) {
-        return v == null ? "" : v;
-    }
-
-}
\ No newline at end of file
+}
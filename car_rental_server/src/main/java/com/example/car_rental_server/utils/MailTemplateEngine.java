@@ -0,0 +1,116 @@
+package com.example.car_rental_server.utils;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Email templates (email-templates/*.html) are read and split into literal segments and
+ * ${name} placeholders once at startup; rendering is a single pass into a per-thread buffer.
+ * Values are HTML-escaped. A placeholder without an entry in the value map is left as-is,
+ * a null value renders as an empty string.
+ */
+@Slf4j
+@Component
+public class MailTemplateEngine {
+    private static final String TEMPLATE_DIR = "email-templates/";
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(8 * 1024));
+
+    @PostConstruct
+    void loadAll() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:" + TEMPLATE_DIR + "*.html");
+        for (Resource resource : resources) {
+            templates.put(TEMPLATE_DIR + resource.getFilename(), compile(read(resource)));
+        }
+        log.info("Loaded {} mail templates", templates.size());
+    }
+
+    /**
+     * @param path   classpath path, e.g. "email-templates/verify-email-otp.html"
+     * @param values placeholder name -> value (escaped before insertion)
+     */
+    public String render(String path, Map<String, ?> values) {
+        CompiledTemplate template = templates.computeIfAbsent(path, MailTemplateEngine::loadOne);
+        StringBuilder out = buffers.get();
+        out.setLength(0);
+        template.renderTo(out, values);
+        String html = out.toString();
+        // Không giữ lại buffer quá lớn cho thread pool
+        if (out.capacity() > MAX_RETAINED_BUFFER) buffers.remove();
+        return html;
+    }
+
+    private static CompiledTemplate loadOne(String path) {
+        try {
+            return compile(read(new ClassPathResource(path)));
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot load mail template: " + path, e);
+        }
+    }
+
+    private static String read(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int start = source.indexOf("${", pos);
+            int end = start < 0 ? -1 : source.indexOf('}', start + 2);
+            if (start < 0 || end < 0) break;
+            literals.add(source.substring(pos, start));
+            names.add(source.substring(start + 2, end));
+            pos = end + 1;
+        }
+        literals.add(source.substring(pos));
+        return new CompiledTemplate(literals.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    static void escapeHtml(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    // literals.length == names.length + 1: literal[0] name[0] literal[1] ... literal[n]
+    record CompiledTemplate(String[] literals, String[] names) {
+        void renderTo(StringBuilder out, Map<String, ?> values) {
+            for (int i = 0; i < names.length; i++) {
+                out.append(literals[i]);
+                if (values.containsKey(names[i])) {
+                    Object value = values.get(names[i]);
+                    if (value != null) escapeHtml(value.toString(), out);
+                } else {
+                    out.append("${").append(names[i]).append('}');
+                }
+            }
+            out.append(literals[names.length]);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.car_rental_server.controller;
+
+import com.example.car_rental_server.enums.VehicleStatus;
+import com.example.car_rental_server.model.PostVehicle;
+import com.example.car_rental_server.model.Review;
+import com.example.car_rental_server.service.review.ReviewService;
+import com.example.car_rental_server.service.review.VehicleRatingStatsService;
+import com.example.car_rental_server.utils.CursorCodec;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({ReviewService.class, VehicleRatingStatsService.class})
+class ReviewControllerTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    private MockMvc mvc;
+    private UUID vehicleId;
+
+    @BeforeEach
+    void setUp() {
+        PostVehicle vehicle = new PostVehicle();
+        vehicle.setVehicleName("Car");
+        vehicle.setStatus(VehicleStatus.AVAILABLE);
+        em.persist(vehicle);
+        vehicleId = vehicle.getId();
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            Review r = new Review();
+            r.setRating(5);
+            r.setCreatedAt(now.minusMinutes(i));
+            r.setVehicle(vehicle);
+            em.persist(r);
+        }
+        em.flush();
+        em.clear();
+
+        mvc = MockMvcBuilders.standaloneSetup(new ReviewController(reviewService))
+                .setControllerAdvice(new CursorExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void cursorFromPreviousPageIsAccepted() throws Exception {
+        Review newest = em.createQuery("select r from Review r order by r.createdAt desc, r.id desc", Review.class)
+                .setMaxResults(1).getSingleResult();
+        String cursor = CursorCodec.encode(newest.getCreatedAt(), newest.getId());
+
+        mvc.perform(get("/api/vehicles/{vehicleId}/reviews/scroll", vehicleId).param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    void malformedCursorIsRejectedWithBadRequest() throws Exception {
+        String[] cursors = {
+                "%%not-base64%%",
+                opaque("no-separator"),
+                opaque("yesterday|1"),                    // DateTimeParseException
+                opaque(LocalDateTime.now() + "|abc"),     // NumberFormatException
+        };
+        for (String cursor : cursors) {
+            mvc.perform(get("/api/vehicles/{vehicleId}/reviews/scroll", vehicleId).param("cursor", cursor))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private static String opaque(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
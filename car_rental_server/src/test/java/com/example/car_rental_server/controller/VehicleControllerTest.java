@@ -0,0 +1,73 @@
+package com.example.car_rental_server.controller;
+
+import com.example.car_rental_server.enums.VehicleStatus;
+import com.example.car_rental_server.model.PostVehicle;
+import com.example.car_rental_server.service.booking.VehicleAvailabilityIndex;
+import com.example.car_rental_server.service.vehicle.VehicleService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({VehicleService.class, VehicleAvailabilityIndex.class})
+class VehicleControllerTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    private MockMvc mvc;
+    private UUID vehicleId;
+
+    @BeforeEach
+    void setUp() {
+        PostVehicle v = new PostVehicle();
+        v.setVehicleName("Car");
+        v.setDailyPrice(40.0);
+        v.setStatus(VehicleStatus.AVAILABLE);
+        em.persist(v);
+        em.flush();
+        vehicleId = v.getId();
+
+        mvc = MockMvcBuilders.standaloneSetup(new VehicleController(vehicleService))
+                .setControllerAdvice(new CursorExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void invertedDateRangeIsRejectedWithBadRequest() throws Exception {
+        mvc.perform(get("/api/vehicles/search").param("startDate", "2025-07-10").param("endDate", "2025-07-01"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/vehicles/scroll").param("startDate", "2025-07-10").param("endDate", "2025-07-01"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/vehicles/{id}/availability", vehicleId)
+                        .param("startDate", "2025-07-10").param("endDate", "2025-07-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void validDateRangeIsServed() throws Exception {
+        mvc.perform(get("/api/vehicles/search").param("startDate", "2025-07-01").param("endDate", "2025-07-10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+        mvc.perform(get("/api/vehicles/{id}/availability", vehicleId)
+                        .param("startDate", "2025-07-01").param("endDate", "2025-07-10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(true));
+    }
+}
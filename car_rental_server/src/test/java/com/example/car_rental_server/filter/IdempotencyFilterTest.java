@@ -0,0 +1,150 @@
+package com.example.car_rental_server.filter;
+
+import com.example.car_rental_server.service.idempotency.InMemoryIdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter(new InMemoryIdempotencyStore(Duration.ofMinutes(5), Duration.ofMinutes(1), 100));
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void retryWithSameKeyReplaysStoredResponse() throws Exception {
+        MockHttpServletResponse first = send("key-1", created());
+        MockHttpServletResponse retry = send("key-1", created());
+
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void differentKeysExecuteSeparately() throws Exception {
+        send("key-1", created());
+        send("key-2", created());
+
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failedResponseIsNotStored() throws Exception {
+        send("key-1", (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(409);
+        });
+        MockHttpServletResponse retry = send("key-1", created());
+
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void requestsWithoutKeyOrOnOtherPathsAreNotTouched() throws Exception {
+        send(null, created());
+        send(null, created());
+        assertThat(executions.get()).isEqualTo(2);
+
+        MockHttpServletRequest other = new MockHttpServletRequest("POST", "/api/user/profile");
+        other.setServletPath("/api/user/profile");
+        other.addHeader(IdempotencyFilter.HEADER, "key-1");
+        filter.doFilter(other, new MockHttpServletResponse(), created());
+        filter.doFilter(other, new MockHttpServletResponse(), created());
+        assertThat(executions.get()).isEqualTo(4);
+    }
+
+    @Test
+    void outboxRetryOfNotificationCallbackIsReplayed() throws Exception {
+        String path = "/api/notifications/users/42/create";
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+            request.setServletPath(path);
+            request.addHeader(IdempotencyFilter.HEADER, "event-1");
+            filter.doFilter(request, new MockHttpServletResponse(), created());
+        }
+
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsRejected() throws Exception {
+        send("key-1", "{\"startDate\":\"2025-07-01\"}", created());
+        MockHttpServletResponse other = send("key-1", "{\"startDate\":\"2025-08-01\"}", created());
+
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(other.getStatus()).isEqualTo(422);
+        assertThat(other.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+
+        MockHttpServletResponse retry = send("key-1", "{\"startDate\":\"2025-07-01\"}", created());
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void controllerStillReadsTheHashedBody() throws Exception {
+        String json = "{\"vehicleId\":\"abc\"}";
+        StringBuilder seen = new StringBuilder();
+        send("key-1", json, (req, res) -> {
+            seen.append(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            ((HttpServletResponse) res).setStatus(201);
+        });
+
+        assertThat(seen.toString()).isEqualTo(json);
+    }
+
+    @Test
+    void abandonedClaimIsTakenOverAfterTheLease() throws Exception {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofMinutes(5), Duration.ofMillis(50), 100);
+        // Request đầu không bao giờ complete/release (instance chết giữa chừng)
+        assertThat(store.begin("key-1", "hash")).isNull();
+        assertThat(store.begin("key-1", "hash").isInProgress()).isTrue();
+
+        Thread.sleep(80);
+        filter = new IdempotencyFilter(store);
+        MockHttpServletResponse retry = send("key-1", created());
+
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    private MockHttpServletResponse send(String key, FilterChain chain) throws Exception {
+        return send(key, "{}", chain);
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/user/bookings");
+        request.setServletPath("/api/user/bookings");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) request.addHeader(IdempotencyFilter.HEADER, key);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private FilterChain created() {
+        return (req, res) -> {
+            executions.incrementAndGet();
+            HttpServletResponse response = (HttpServletResponse) res;
+            response.setStatus(201);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"id\":1}");
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.car_rental_server.filter;
+
+import com.example.car_rental_server.model.Role;
+import com.example.car_rental_server.model.User;
+import com.example.car_rental_server.repository.IUserRepository;
+import com.example.car_rental_server.security.AuthenticatedUser;
+import com.example.car_rental_server.security.JwtPrincipalCache;
+import com.example.car_rental_server.security.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private JwtService jwtService;
+    private IUserRepository userRepository;
+    private JwtPrincipalCache principalCache;
+    private JwtAuthenticationFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", "x".repeat(64));
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        userRepository = mock(IUserRepository.class);
+        principalCache = new JwtPrincipalCache(userRepository, Duration.ofMinutes(1), 100);
+        filter = new JwtAuthenticationFilter(jwtService, principalCache);
+
+        Role role = new Role();
+        role.setName("OWNER");
+        user = new User();
+        user.setId(1L);
+        user.setEmail("owner@test.com");
+        user.setRole(role);
+        when(userRepository.findByEmail("owner@test.com")).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatedRequestsAuthenticateWithoutReloadingUser() throws Exception {
+        String token = jwtService.generateToken(user);
+
+        Authentication first = authenticate(token);
+        Authentication second = authenticate(token);
+
+        // bản chụp bất biến, không phải entity dùng chung
+        assertThat(first.getPrincipal()).isEqualTo(new AuthenticatedUser(1L, "owner@test.com", "OWNER", true));
+        assertThat(first.getName()).isEqualTo("owner@test.com");
+        assertThat(second.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("OWNER");
+        verify(userRepository, times(1)).findByEmail("owner@test.com");
+    }
+
+    @Test
+    void blockedUserIsRejected() throws Exception {
+        String token = jwtService.generateToken(user);
+        user.setStatus(false);
+
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void roleChangeOverridesTokenClaimAfterEviction() throws Exception {
+        String token = jwtService.generateToken(user);
+        authenticate(token);
+
+        Role admin = new Role();
+        admin.setName("ADMIN");
+        user.setRole(admin);
+        principalCache.evict("owner@test.com");
+
+        assertThat(authenticate(token).getAuthorities())
+                .extracting(GrantedAuthority::getAuthority).containsExactly("ADMIN");
+    }
+
+    @Test
+    void invalidTokenLeavesRequestAnonymous() throws Exception {
+        assertThat(authenticate("not-a-jwt")).isNull();
+        verify(userRepository, times(0)).findByEmail("owner@test.com");
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/bookings");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.car_rental_server.filter;
+
+import com.example.car_rental_server.utils.LogRedactor;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestIdFilterTest {
+
+    private final RequestIdFilter filter = new RequestIdFilter();
+
+    @Test
+    void requestIdIsInMdcDuringRequestAndClearedAfter() throws Exception {
+        AtomicReference<String> seen = new AtomicReference<>();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/vehicles"), response,
+                (req, res) -> seen.set(MDC.get(RequestIdFilter.MDC_KEY)));
+
+        assertThat(seen.get()).isNotBlank();
+        assertThat(response.getHeader(RequestIdFilter.HEADER)).isEqualTo(seen.get());
+        assertThat(MDC.get(RequestIdFilter.MDC_KEY)).isNull();
+    }
+
+    @Test
+    void validIncomingIdIsKeptAndInvalidOneReplaced() throws Exception {
+        assertThat(idFor("gw-123_abc")).isEqualTo("gw-123_abc");
+        assertThat(idFor("bad id\nFAKE LOG LINE")).isNotEqualTo("bad id\nFAKE LOG LINE").doesNotContain("\n");
+    }
+
+    @Test
+    void secretsAreFingerprintedNeverLoggedRaw() {
+        String token = "eyJhbGciOiJIUzUxMiJ9.payload.signature";
+
+        assertThat(LogRedactor.secret(token)).doesNotContain("payload").startsWith("<redacted#");
+        assertThat(LogRedactor.secret(token)).isEqualTo(LogRedactor.secret(token));
+        assertThat(LogRedactor.secret(null)).isEqualTo("null");
+    }
+
+    private String idFor(String incoming) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/vehicles");
+        request.addHeader(RequestIdFilter.HEADER, incoming);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response.getHeader(RequestIdFilter.HEADER);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.car_rental_server.service.booking;
+
+import com.example.car_rental_server.dto.BookingDTO;
+import com.example.car_rental_server.enums.VehicleStatus;
+import com.example.car_rental_server.model.PostVehicle;
+import com.example.car_rental_server.model.User;
+import com.example.car_rental_server.repository.IBookingRepository;
+import com.example.car_rental_server.repository.IPostVehicleRepository;
+import com.example.car_rental_server.repository.IUserRepository;
+import com.example.car_rental_server.service.notification.INotificationService;
+import com.example.car_rental_server.service.stats.IBookingStatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Two "instances" admitting the same vehicle without the in-process striped lock: only the vehicle row lock
+ * and the admission transaction's isolation keep them apart. The pool defaults to REPEATABLE READ like MySQL.
+ */
+@DataJpaTest(properties = "spring.datasource.hikari.transaction-isolation=TRANSACTION_REPEATABLE_READ")
+@ActiveProfiles("h2")
+@Import({BookingService.class, VehicleAvailabilityIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingAdmissionIsolationTest {
+    private static final LocalDate BASE = LocalDate.of(2025, 8, 1);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private IBookingRepository bookingRepo;
+
+    @Autowired
+    private IPostVehicleRepository vehicleRepo;
+
+    @Autowired
+    private IUserRepository userRepo;
+
+    @MockitoBean
+    private INotificationService notificationService;
+
+    @MockitoBean
+    private IBookingStatsService bookingStatsService;
+
+    private UUID vehicleId;
+    private Long renterId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner-isolation@test.com");
+        owner = userRepo.save(owner);
+
+        User renter = new User();
+        renter.setName("Renter");
+        renter.setEmail("renter-isolation@test.com");
+        renterId = userRepo.save(renter).getId();
+
+        PostVehicle v = new PostVehicle();
+        v.setVehicleName("Car");
+        v.setDailyPrice(40.0);
+        v.setStatus(VehicleStatus.AVAILABLE);
+        v.setOwner(owner);
+        vehicleId = vehicleRepo.save(v).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepo.deleteAll();
+        vehicleRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void secondInstanceWaitingOnTheVehicleLockSeesTheFirstBooking() throws Exception {
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        // instance A dừng ngay trước commit (sau khi đã insert booking) cho tới khi B đang chờ row lock
+        doAnswer(inv -> {
+            if (firstInserted.getCount() > 0) {
+                firstInserted.countDown();
+                releaseFirst.await(10, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(notificationService).notifyOwnerNewBooking(anyLong(), anyString(), anyString(), any(), any());
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<BookingDTO> first = pool.submit(() -> bookingService.admitInTransaction(booking(BASE, BASE.plusDays(3))));
+            assertThat(firstInserted.await(10, TimeUnit.SECONDS)).isTrue();
+
+            Future<BookingDTO> second = pool.submit(() -> bookingService.admitInTransaction(booking(BASE.plusDays(1), BASE.plusDays(4))));
+            Thread.sleep(300); // B đã mở transaction và đang chờ lock của xe
+            releaseFirst.countDown();
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).isNotNull();
+            assertThatThrownBy(() -> second.get(10, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            releaseFirst.countDown();
+            pool.shutdownNow();
+        }
+        assertThat(bookingRepo.count()).isEqualTo(1);
+    }
+
+    private BookingDTO booking(LocalDate start, LocalDate end) {
+        BookingDTO dto = new BookingDTO();
+        dto.setUserId(renterId);
+        dto.setVehicleId(vehicleId);
+        dto.setStartDate(start);
+        dto.setEndDate(end);
+        return dto;
+    }
+}
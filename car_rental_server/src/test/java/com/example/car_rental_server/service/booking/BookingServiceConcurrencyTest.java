@@ -0,0 +1,216 @@
+package com.example.car_rental_server.service.booking;
+
+import com.example.car_rental_server.dto.BookingDTO;
+import com.example.car_rental_server.enums.BookingStatus;
+import com.example.car_rental_server.enums.VehicleStatus;
+import com.example.car_rental_server.model.Booking;
+import com.example.car_rental_server.model.PostVehicle;
+import com.example.car_rental_server.model.User;
+import com.example.car_rental_server.repository.IBookingRepository;
+import com.example.car_rental_server.repository.IPostVehicleRepository;
+import com.example.car_rental_server.repository.IUserRepository;
+import com.example.car_rental_server.service.notification.INotificationService;
+import com.example.car_rental_server.service.stats.IBookingStatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({BookingService.class, VehicleAvailabilityIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // mỗi booking tự commit như khi chạy thật
+class BookingServiceConcurrencyTest {
+
+    private static final int REQUESTS = 2000;
+    private static final int THREADS = 16;
+    private static final LocalDate BASE = LocalDate.of(2025, 7, 1);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private VehicleAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private IBookingRepository bookingRepo;
+
+    @Autowired
+    private IPostVehicleRepository vehicleRepo;
+
+    @Autowired
+    private IUserRepository userRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private INotificationService notificationService;
+
+    @MockitoBean
+    private IBookingStatsService bookingStatsService;
+
+    private final List<UUID> vehicleIds = new ArrayList<>();
+    private Long renterId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner-concurrency@test.com");
+        owner = userRepo.save(owner);
+
+        User renter = new User();
+        renter.setName("Renter");
+        renter.setEmail("renter-concurrency@test.com");
+        renterId = userRepo.save(renter).getId();
+
+        for (int i = 0; i < 3; i++) {
+            PostVehicle v = new PostVehicle();
+            v.setVehicleName("Car " + i);
+            v.setDailyPrice(40.0);
+            v.setStatus(VehicleStatus.AVAILABLE);
+            v.setOwner(owner);
+            vehicleIds.add(vehicleRepo.save(v).getId());
+        }
+        availabilityIndex.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepo.deleteAll();
+        vehicleRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void overlappingRequestsNeverProduceDoubleBookings() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Random random = new Random(42);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            BookingDTO dto = new BookingDTO();
+            dto.setUserId(renterId);
+            dto.setVehicleId(vehicleIds.get(random.nextInt(vehicleIds.size())));
+            dto.setStartDate(BASE.plusDays(random.nextInt(30)));
+            dto.setEndDate(dto.getStartDate().plusDays(random.nextInt(4)));
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    if (bookingService.createBooking(dto) != null) accepted.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertThat(accepted.get() + rejected.get()).isEqualTo(REQUESTS);
+        assertThat(accepted.get()).isPositive();
+
+        List<Booking> saved = bookingRepo.findAll().stream()
+                .filter(b -> b.getStatus() == BookingStatus.PENDING)
+                .toList();
+        assertThat(saved).hasSize(accepted.get());
+
+        Map<UUID, List<Booking>> byVehicle = saved.stream()
+                .collect(Collectors.groupingBy(b -> b.getVehicle().getId()));
+        byVehicle.values().forEach(list -> {
+            for (int i = 0; i < list.size(); i++) {
+                for (int j = i + 1; j < list.size(); j++) {
+                    assertThat(overlaps(list.get(i), list.get(j)))
+                            .as("double booking %s / %s", list.get(i).getId(), list.get(j).getId())
+                            .isFalse();
+                }
+            }
+        });
+    }
+
+    @Test
+    void overlapIsRejectedEvenWhenIndexIsStale() {
+        BookingDTO first = new BookingDTO();
+        first.setUserId(renterId);
+        first.setVehicleId(vehicleIds.get(0));
+        first.setStartDate(BASE);
+        first.setEndDate(BASE.plusDays(3));
+        BookingDTO created = bookingService.createBooking(first);
+        assertThat(created).isNotNull();
+
+        // index mất dấu booking (vd. instance khác tạo) -> DB guard vẫn chặn
+        availabilityIndex.remove(created.getId());
+
+        BookingDTO second = new BookingDTO();
+        second.setUserId(renterId);
+        second.setVehicleId(vehicleIds.get(0));
+        second.setStartDate(BASE.plusDays(2));
+        second.setEndDate(BASE.plusDays(4));
+        assertThatThrownBy(() -> bookingService.createBooking(second))
+                .isInstanceOf(IllegalStateException.class);
+
+        // ngày trả xe là ngày trống cho lượt tiếp theo
+        BookingDTO third = new BookingDTO();
+        third.setUserId(renterId);
+        third.setVehicleId(vehicleIds.get(0));
+        third.setStartDate(BASE.plusDays(3));
+        third.setEndDate(BASE.plusDays(5));
+        assertThat(bookingService.createBooking(third)).isNotNull();
+    }
+
+    @Test
+    void rolledBackCancelKeepsTheVehicleBlockedInIndex() {
+        BookingDTO dto = new BookingDTO();
+        dto.setUserId(renterId);
+        dto.setVehicleId(vehicleIds.get(1));
+        dto.setStartDate(BASE);
+        dto.setEndDate(BASE.plusDays(3));
+        BookingDTO created = bookingService.createBooking(dto);
+
+        // cancel chạy trong transaction ngoài bị rollback -> index không được đổi
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(bookingService.cancelBooking(created.getId(), renterId)).isNotNull();
+            status.setRollbackOnly();
+        });
+        assertThat(availabilityIndex.isFree(vehicleIds.get(1), BASE, BASE.plusDays(3))).isFalse();
+
+        bookingService.cancelBooking(created.getId(), renterId);
+        assertThat(availabilityIndex.isFree(vehicleIds.get(1), BASE, BASE.plusDays(3))).isTrue();
+    }
+
+    private static boolean overlaps(Booking a, Booking b) {
+        LocalDate aEnd = a.getEndDate().isAfter(a.getStartDate()) ? a.getEndDate() : a.getStartDate().plusDays(1);
+        LocalDate bEnd = b.getEndDate().isAfter(b.getStartDate()) ? b.getEndDate() : b.getStartDate().plusDays(1);
+        return a.getStartDate().isBefore(bEnd) && b.getStartDate().isBefore(aEnd);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.car_rental_server.service.booking;
+
+import com.example.car_rental_server.dto.BookingRangeView;
+import com.example.car_rental_server.repository.IBookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VehicleAvailabilityIndexTest {
+
+    private static final LocalDate D1 = LocalDate.of(2025, 6, 1);
+
+    private IBookingRepository bookingRepo;
+    private VehicleAvailabilityIndex index;
+    private final UUID carA = UUID.randomUUID();
+    private final UUID carB = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        bookingRepo = mock(IBookingRepository.class);
+        index = new VehicleAvailabilityIndex(bookingRepo);
+    }
+
+    @Test
+    void rangesAreHalfOpen() {
+        index.add(UUID.randomUUID(), carA, D1, D1.plusDays(3));
+
+        assertThat(index.isFree(carA, D1.plusDays(1), D1.plusDays(2))).isFalse();
+        assertThat(index.isFree(carA, D1.minusDays(2), D1.plusDays(1))).isFalse();
+        // return day is free for the next pickup
+        assertThat(index.isFree(carA, D1.plusDays(3), D1.plusDays(5))).isTrue();
+        assertThat(index.isFree(carA, D1.minusDays(2), D1)).isTrue();
+        assertThat(index.isFree(carB, D1, D1.plusDays(3))).isTrue();
+    }
+
+    @Test
+    void longBookingStartingEarlierIsStillFound() {
+        index.add(UUID.randomUUID(), carA, D1, D1.plusDays(30));
+        index.add(UUID.randomUUID(), carA, D1.plusDays(40), D1.plusDays(41));
+
+        assertThat(index.isFree(carA, D1.plusDays(20), D1.plusDays(21))).isFalse();
+        assertThat(index.isFree(carA, D1.plusDays(35), D1.plusDays(40))).isTrue();
+    }
+
+    @Test
+    void sameDayBookingBlocksOneDay() {
+        index.add(UUID.randomUUID(), carA, D1, D1);
+
+        assertThat(index.isFree(carA, D1, D1)).isFalse();
+        assertThat(index.isFree(carA, D1.plusDays(1), D1.plusDays(2))).isTrue();
+    }
+
+    @Test
+    void removeReleasesTheRange() {
+        UUID booking = UUID.randomUUID();
+        index.add(booking, carA, D1, D1.plusDays(3));
+        index.remove(booking);
+
+        assertThat(index.isFree(carA, D1, D1.plusDays(3))).isTrue();
+        assertThat(index.busyVehicles(D1, D1.plusDays(3))).isEmpty();
+    }
+
+    @Test
+    void busyVehiclesReturnsOnlyOverlappingVehicles() {
+        index.add(UUID.randomUUID(), carA, D1, D1.plusDays(3));
+        index.add(UUID.randomUUID(), carB, D1.plusDays(10), D1.plusDays(12));
+
+        assertThat(index.busyVehicles(D1.plusDays(2), D1.plusDays(4))).containsExactly(carA);
+        assertThat(index.busyVehicles(D1, D1.plusDays(20))).containsExactlyInAnyOrder(carA, carB);
+    }
+
+    @Test
+    void loadWarmsIndexFromRepository() {
+        UUID bookingId = UUID.randomUUID();
+        BookingRangeView range = mock(BookingRangeView.class);
+        when(range.getId()).thenReturn(bookingId);
+        when(range.getVehicleId()).thenReturn(carA);
+        when(range.getStartDate()).thenReturn(D1);
+        when(range.getEndDate()).thenReturn(D1.plusDays(2));
+        when(bookingRepo.findRangesByStatusIn(any())).thenReturn(List.of(range));
+
+        index.load();
+
+        assertThat(index.isFree(carA, D1, D1.plusDays(1))).isFalse();
+        index.remove(bookingId);
+        assertThat(index.isFree(carA, D1, D1.plusDays(1))).isTrue();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.car_rental_server.service.idempotency;
+
+import com.example.car_rental_server.model.IdempotencyRecord;
+import com.example.car_rental_server.repository.IIdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // store tự mở transaction REQUIRES_NEW
+class DatabaseIdempotencyStoreTest {
+
+    @Autowired
+    private IIdempotencyRecordRepository recordRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private DatabaseIdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new DatabaseIdempotencyStore(recordRepo, transactionManager, Duration.ofHours(24), Duration.ofMinutes(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        recordRepo.deleteAll();
+    }
+
+    @Test
+    void completedResponseKeepsTheRequestHash() {
+        assertThat(store.begin("key-1", "hash-a")).isNull();
+        assertThat(store.begin("key-1", "hash-a").isInProgress()).isTrue();
+
+        store.complete("key-1", new IdempotentResponse(201, "application/json", "{}".getBytes(), "hash-a"));
+
+        IdempotentResponse stored = store.begin("key-1", "hash-b");
+        assertThat(stored.isInProgress()).isFalse();
+        assertThat(stored.matches("hash-a")).isTrue();
+        assertThat(stored.matches("hash-b")).isFalse();
+    }
+
+    @Test
+    void claimLeftByCrashedInstanceIsTakenOverOnceAfterTheLease() {
+        // Claim của instance đã chết: vẫn completed=false nhưng quá lease
+        recordRepo.saveAndFlush(IdempotencyRecord.builder()
+                .id("key-1")
+                .completed(false)
+                .requestHash("hash-a")
+                .expiresAt(LocalDateTime.now().minusSeconds(1))
+                .build());
+
+        assertThat(store.begin("key-1", "hash-a")).isNull();
+        // Retry song song đến sau: claim mới đang giữ -> 409, không chạy lần nữa
+        assertThat(store.begin("key-1", "hash-a").isInProgress()).isTrue();
+
+        IdempotencyRecord claim = recordRepo.findById("key-1").orElseThrow();
+        assertThat(claim.getCompleted()).isFalse();
+        assertThat(claim.getExpiresAt()).isAfter(LocalDateTime.now().plusMinutes(1));
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.car_rental_server.service.mail;
+
+import com.example.car_rental_server.enums.MailStatus;
+import com.example.car_rental_server.model.OutboundMail;
+import com.example.car_rental_server.repository.IOutboundMailRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({OutboundMailQueue.class, MailDispatcher.class, MailDispatcherTest.FakeSmtpConfig.class})
+@TestPropertySource(properties = {
+        "app.mail.queue.workers=2",
+        "app.mail.queue.batch-size=50",
+        "app.mail.queue.max-attempts=3",
+        "app.mail.queue.backoff-base=0s"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // worker thread phải thấy dữ liệu đã commit
+class MailDispatcherTest {
+
+    private static final FakeSmtpServer SMTP = startSmtp();
+
+    @Autowired
+    private IOutboundMailQueue mailQueue;
+
+    @Autowired
+    private MailDispatcher dispatcher;
+
+    @Autowired
+    private IOutboundMailRepository mailRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @BeforeEach
+    void setUp() {
+        SMTP.reset();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        mailRepository.deleteAll();
+    }
+
+    @AfterAll
+    static void stopSmtp() throws IOException {
+        SMTP.close();
+    }
+
+    @Test
+    void queuedMailsAreDeliveredReusingOneConnectionPerWorker() {
+        for (int i = 0; i < 20; i++) {
+            mailQueue.enqueue("user" + i + "@test.com", "Subject " + i, "<p>Hello " + i + "</p>");
+        }
+        // enqueue chỉ ghi DB, chưa hề kết nối SMTP
+        assertThat(SMTP.connections()).isZero();
+
+        assertThat(dispatcher.drain()).isEqualTo(20);
+
+        assertThat(SMTP.delivered()).hasSize(20);
+        assertThat(SMTP.connections()).isLessThanOrEqualTo(2);
+        assertThat(mailRepository.countByStatus(MailStatus.SENT)).isEqualTo(20);
+        assertThat(dispatcher.drain()).isZero();
+    }
+
+    @Test
+    void rejectedRecipientIsRetriedThenDeadLettered() {
+        mailQueue.enqueue("ok@test.com", "Hi", "<p>ok</p>");
+        mailQueue.enqueue("bounce@test.com", "Hi", "<p>bounce</p>");
+
+        dispatcher.drain();
+        OutboundMail bounced = findByRecipient("bounce@test.com");
+        assertThat(bounced.getStatus()).isEqualTo(MailStatus.PENDING);
+        assertThat(bounced.getAttempts()).isEqualTo(1);
+        assertThat(bounced.getLastError()).isNotBlank();
+        assertThat(findByRecipient("ok@test.com").getStatus()).isEqualTo(MailStatus.SENT);
+
+        dispatcher.drain();
+        dispatcher.drain();
+        bounced = findByRecipient("bounce@test.com");
+        assertThat(bounced.getStatus()).isEqualTo(MailStatus.DEAD);
+        assertThat(bounced.getAttempts()).isEqualTo(3);
+        assertThat(dispatcher.drain()).isZero();
+        assertThat(SMTP.delivered()).containsExactly("ok@test.com");
+    }
+
+    @Test
+    void expiredLeaseIsReclaimed() {
+        mailQueue.enqueue("crashed@test.com", "Hi", "<p>hi</p>");
+        OutboundMail mail = findByRecipient("crashed@test.com");
+        // giả lập worker khác đã claim rồi chết
+        mail.setStatus(MailStatus.SENDING);
+        mail.setClaimToken("dead-worker");
+        mail.setLeaseUntil(LocalDateTime.now().minusMinutes(1));
+        mailRepository.save(mail);
+
+        assertThat(dispatcher.drain()).isEqualTo(1);
+        assertThat(findByRecipient("crashed@test.com").getStatus()).isEqualTo(MailStatus.SENT);
+    }
+
+    @Test
+    void onePollDrainsAtMostMaxBatchesPerPoll() {
+        for (int i = 0; i < 12; i++) {
+            mailQueue.enqueue("user" + i + "@test.com", "Subject " + i, "<p>Hello " + i + "</p>");
+        }
+        MailDispatcher d = new MailDispatcher(mailRepository, mailSender, 1, 5, 2, 3,
+                Duration.ZERO, Duration.ofHours(1), Duration.ofMinutes(5), "from@test.com", "Test");
+
+        d.poll();
+
+        // 2 lô x 5 mail; phần còn lại chờ lượt poll sau
+        assertThat(mailRepository.countByStatus(MailStatus.SENT)).isEqualTo(10);
+        assertThat(mailRepository.countByStatus(MailStatus.PENDING)).isEqualTo(2);
+        d.shutdown();
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        MailDispatcher d = new MailDispatcher(mailRepository, null, 1, 10, 10, 8,
+                Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5), "from@test.com", "Test");
+
+        assertThat(d.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(d.backoff(4)).isEqualTo(Duration.ofMinutes(4));
+        assertThat(d.backoff(30)).isEqualTo(Duration.ofHours(1));
+    }
+
+    private OutboundMail findByRecipient(String recipient) {
+        List<OutboundMail> all = mailRepository.findAll();
+        return all.stream().filter(m -> m.getRecipient().equals(recipient)).findFirst().orElseThrow();
+    }
+
+    private static FakeSmtpServer startSmtp() {
+        try {
+            return new FakeSmtpServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TestConfiguration
+    static class FakeSmtpConfig {
+        @Bean
+        JavaMailSender javaMailSender() {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(SMTP.port());
+            return sender;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.car_rental_server.service.outbox;
+
+import com.example.car_rental_server.enums.OutboxChannel;
+import com.example.car_rental_server.enums.OutboxStatus;
+import com.example.car_rental_server.model.OutboxEvent;
+import com.example.car_rental_server.repository.INotificationRepository;
+import com.example.car_rental_server.repository.IOutboxEventRepository;
+import com.example.car_rental_server.service.notification.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({NotificationService.class, OutboxService.class, OutboxRelay.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = {"app.outbox.backoff-base=0s", "app.outbox.max-attempts=2"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // relay chỉ thấy dữ liệu đã commit
+class OutboxRelayTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private IOutboxService outboxService;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private IOutboxEventRepository outboxRepository;
+
+    @Autowired
+    private INotificationRepository notificationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        outboxRepository.deleteAll();
+        notificationRepository.deleteAll();
+    }
+
+    @Test
+    void notificationIsPublishedAfterCommitWithEventId() {
+        transactionTemplate.executeWithoutResult(status ->
+                notificationService.notifyOwnerNewBooking(7L, "Vios", "An", LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 3)));
+
+        verify(messagingTemplate, timeout(5000)).convertAndSend(eq("/topic/notifications-user-7"), any(Object.class),
+                argThat((Map<String, Object> headers) -> headers.get(OutboxRelay.EVENT_ID_HEADER) != null));
+        assertThat(notificationRepository.count()).isEqualTo(1);
+        waitUntilPublished(1);
+    }
+
+    @Test
+    void rolledBackChangeLeavesNoEvent() {
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationService.notifyOwnerRequest(3L, "Binh");
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(relay.drain()).isZero();
+        verify(messagingTemplate, never()).convertAndSend(any(String.class), any(Object.class), anyMap());
+    }
+
+    @Test
+    void enqueueRequiresTransaction() {
+        assertThatThrownBy(() -> outboxService.enqueue(OutboxChannel.STOMP, "/topic/x", Map.of("a", 1)))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    void failedPublishIsRetriedThenDeadLettered() {
+        OutboxEvent event = outboxRepository.save(event("/topic/owner-request"));
+        doThrow(new MessagingException("broker down")).doNothing()
+                .when(messagingTemplate).convertAndSend(eq("/topic/owner-request"), any(Object.class), anyMap());
+
+        relay.drain();
+        OutboxEvent afterFailure = outboxRepository.findById(event.getId()).orElseThrow();
+        assertThat(afterFailure.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(afterFailure.getLastError()).contains("broker down");
+
+        relay.drain();
+        assertThat(outboxRepository.findById(event.getId()).orElseThrow().getStatus()).isEqualTo(OutboxStatus.PUBLISHED);
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/owner-request"), any(Object.class), anyMap());
+
+        OutboxEvent poison = outboxRepository.save(event("/topic/poison"));
+        doThrow(new MessagingException("bad")).when(messagingTemplate).convertAndSend(eq("/topic/poison"), any(Object.class), anyMap());
+        relay.drain();
+        relay.drain();
+        assertThat(outboxRepository.findById(poison.getId()).orElseThrow().getStatus()).isEqualTo(OutboxStatus.DEAD);
+        assertThat(relay.drain()).isZero();
+    }
+
+    @Test
+    void eventWithExpiredLeaseIsPublishedAgain() {
+        OutboxEvent event = event("/topic/vehicle-submitted");
+        event.setStatus(OutboxStatus.PUBLISHING);
+        event.setClaimToken("crashed-relay");
+        event.setLeaseUntil(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(event);
+        doNothing().when(messagingTemplate).convertAndSend(any(String.class), any(Object.class), anyMap());
+
+        assertThat(relay.drain()).isEqualTo(1);
+        waitUntilPublished(1);
+    }
+
+    private void waitUntilPublished(long expected) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (outboxRepository.countByChannelAndStatus(OutboxChannel.STOMP, OutboxStatus.PUBLISHED) < expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(outboxRepository.countByChannelAndStatus(OutboxChannel.STOMP, OutboxStatus.PUBLISHED)).isEqualTo(expected);
+    }
+
+    private static OutboxEvent event(String destination) {
+        LocalDateTime now = LocalDateTime.now();
+        return OutboxEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .channel(OutboxChannel.STOMP)
+                .destination(destination)
+                .payload("{\"content\":\"hello\"}")
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+}
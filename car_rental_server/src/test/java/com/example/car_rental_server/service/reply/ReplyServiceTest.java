@@ -0,0 +1,178 @@
+package com.example.car_rental_server.service.reply;
+
+import com.example.car_rental_server.dto.CursorPageDTO;
+import com.example.car_rental_server.dto.ReplyDTO;
+import com.example.car_rental_server.enums.VehicleStatus;
+import com.example.car_rental_server.model.PostVehicle;
+import com.example.car_rental_server.model.Review;
+import com.example.car_rental_server.model.User;
+import com.example.car_rental_server.repository.IPostVehicleRepository;
+import com.example.car_rental_server.repository.IReplyRepository;
+import com.example.car_rental_server.repository.IReviewRepository;
+import com.example.car_rental_server.repository.IUserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({ReplyService.class, ReplyTreeCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // createReply phải commit để chạy afterCommit
+class ReplyServiceTest {
+
+    @Autowired
+    private ReplyService replyService;
+
+    @Autowired
+    private ReplyTreeCache replyTreeCache;
+
+    @Autowired
+    private IReplyRepository replyRepo;
+
+    @Autowired
+    private IReviewRepository reviewRepo;
+
+    @Autowired
+    private IPostVehicleRepository vehicleRepo;
+
+    @Autowired
+    private IUserRepository userRepo;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private Long reviewId;
+
+    @BeforeEach
+    void setUp() {
+        User author = new User();
+        author.setName("Author");
+        author.setEmail("reply-author@test.com");
+        userRepo.save(author);
+
+        PostVehicle vehicle = new PostVehicle();
+        vehicle.setVehicleName("Car");
+        vehicle.setStatus(VehicleStatus.AVAILABLE);
+        vehicle = vehicleRepo.save(vehicle);
+
+        Review review = new Review();
+        review.setRating(4);
+        review.setVehicle(vehicle);
+        reviewId = reviewRepo.save(review).getId();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("reply-author@test.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        replyTreeCache.evict(reviewId);
+        replyRepo.deleteAll();
+        reviewRepo.deleteAll();
+        vehicleRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void deepChainIsFlattenedBelowDisplayDepthWithoutRecursion() {
+        Long parentId = null;
+        for (int i = 0; i < 2000; i++) {
+            parentId = replyService.createReply(reviewId, parentId, "reply " + i).getId();
+        }
+        replyTreeCache.evict(reviewId);
+
+        List<ReplyDTO> roots = replyService.getRepliesTreeForReview(reviewId);
+
+        assertThat(roots).hasSize(1);
+        ReplyDTO level2 = roots.get(0).getChildren().get(0);
+        ReplyDTO level3 = level2.getChildren().get(0);
+        // mọi reply sâu hơn 3 đều nằm dưới node ở độ sâu 3
+        assertThat(level3.getChildren()).hasSize(1997);
+        assertThat(level3.getChildren().get(0).getReplyToId()).isEqualTo(level3.getId());
+        assertThat(replyRepo.findById(parentId).orElseThrow().getDepth()).isEqualTo(2000);
+    }
+
+    @Test
+    void cachedTreeIsServedWithoutQueriesAndNewRepliesAreAppended() {
+        ReplyDTO root = replyService.createReply(reviewId, null, "root");
+        replyService.createReply(reviewId, root.getId(), "child");
+        replyService.getRepliesTreeForReview(reviewId); // warm
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ReplyDTO> cached = replyService.getRepliesTreeForReview(reviewId);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(cached.get(0).getChildren()).hasSize(1);
+
+        // bản trả về là copy: sửa nó không ảnh hưởng cache
+        cached.get(0).getChildren().clear();
+
+        ReplyDTO grandChild = replyService.createReply(reviewId, cached.get(0).getId(), "second child");
+        statistics.clear();
+        List<ReplyDTO> afterInsert = replyService.getRepliesTreeForReview(reviewId);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(afterInsert.get(0).getChildren()).extracting(ReplyDTO::getContent)
+                .containsExactly("child", "second child");
+        assertThat(afterInsert.get(0).getChildren().get(1).getId()).isEqualTo(grandChild.getId());
+        assertThat(afterInsert.get(0).getChildren().get(1).getReplyToUserName()).isEqualTo("Author");
+    }
+
+    @Test
+    void appendingAReplyAlreadyInTheLoadedTreeDoesNotDuplicateIt() {
+        ReplyDTO root = replyService.createReply(reviewId, null, "root");
+        replyService.createReply(reviewId, root.getId(), "child");
+        ReplyDTO loadedChild = replyService.getRepliesTreeForReview(reviewId).get(0).getChildren().get(0);
+
+        // afterCommit của "child" chạy sau khi tree đã được load kèm chính nó
+        replyTreeCache.append(reviewId, loadedChild, 2);
+
+        List<ReplyDTO> roots = replyTreeCache.get(reviewId);
+        assertThat(roots).hasSize(1);
+        assertThat(roots.get(0).getChildren()).extracting(ReplyDTO::getContent).containsExactly("child");
+    }
+
+    @Test
+    void topLevelRepliesArePagedWithChildCountAndChildrenExpandLazily() {
+        Long firstRootId = null;
+        for (int i = 0; i < 5; i++) {
+            Long id = replyService.createReply(reviewId, null, "root " + i).getId();
+            if (i == 0) firstRootId = id;
+        }
+        for (int i = 0; i < 3; i++) {
+            replyService.createReply(reviewId, firstRootId, "child " + i);
+        }
+
+        CursorPageDTO<ReplyDTO> first = replyService.getTopLevelReplies(reviewId, null, 2);
+        assertThat(first.getItems()).extracting(ReplyDTO::getContent).containsExactly("root 0", "root 1");
+        assertThat(first.getItems().get(0).getChildCount()).isEqualTo(3);
+        assertThat(first.getItems().get(0).getChildren()).isEmpty();
+        assertThat(first.getItems().get(1).getChildCount()).isZero();
+        assertThat(first.isHasNext()).isTrue();
+
+        CursorPageDTO<ReplyDTO> last = replyService.getTopLevelReplies(reviewId, first.getNextCursor(), 3);
+        assertThat(last.getItems()).extracting(ReplyDTO::getContent).containsExactly("root 2", "root 3", "root 4");
+        assertThat(last.isHasNext()).isFalse();
+
+        CursorPageDTO<ReplyDTO> children = replyService.getChildReplies(reviewId, firstRootId, null, 2);
+        assertThat(children.getItems()).extracting(ReplyDTO::getContent).containsExactly("child 0", "child 1");
+        assertThat(children.getItems().get(0).getReplyToUserName()).isEqualTo("Author");
+        CursorPageDTO<ReplyDTO> moreChildren = replyService.getChildReplies(reviewId, firstRootId, children.getNextCursor(), 2);
+        assertThat(moreChildren.getItems()).extracting(ReplyDTO::getContent).containsExactly("child 2");
+    }
+}
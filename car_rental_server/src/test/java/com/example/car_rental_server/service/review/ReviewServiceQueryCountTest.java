@@ -0,0 +1,131 @@
+package com.example.car_rental_server.service.review;
+
+import com.example.car_rental_server.dto.ReviewDTO;
+import com.example.car_rental_server.enums.VehicleStatus;
+import com.example.car_rental_server.model.PostVehicle;
+import com.example.car_rental_server.model.Review;
+import com.example.car_rental_server.model.ReviewVote;
+import com.example.car_rental_server.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({ReviewService.class, VehicleRatingStatsService.class})
+class ReviewServiceQueryCountTest {
+
+    private static final int REVIEWS = 20;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    private Statistics statistics;
+    private PostVehicle vehicle;
+
+    @BeforeEach
+    void setUp() {
+        vehicle = new PostVehicle();
+        vehicle.setVehicleName("Car");
+        vehicle.setStatus(VehicleStatus.AVAILABLE);
+        em.persist(vehicle);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < REVIEWS; i++) {
+            User u = new User();
+            u.setName("User " + i);
+            u.setEmail("reviewer" + i + "@test.com");
+            em.persist(u);
+            users.add(u);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < REVIEWS; i++) {
+            Review r = new Review();
+            r.setRating(1 + i % 5);
+            r.setContent("Review " + i);
+            r.setCreatedAt(now.minusMinutes(i));
+            r.setVehicle(vehicle);
+            r.setUser(users.get(i));
+            r.setHelpfulCount(3L);
+            r.setNotHelpfulCount(1L);
+            em.persist(r);
+            // 3 helpful + 1 not helpful per review; viewer (user 0) votes helpful
+            for (int j = 0; j < 4; j++) {
+                em.persist(ReviewVote.builder().review(r).user(users.get(j)).helpful(j != 3).build());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("reviewer0@test.com", null, List.of()));
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void reviewPageIssuesConstantQueryCountRegardlessOfPageSize() {
+        long small = countStatements(5);
+        long large = countStatements(REVIEWS);
+
+        assertThat(large).isEqualTo(small);
+        // page select + count + viewer lookup + viewer votes (counts come from the counter columns)
+        assertThat(large).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void cursorPageUsesBatchedVoteQueries() {
+        em.clear();
+        statistics.clear();
+
+        List<ReviewDTO> items = reviewService.getReviewsForVehicleByCursor(vehicle.getId(), null, REVIEWS).getItems();
+
+        assertThat(items).hasSize(REVIEWS);
+        // keyset select + viewer lookup + viewer votes
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    private long countStatements(int size) {
+        em.clear();
+        statistics.clear();
+
+        Page<ReviewDTO> page = reviewService.getReviewsForVehicle(vehicle.getId(), 0, size);
+
+        assertThat(page.getContent()).hasSize(size);
+        page.getContent().forEach(dto -> {
+            assertThat(dto.getHelpfulCount()).isEqualTo(3);
+            assertThat(dto.getNotHelpfulCount()).isEqualTo(1);
+            assertThat(dto.getUserVote()).isEqualTo(1);
+            assertThat(dto.getUserName()).startsWith("User ");
+        });
+        return statistics.getPrepareStatementCount();
+    }
+}
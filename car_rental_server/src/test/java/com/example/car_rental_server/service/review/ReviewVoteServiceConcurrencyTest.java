@@ -0,0 +1,145 @@
+package com.example.car_rental_server.service.review;
+
+import com.example.car_rental_server.enums.VehicleStatus;
+import com.example.car_rental_server.model.PostVehicle;
+import com.example.car_rental_server.model.Review;
+import com.example.car_rental_server.model.User;
+import com.example.car_rental_server.repository.IPostVehicleRepository;
+import com.example.car_rental_server.repository.IReviewRepository;
+import com.example.car_rental_server.repository.IReviewVoteRepository;
+import com.example.car_rental_server.repository.IUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import(ReviewVoteService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // mỗi toggle tự commit như khi chạy thật
+class ReviewVoteServiceConcurrencyTest {
+
+    private static final int USERS = 40;
+    private static final int TOGGLES = 800;
+
+    @Autowired
+    private ReviewVoteService reviewVoteService;
+
+    @Autowired
+    private IReviewRepository reviewRepo;
+
+    @Autowired
+    private IReviewVoteRepository voteRepo;
+
+    @Autowired
+    private IPostVehicleRepository vehicleRepo;
+
+    @Autowired
+    private IUserRepository userRepo;
+
+    private Long reviewId;
+    private final List<String> emails = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        PostVehicle vehicle = new PostVehicle();
+        vehicle.setVehicleName("Car");
+        vehicle.setStatus(VehicleStatus.AVAILABLE);
+        vehicle = vehicleRepo.save(vehicle);
+
+        Review review = new Review();
+        review.setRating(5);
+        review.setVehicle(vehicle);
+        reviewId = reviewRepo.save(review).getId();
+
+        for (int i = 0; i < USERS; i++) {
+            User u = new User();
+            u.setName("Voter " + i);
+            u.setEmail("voter" + i + "@test.com");
+            emails.add(userRepo.save(u).getEmail());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        voteRepo.deleteAll();
+        reviewRepo.deleteAll();
+        vehicleRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void countersStayExactUnderParallelToggles() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        Random random = new Random(7);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < TOGGLES; i++) {
+            // cùng một user có thể toggle song song (double-click) -> có request bị từ chối, counter vẫn phải đúng
+            String email = emails.get(random.nextInt(USERS));
+            boolean helpful = random.nextBoolean();
+            futures.add(pool.submit(() -> {
+                start.await();
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(email, null, List.of()));
+                try {
+                    reviewVoteService.toggleVote(reviewId, helpful);
+                } catch (RuntimeException ignored) {
+                    // xung đột với request song song của cùng user: client retry
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        long helpfulVotes = voteRepo.findAll().stream().filter(v -> v.getHelpful()).count();
+        long notHelpfulVotes = voteRepo.count() - helpfulVotes;
+        Review review = reviewRepo.findById(reviewId).orElseThrow();
+
+        assertThat(review.getHelpfulCount()).isEqualTo(helpfulVotes);
+        assertThat(review.getNotHelpfulCount()).isEqualTo(notHelpfulVotes);
+    }
+
+    @Test
+    void toggleReturnsCountsFromCounterColumns() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(emails.get(0), null, List.of()));
+
+        ReviewVoteService.VoteResult first = reviewVoteService.toggleVote(reviewId, true);
+        assertThat(first.helpfulCount).isEqualTo(1);
+        assertThat(first.userVote).isEqualTo(1);
+
+        ReviewVoteService.VoteResult switched = reviewVoteService.toggleVote(reviewId, false);
+        assertThat(switched.helpfulCount).isZero();
+        assertThat(switched.notHelpfulCount).isEqualTo(1);
+        assertThat(switched.userVote).isEqualTo(-1);
+
+        ReviewVoteService.VoteResult removed = reviewVoteService.toggleVote(reviewId, false);
+        assertThat(removed.notHelpfulCount).isZero();
+        assertThat(removed.userVote).isZero();
+    }
+}
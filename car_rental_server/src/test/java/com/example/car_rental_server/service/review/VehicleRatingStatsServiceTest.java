@@ -0,0 +1,125 @@
+package com.example.car_rental_server.service.review;
+
+import com.example.car_rental_server.dto.RatingSummaryDTO;
+import com.example.car_rental_server.enums.VehicleStatus;
+import com.example.car_rental_server.model.PostVehicle;
+import com.example.car_rental_server.model.Review;
+import com.example.car_rental_server.repository.IVehicleRatingStatsRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import(VehicleRatingStatsService.class)
+class VehicleRatingStatsServiceTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private VehicleRatingStatsService ratingStatsService;
+
+    @Autowired
+    private IVehicleRatingStatsRepository statsRepo;
+
+    private PostVehicle vehicle;
+
+    @BeforeEach
+    void setUp() {
+        vehicle = new PostVehicle();
+        vehicle.setVehicleName("Car");
+        vehicle.setStatus(VehicleStatus.AVAILABLE);
+        em.persist(vehicle);
+        em.flush();
+    }
+
+    @Test
+    void incrementalStatsMatchFullRebuild() {
+        int[] ratings = {5, 4, 4, 1, 3, 5, 5};
+        for (int rating : ratings) {
+            addReview(rating);
+            ratingStatsService.recordRating(vehicle.getId(), rating);
+            em.flush();
+            em.clear();
+        }
+
+        RatingSummaryDTO incremental = ratingStatsService.getSummary(vehicle.getId());
+        assertThat(incremental.getCount()).isEqualTo(7);
+        assertThat(incremental.getS5()).isEqualTo(3);
+        assertThat(incremental.getS4()).isEqualTo(2);
+        assertThat(incremental.getS2()).isZero();
+        assertThat(incremental.getAverage()).isEqualTo(27.0 / 7);
+
+        PostVehicle reloaded = em.find(PostVehicle.class, vehicle.getId());
+        assertThat(reloaded.getRating()).isEqualTo(27.0 / 7);
+        assertThat(reloaded.getReviewsCount()).isEqualTo(7);
+
+        ratingStatsService.rebuild(vehicle.getId());
+        em.flush();
+        em.clear();
+        assertThat(ratingStatsService.getSummary(vehicle.getId())).isEqualTo(incremental);
+    }
+
+    @Test
+    void rebuildAllBackfillsMissingRows() {
+        addReview(2);
+        addReview(4);
+        em.flush();
+        assertThat(statsRepo.findById(vehicle.getId())).isEmpty();
+        // chưa backfill: summary vẫn đúng (tính từ bảng reviews)
+        assertThat(ratingStatsService.getSummary(vehicle.getId()).getAverage()).isEqualTo(3.0);
+
+        assertThat(ratingStatsService.rebuildAll()).isEqualTo(1);
+        em.flush();
+        em.clear();
+
+        assertThat(statsRepo.findById(vehicle.getId())).hasValueSatisfying(stats -> {
+            assertThat(stats.getReviewCount()).isEqualTo(2);
+            assertThat(stats.getRatingSum()).isEqualTo(6);
+        });
+    }
+
+    @Test
+    void rebuildAllResetsVehiclesWhoseReviewsAreGone() {
+        addReview(5);
+        em.flush();
+        ratingStatsService.rebuildAll();
+        em.flush();
+        em.clear();
+        assertThat(em.find(PostVehicle.class, vehicle.getId()).getReviewsCount()).isEqualTo(1);
+
+        // review bị xoá ngoài luồng ReviewService (không cập nhật stats)
+        em.createQuery("DELETE FROM Review r WHERE r.vehicle.id = :id").setParameter("id", vehicle.getId()).executeUpdate();
+        assertThat(ratingStatsService.rebuildAll()).isZero();
+        em.flush();
+        em.clear();
+
+        PostVehicle reloaded = em.find(PostVehicle.class, vehicle.getId());
+        assertThat(reloaded.getRating()).isZero();
+        assertThat(reloaded.getReviewsCount()).isZero();
+        assertThat(statsRepo.findById(vehicle.getId())).isEmpty();
+    }
+
+    @Test
+    void summaryForVehicleWithoutReviewsIsEmpty() {
+        RatingSummaryDTO summary = ratingStatsService.getSummary(UUID.randomUUID());
+        assertThat(summary.getCount()).isZero();
+        assertThat(summary.getAverage()).isZero();
+    }
+
+    private void addReview(int rating) {
+        Review review = new Review();
+        review.setRating(rating);
+        review.setVehicle(em.getReference(PostVehicle.class, vehicle.getId()));
+        em.persist(review);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.car_rental_server.service.stats;
+
+import com.example.car_rental_server.enums.BookingStatus;
+import com.example.car_rental_server.enums.VehicleStatus;
+import com.example.car_rental_server.model.Booking;
+import com.example.car_rental_server.model.DailyBookingStats;
+import com.example.car_rental_server.model.DailyVehicleBookingStats;
+import com.example.car_rental_server.model.PostVehicle;
+import com.example.car_rental_server.model.User;
+import com.example.car_rental_server.repository.IBookingRepository;
+import com.example.car_rental_server.repository.IDailyBookingStatsRepository;
+import com.example.car_rental_server.repository.IDailyVehicleBookingStatsRepository;
+import com.example.car_rental_server.repository.IPostVehicleRepository;
+import com.example.car_rental_server.repository.IUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import(BookingStatsService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // dòng stats rỗng được tạo trong transaction riêng
+class BookingStatsServiceTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2021, 3, 10);
+    private static final LocalDate DAY_2 = DAY_1.plusDays(1);
+
+    @Autowired
+    private IBookingStatsService statsService;
+
+    @Autowired
+    private IBookingRepository bookingRepo;
+
+    @Autowired
+    private IUserRepository userRepo;
+
+    @Autowired
+    private IPostVehicleRepository vehicleRepo;
+
+    @Autowired
+    private IDailyBookingStatsRepository dailyRepo;
+
+    @Autowired
+    private IDailyVehicleBookingStatsRepository vehicleDailyRepo;
+
+    private User alice;
+    private User bob;
+    private PostVehicle car1;
+    private PostVehicle car2;
+
+    @BeforeEach
+    void setUp() {
+        alice = user("alice");
+        bob = user("bob");
+        car1 = vehicle("Car 1", alice);
+        car2 = vehicle("Car 2", alice);
+    }
+
+    @AfterEach
+    void tearDown() {
+        vehicleDailyRepo.deleteAll();
+        dailyRepo.deleteAll();
+        bookingRepo.deleteAll();
+        vehicleRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullRebuild() {
+        create(alice, car1, DAY_1.atTime(9, 0), 100.0);
+        create(alice, car2, DAY_1.atTime(10, 0), 50.0);
+        Booking cancelled = create(bob, car1, DAY_1.atTime(11, 0), 70.0);
+        Booking completed = create(bob, car2, DAY_2.atTime(8, 0), 30.0);
+        changeStatus(cancelled, BookingStatus.CANCELLED);
+        changeStatus(completed, BookingStatus.CONFIRMED);
+        changeStatus(completed, BookingStatus.COMPLETED);
+
+        DailyBookingStats day1 = dailyRepo.findById(DAY_1).orElseThrow();
+        assertThat(day1.getBookings()).isEqualTo(3);
+        assertThat(day1.getRevenue()).isEqualTo(220.0);
+        assertThat(day1.getCustomers()).isEqualTo(2);
+        assertThat(day1.getPendingCount()).isEqualTo(2);
+        assertThat(day1.getPendingRevenue()).isEqualTo(150.0);
+        assertThat(day1.getCancelledCount()).isEqualTo(1);
+        assertThat(day1.getCancelledRevenue()).isEqualTo(70.0);
+        DailyBookingStats day2 = dailyRepo.findById(DAY_2).orElseThrow();
+        assertThat(day2.getCompletedCount()).isEqualTo(1);
+        assertThat(day2.getConfirmedCount()).isZero();
+        assertThat(day2.getPendingCount()).isZero();
+
+        List<String> incremental = snapshot();
+        assertThat(statsService.rebuild(DAY_1, DAY_2)).isEqualTo(2);
+        assertThat(snapshot()).isEqualTo(incremental);
+    }
+
+    @Test
+    void rebuildCorrectsDriftAndBackfillOnlyRunsOnAnEmptyRollup() {
+        // booking ghi thẳng vào DB, không qua recordCreated
+        bookingRepo.save(booking(alice, car1, DAY_1.atTime(9, 0), 40.0));
+        bookingRepo.save(booking(bob, car1, DAY_1.atTime(12, 0), 60.0));
+
+        assertThat(statsService.backfillIfEmpty()).isEqualTo(1);
+        DailyBookingStats day1 = dailyRepo.findById(DAY_1).orElseThrow();
+        assertThat(day1.getBookings()).isEqualTo(2);
+        assertThat(day1.getRevenue()).isEqualTo(100.0);
+        assertThat(day1.getCustomers()).isEqualTo(2);
+        assertThat(vehicleDailyRepo.findAll()).singleElement()
+                .extracting(DailyVehicleBookingStats::getBookings).isEqualTo(2L);
+
+        assertThat(statsService.backfillIfEmpty()).isZero();
+    }
+
+    private Booking create(User user, PostVehicle vehicle, LocalDateTime at, double amount) {
+        Booking saved = bookingRepo.save(booking(user, vehicle, at, amount));
+        statsService.recordCreated(saved);
+        return saved;
+    }
+
+    private void changeStatus(Booking booking, BookingStatus to) {
+        BookingStatus from = booking.getStatus();
+        booking.setStatus(to);
+        statsService.recordStatusChange(bookingRepo.save(booking), from);
+    }
+
+    private List<String> snapshot() {
+        List<String> rows = dailyRepo.findAll().stream()
+                .sorted(Comparator.comparing(DailyBookingStats::getStatDate))
+                .map(s -> s.getStatDate() + " " + s.getBookings() + " " + s.getRevenue() + " " + s.getCustomers()
+                        + " P" + s.getPendingCount() + "/" + s.getPendingRevenue()
+                        + " C" + s.getConfirmedCount() + "/" + s.getConfirmedRevenue()
+                        + " A" + s.getActiveCount() + "/" + s.getActiveRevenue()
+                        + " D" + s.getCompletedCount() + "/" + s.getCompletedRevenue()
+                        + " X" + s.getCancelledCount() + "/" + s.getCancelledRevenue())
+                .collect(Collectors.toList());
+        vehicleDailyRepo.findAll().stream()
+                .map(v -> v.getId().getStatDate() + " " + v.getId().getVehicleId() + " " + v.getBookings())
+                .sorted()
+                .forEach(rows::add);
+        return rows;
+    }
+
+    private Booking booking(User user, PostVehicle vehicle, LocalDateTime at, double amount) {
+        return Booking.builder()
+                .user(user)
+                .owner(vehicle.getOwner())
+                .vehicle(vehicle)
+                .startDate(at.toLocalDate().plusDays(7))
+                .endDate(at.toLocalDate().plusDays(8))
+                .totalAmount(amount)
+                .status(BookingStatus.PENDING)
+                .bookingDate(at)
+                .build();
+    }
+
+    private User user(String name) {
+        User u = new User();
+        u.setName(name);
+        u.setEmail(name + "-stats@test.com");
+        return userRepo.save(u);
+    }
+
+    private PostVehicle vehicle(String name, User owner) {
+        PostVehicle v = new PostVehicle();
+        v.setVehicleName(name);
+        v.setDailyPrice(50.0);
+        v.setStatus(VehicleStatus.AVAILABLE);
+        v.setOwner(owner);
+        return vehicleRepo.save(v);
+    }
+}
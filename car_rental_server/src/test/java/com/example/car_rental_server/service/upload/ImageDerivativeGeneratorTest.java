@@ -0,0 +1,82 @@
+package com.example.car_rental_server.service.upload;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageDerivativeGeneratorTest {
+
+    @Test
+    void largePhotoYieldsFixedThumbnailAndWidthBoundedMedium() throws IOException {
+        ImageDerivativeGenerator generator = generator(64_000_000);
+        byte[] source = png(4000, 3000);
+
+        ImageDerivatives derivatives = generator.render(new ByteArrayInputStream(source));
+
+        BufferedImage thumbnail = decode(derivatives.thumbnail());
+        BufferedImage medium = decode(derivatives.medium());
+        assertThat(thumbnail.getWidth()).isEqualTo(400);
+        assertThat(thumbnail.getHeight()).isEqualTo(300);
+        assertThat(medium.getWidth()).isEqualTo(1280);
+        assertThat(medium.getHeight()).isEqualTo(960);
+        assertThat(derivatives.thumbnail().length).isLessThan(derivatives.medium().length);
+    }
+
+    @Test
+    void portraitImageIsCenterCroppedToTheSameThumbnailSize() throws IOException {
+        ImageDerivatives derivatives = generator(64_000_000).render(new ByteArrayInputStream(png(600, 1200)));
+
+        BufferedImage thumbnail = decode(derivatives.thumbnail());
+        assertThat(thumbnail.getWidth()).isEqualTo(400);
+        assertThat(thumbnail.getHeight()).isEqualTo(300);
+        // ảnh nhỏ hơn medium-width thì giữ nguyên kích thước
+        assertThat(decode(derivatives.medium()).getWidth()).isEqualTo(600);
+    }
+
+    @Test
+    void decodeIsSubsampledToStayWithinThePixelBudget() throws IOException {
+        int budget = 200_000;
+        ImageDerivatives derivatives = generator(budget).render(new ByteArrayInputStream(png(4000, 3000)));
+
+        BufferedImage medium = decode(derivatives.medium());
+        assertThat((long) medium.getWidth() * medium.getHeight()).isLessThanOrEqualTo(budget);
+        assertThat(decode(derivatives.thumbnail()).getWidth()).isEqualTo(400);
+    }
+
+    @Test
+    void nonImageContentYieldsNoDerivatives() throws IOException {
+        byte[] notAnImage = "%PDF-1.4 not an image".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(generator(64_000_000).render(new ByteArrayInputStream(notAnImage))).isNull();
+    }
+
+    static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.BLUE, width, height, new Color(255, 120, 0, 128)));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static ImageDerivativeGenerator generator(int pixelBudget) {
+        return new ImageDerivativeGenerator(400, 300, 1280, 0.8f, pixelBudget, Duration.ofSeconds(5));
+    }
+
+    private static BufferedImage decode(byte[] jpeg) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(jpeg));
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.car_rental_server.service.upload;
+
+import com.example.car_rental_server.model.ImageVariant;
+import com.example.car_rental_server.model.StoredImage;
+import com.example.car_rental_server.repository.IStoredImageRepository;
+import com.example.car_rental_server.utils.CloudinaryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // worker thread phải thấy dữ liệu đã commit
+class ImageUploadPipelineTest {
+
+    private static final long UPLOAD_DELAY_MS = 300;
+
+    @Autowired
+    private IStoredImageRepository storedImageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StubUploadServer stub;
+    private final ImageDerivativeGenerator derivativeGenerator =
+            new ImageDerivativeGenerator(400, 300, 1280, 0.8f, 64_000_000, Duration.ofSeconds(5));
+    private CloudinaryService cloudinaryService;
+    private ImageStore imageStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubUploadServer(UPLOAD_DELAY_MS);
+        cloudinaryService = new CloudinaryService("demo", "key", "secret", stub.url());
+        imageStore = newImageStore();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+        storedImageRepository.deleteAll();
+    }
+
+    @Test
+    void imagesOfOneRequestAreUploadedConcurrentlyInOrder() {
+        ImageUploadPipeline pipeline = new ImageUploadPipeline(imageStore, 8, 64);
+        int tempFilesBefore = countTempUploads();
+
+        long start = System.nanoTime();
+        List<String> urls = pipeline.uploadAll(files("a", "b", "c", "d", "e"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(urls).extracting(u -> u.substring(u.lastIndexOf('/') + 1))
+                .containsExactly("a.jpg", "b.jpg", "c.jpg", "d.jpg", "e.jpg");
+        assertThat(stub.maxInFlight()).isEqualTo(5);
+        // tuần tự sẽ mất 5 x 300ms
+        assertThat(elapsedMs).isLessThan(UPLOAD_DELAY_MS * 3);
+        assertThat(countTempUploads()).isEqualTo(tempFilesBefore);
+        pipeline.shutdown();
+    }
+
+    @Test
+    void firstFailureCancelsQueuedUploadsAndRemovesFinishedOnes() throws InterruptedException {
+        ImageUploadPipeline pipeline = new ImageUploadPipeline(imageStore, 2, 64);
+
+        assertThatThrownBy(() -> pipeline.uploadAll(files("alpha", "FAIL", "charlie", "delta")))
+                .isInstanceOf(ImageUploadException.class)
+                .extracting(e -> ((ImageUploadException) e).getFileName())
+                .isEqualTo("FAIL.jpg");
+
+        // alpha đang chạy khi lỗi xảy ra (charlie có thể đã được worker nhận hay chưa):
+        // upload nào đã lên thì khi xong phải tự xoá khỏi Cloudinary
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!(stub.destroyed("alpha") && stub.uploaded().stream().allMatch(stub::destroyed)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(stub.uploaded()).contains("alpha").doesNotContain("delta");
+        assertThat(stub.uploaded()).allMatch(stub::destroyed);
+        assertThat(storedImageRepository.count()).isZero();
+        pipeline.shutdown();
+    }
+
+    @Test
+    void duplicateContentReusesStoredUrlWithoutUploading() {
+        ImageUploadPipeline pipeline = new ImageUploadPipeline(imageStore, 8, 64);
+        List<String> first = pipeline.uploadAll(files("alpha", "bravo"));
+
+        List<String> again = pipeline.uploadAll(files("bravo", "alpha", "bravo"));
+        assertThat(again).containsExactly(first.get(1), first.get(0), first.get(1));
+        assertThat(stub.uploaded()).containsExactlyInAnyOrder("alpha", "bravo");
+
+        // LRU trống (vd. restart / instance khác): vẫn tìm thấy trong bảng stored_images
+        StoredUpload avatar = newImageStore().store(("img:alpha;").getBytes(StandardCharsets.UTF_8));
+        assertThat(avatar.created()).isFalse();
+        assertThat(avatar.url()).isEqualTo(first.get(0));
+        assertThat(stub.uploaded()).hasSize(2);
+        assertThat(storedImageRepository.count()).isEqualTo(2);
+        pipeline.shutdown();
+    }
+
+    @Test
+    void failedRequestDoesNotDeleteReusedImages() {
+        ImageUploadPipeline pipeline = new ImageUploadPipeline(imageStore, 8, 64);
+        String shared = pipeline.uploadAll(files("alpha")).get(0);
+
+        assertThatThrownBy(() -> pipeline.uploadAll(files("alpha", "FAIL")))
+                .isInstanceOf(ImageUploadException.class);
+
+        assertThat(stub.destroyed("alpha")).isFalse();
+        assertThat(storedImageRepository.findAll()).extracting(StoredImage::getUrl).containsExactly(shared);
+        pipeline.shutdown();
+    }
+
+    @Test
+    void discardingAStagedUploadKeepsTheCopyAnotherRequestPublished() {
+        StoredUpload staged = imageStore.stage(new StreamOnlyMultipartFile("alpha"));
+        // Request khác upload cùng nội dung và publish xong trước khi request này bị huỷ
+        StoredUpload other = newImageStore().store(new StreamOnlyMultipartFile("alpha"));
+
+        imageStore.discard(staged);
+
+        assertThat(stub.destroyed("alpha")).isFalse();
+        assertThat(storedImageRepository.findById(other.contentHash()))
+                .map(StoredImage::getUrl).contains(other.url());
+    }
+
+    @Test
+    void stagedUploadIsNotReusedUntilPublished() {
+        StoredUpload staged = imageStore.stage(new StreamOnlyMultipartFile("alpha"));
+        assertThat(staged.created()).isTrue();
+        assertThat(storedImageRepository.count()).isZero();
+
+        StoredUpload again = imageStore.stage(new StreamOnlyMultipartFile("alpha"));
+        assertThat(again.created()).isTrue();
+        assertThat(stub.uploaded()).containsExactly("alpha", "alpha");
+
+        assertThat(imageStore.publish(staged).created()).isTrue();
+        // Thua khi publish: trả về bản đã ghi, không trùng dòng
+        StoredUpload loser = imageStore.publish(again);
+        assertThat(loser.created()).isFalse();
+        assertThat(loser.url()).isEqualTo(staged.url());
+        assertThat(storedImageRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void newImagesGetThumbnailAndMediumRecordedNextToTheOriginal() throws IOException {
+        ImageUploadPipeline pipeline = new ImageUploadPipeline(imageStore, 8, 64);
+        MockMultipartFile photo = new MockMultipartFile("images", "car.png", "image/png",
+                ImageDerivativeGeneratorTest.png(2000, 1500));
+
+        String url = pipeline.uploadAll(new MultipartFile[]{photo}).get(0);
+
+        // ảnh gốc + thumbnail + medium
+        assertThat(stub.uploaded()).hasSize(3);
+        StoredImage stored = storedImageRepository.findAll().get(0);
+        assertThat(stored.getUrl()).isEqualTo(url);
+        assertThat(stored.getThumbnailUrl()).isNotNull().isNotEqualTo(url);
+        assertThat(stored.getMediumUrl()).isNotNull().isNotEqualTo(url);
+        assertThat(imageStore.variantsFor(List.of(url, "https://example.com/legacy.jpg")))
+                .extracting(ImageVariant::getThumbnailUrl)
+                .containsExactly(stored.getThumbnailUrl(), null);
+        pipeline.shutdown();
+    }
+
+    @Test
+    void derivativesAreRenderedWhenTransferToMovesThePart() throws IOException {
+        ImageUploadPipeline pipeline = new ImageUploadPipeline(imageStore, 8, 64);
+        // Như part của Tomcat nằm trên đĩa: transferTo move file, sau đó getInputStream hỏng
+        MultipartFile photo = new MovingMultipartFile("car.png", ImageDerivativeGeneratorTest.png(2000, 1500));
+
+        String url = pipeline.uploadAll(new MultipartFile[]{photo}).get(0);
+
+        StoredImage stored = storedImageRepository.findAll().get(0);
+        assertThat(stored.getUrl()).isEqualTo(url);
+        assertThat(stored.getThumbnailUrl()).isNotNull();
+        assertThat(stored.getMediumUrl()).isNotNull();
+        assertThat(stub.uploaded()).hasSize(3);
+        pipeline.shutdown();
+    }
+
+    @Test
+    void storedImageWithoutRenditionsIsCompletedOnNextUpload() throws IOException {
+        byte[] png = ImageDerivativeGeneratorTest.png(800, 600);
+        StoredUpload first = imageStore.store(png);
+        // Giả lập lần trước upload rendition thất bại
+        StoredImage row = storedImageRepository.findById(first.contentHash()).orElseThrow();
+        row.setThumbnailUrl(null);
+        row.setMediumUrl(null);
+        storedImageRepository.save(row);
+
+        StoredUpload again = newImageStore().store(png);
+
+        assertThat(again.created()).isFalse();
+        assertThat(again.url()).isEqualTo(first.url());
+        assertThat(again.thumbnailUrl()).isNotNull();
+        StoredImage filled = storedImageRepository.findById(first.contentHash()).orElseThrow();
+        assertThat(filled.getThumbnailUrl()).isEqualTo(again.thumbnailUrl());
+        assertThat(filled.getMediumUrl()).isEqualTo(again.mediumUrl());
+    }
+
+    private ImageStore newImageStore() {
+        return new ImageStore(cloudinaryService, derivativeGenerator, storedImageRepository, transactionManager, 100);
+    }
+
+    private static MultipartFile[] files(String... names) {
+        MultipartFile[] files = new MultipartFile[names.length];
+        for (int i = 0; i < names.length; i++) {
+            files[i] = new StreamOnlyMultipartFile(names[i]);
+        }
+        return files;
+    }
+
+    private static int countTempUploads() {
+        String[] names = new File(System.getProperty("java.io.tmpdir")).list((dir, name) -> name.startsWith("upload-"));
+        return names == null ? 0 : names.length;
+    }
+
+    // Part trên đĩa: transferTo chuyển (move) file như Tomcat, không copy như MockMultipartFile
+    private static final class MovingMultipartFile implements MultipartFile {
+        private final String originalFilename;
+        private final Path location;
+        private final long size;
+
+        MovingMultipartFile(String originalFilename, byte[] content) throws IOException {
+            this.originalFilename = originalFilename;
+            this.location = Files.createTempFile("part-", ".tmp");
+            Files.write(location, content);
+            this.size = content.length;
+        }
+
+        @Override
+        public String getName() {
+            return "images";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/png";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("uploads must stream from the temp file");
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(location);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.move(location, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Bắt buộc đi qua transferTo (file tạm), không cho đọc cả file lên heap
+    private static final class StreamOnlyMultipartFile extends MockMultipartFile {
+        StreamOnlyMultipartFile(String name) {
+            super("images", name + ".jpg", "image/jpeg", ("img:" + name + ";").getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("uploads must stream from the temp file");
+        }
+    }
+}
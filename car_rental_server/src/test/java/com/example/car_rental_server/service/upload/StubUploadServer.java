@@ -0,0 +1,106 @@
+package com.example.car_rental_server.service.upload;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the Cloudinary upload API (point cloudinary.upload_prefix at {@link #url()}).
+ * An uploaded file whose content contains "img:NAME" is answered with a secure_url ending in NAME.jpg
+ * (other content gets unnamedN.jpg) after {@code delayMillis}; content containing "FAIL" is
+ * answered with HTTP 500 right away.
+ * Tracks peak concurrency, uploaded names and destroy requests.
+ */
+class StubUploadServer implements AutoCloseable {
+    private static final Pattern NAME = Pattern.compile("img:(\\w+)");
+
+    private final HttpServer server;
+    private final long delayMillis;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger unnamed = new AtomicInteger();
+    private final List<String> uploaded = new CopyOnWriteArrayList<>();
+    private final List<String> destroyBodies = new CopyOnWriteArrayList<>();
+
+    StubUploadServer(long delayMillis) throws IOException {
+        this.delayMillis = delayMillis;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "stub-upload");
+            t.setDaemon(true);
+            return t;
+        }));
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    List<String> uploaded() {
+        return uploaded;
+    }
+
+    boolean destroyed(String name) {
+        return destroyBodies.stream().anyMatch(b -> b.contains(name));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+        }
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/destroy")) {
+            destroyBodies.add(body);
+            respond(exchange, 200, "{\"result\":\"ok\"}");
+            return;
+        }
+        if (body.contains("FAIL")) {
+            respond(exchange, 500, "{\"error\":{\"message\":\"stub failure\"}}");
+            return;
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        Matcher m = NAME.matcher(body);
+        String name = m.find() ? m.group(1) : "unnamed" + unnamed.incrementAndGet();
+        uploaded.add(name);
+        respond(exchange, 200, "{\"secure_url\":\"https://res.cloudinary.com/demo/image/upload/v1/" + name + ".jpg\"}");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
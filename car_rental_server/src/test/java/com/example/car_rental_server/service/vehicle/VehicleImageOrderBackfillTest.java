@@ -0,0 +1,60 @@
+package com.example.car_rental_server.service.vehicle;
+
+import com.example.car_rental_server.enums.VehicleStatus;
+import com.example.car_rental_server.model.PostVehicle;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import(VehicleImageOrderBackfill.class)
+class VehicleImageOrderBackfillTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private VehicleImageOrderBackfill backfill;
+
+    @Test
+    void imagesWithGapsInTheirNumberingAreRenumberedInOrder() {
+        PostVehicle broken = vehicle("Broken", List.of());
+        PostVehicle intact = vehicle("Intact", List.of("x-0", "x-1"));
+        em.flush();
+        insertImage(broken, "b-second", 7);
+        insertImage(broken, "b-first", 3);
+        em.clear();
+
+        assertThat(backfill.numberUnorderedImages()).isEqualTo(1);
+        em.clear();
+
+        assertThat(em.find(PostVehicle.class, broken.getId()).getImageList()).containsExactly("b-first", "b-second");
+        assertThat(em.find(PostVehicle.class, intact.getId()).getImageList()).containsExactly("x-0", "x-1");
+        assertThat(backfill.numberUnorderedImages()).isZero();
+    }
+
+    private PostVehicle vehicle(String name, List<String> images) {
+        PostVehicle v = new PostVehicle();
+        v.setVehicleName(name);
+        v.setStatus(VehicleStatus.AVAILABLE);
+        v.setImageList(images);
+        em.persist(v);
+        return v;
+    }
+
+    private void insertImage(PostVehicle v, String url, int order) {
+        em.createNativeQuery("INSERT INTO vehicle_images (vehicle_id, image_list, image_order) VALUES (:id, :url, :idx)")
+                .setParameter("id", v.getId())
+                .setParameter("url", url)
+                .setParameter("idx", order)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.car_rental_server.service.vehicle;
+
+import com.example.car_rental_server.dto.PostVehicleDTO;
+import com.example.car_rental_server.dto.VehicleCardView;
+import com.example.car_rental_server.dto.VehicleSearchRequestDTO;
+import com.example.car_rental_server.enums.VehicleStatus;
+import com.example.car_rental_server.model.ImageVariant;
+import com.example.car_rental_server.model.PostVehicle;
+import com.example.car_rental_server.model.User;
+import com.example.car_rental_server.service.booking.VehicleAvailabilityIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({VehicleService.class, VehicleAvailabilityIndex.class})
+class VehicleServiceQueryCountTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 30; i++) {
+            User owner = new User();
+            owner.setName("Owner " + i);
+            owner.setEmail("owner" + i + "@test.com");
+            em.persist(owner);
+
+            PostVehicle v = new PostVehicle();
+            v.setVehicleName("Car " + i);
+            v.setBrand("Toyota");
+            v.setDailyPrice(50.0 + i);
+            v.setStatus(VehicleStatus.AVAILABLE);
+            v.setImageList(List.of("img-" + i + "-a", "img-" + i + "-b"));
+            v.setImageVariants(List.of(
+                    new ImageVariant("img-" + i + "-a", "thumb-" + i + "-a", "medium-" + i + "-a"),
+                    new ImageVariant("img-" + i + "-b", "thumb-" + i + "-b", "medium-" + i + "-b")));
+            v.setFeatures(List.of("GPS", "Bluetooth"));
+            v.setOwner(owner);
+            em.persist(v);
+        }
+        em.flush();
+        em.clear();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void searchVehiclesIssuesConstantQueryCountRegardlessOfPageSize() {
+        long smallPage = countStatements(5);
+        long largePage = countStatements(25);
+
+        assertThat(largePage).isEqualTo(smallPage);
+        // page select + count + images IN (...) + features IN (...)
+        assertThat(largePage).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void vehicleCardsAreProjectedWithoutLoadingEntities() {
+        em.clear();
+        statistics.clear();
+
+        Page<VehicleCardView> cards = vehicleService.getVehicleCards(0, 25, "price_asc");
+
+        assertThat(cards.getContent()).hasSize(25);
+        assertThat(cards.getContent().get(0).getVehicleName()).isEqualTo("Car 0");
+        assertThat(cards.getContent().get(0).getFirstImage()).isEqualTo("img-0-a");
+        assertThat(cards.getContent().get(0).getFirstThumbnail()).isEqualTo("thumb-0-a");
+        // page select + count, no entity or collection loads
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void cardShowsTheFirstUploadedImageNotTheSmallestUrl() {
+        PostVehicle v = new PostVehicle();
+        v.setVehicleName("Cheapest");
+        v.setDailyPrice(1.0);
+        v.setStatus(VehicleStatus.AVAILABLE);
+        v.setImageList(List.of("https://cdn/zz-cover.jpg", "https://cdn/aa-interior.jpg"));
+        v.setImageVariants(List.of(
+                new ImageVariant("https://cdn/zz-cover.jpg", "thumb-cover", "medium-cover"),
+                new ImageVariant("https://cdn/aa-interior.jpg", "thumb-interior", "medium-interior")));
+        em.persist(v);
+        em.flush();
+        em.clear();
+
+        VehicleCardView card = vehicleService.getVehicleCards(0, 1, "price_asc").getContent().get(0);
+
+        assertThat(card.getVehicleName()).isEqualTo("Cheapest");
+        assertThat(card.getFirstImage()).isEqualTo("https://cdn/zz-cover.jpg");
+        assertThat(card.getFirstThumbnail()).isEqualTo("thumb-cover");
+    }
+
+    private long countStatements(int size) {
+        em.clear();
+        statistics.clear();
+
+        VehicleSearchRequestDTO request = new VehicleSearchRequestDTO();
+        request.setSize(size);
+        Page<PostVehicleDTO> page = vehicleService.searchVehicles(request);
+
+        assertThat(page.getContent()).hasSize(size);
+        page.getContent().forEach(dto -> {
+            assertThat(dto.getImageList()).hasSize(2);
+            assertThat(dto.getFeatures()).hasSize(2);
+            assertThat(dto.getOwnerId()).isNotNull();
+        });
+        return statistics.getPrepareStatementCount();
+    }
+}
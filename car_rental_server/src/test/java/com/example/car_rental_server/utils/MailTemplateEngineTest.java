@@ -0,0 +1,57 @@
+package com.example.car_rental_server.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MailTemplateEngineTest {
+
+    private MailTemplateEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        engine = new MailTemplateEngine();
+        engine.loadAll();
+    }
+
+    @Test
+    void compiledTemplateSubstitutesAndEscapesValues() {
+        MailTemplateEngine.CompiledTemplate t = MailTemplateEngine.compile("<p>Hi ${name}, ${name}!</p><a href=\"${url}\">x</a>");
+        StringBuilder out = new StringBuilder();
+
+        t.renderTo(out, Map.of("name", "<b>Tom & \"Jerry\"</b>", "url", "https://x.test/?a=1&b=2"));
+
+        assertThat(out.toString()).isEqualTo(
+                "<p>Hi &lt;b&gt;Tom &amp; &quot;Jerry&quot;&lt;/b&gt;, &lt;b&gt;Tom &amp; &quot;Jerry&quot;&lt;/b&gt;!</p>"
+                        + "<a href=\"https://x.test/?a=1&amp;b=2\">x</a>");
+    }
+
+    @Test
+    void missingPlaceholderIsKeptAndNullRendersEmpty() {
+        MailTemplateEngine.CompiledTemplate t = MailTemplateEngine.compile("${a}|${b}|${c");
+        Map<String, Object> values = new HashMap<>();
+        values.put("a", null);
+        StringBuilder out = new StringBuilder();
+
+        t.renderTo(out, values);
+
+        assertThat(out.toString()).isEqualTo("|${b}|${c");
+    }
+
+    @Test
+    void bundledTemplatesArePreloadedAndRendered() {
+        String html = engine.render("email-templates/verify-email-otp.html",
+                Map.of("userName", "An", "otp", "123456", "year", "2025"));
+
+        assertThat(html).contains("123456").contains("An").doesNotContain("${otp}").doesNotContain("${userName}");
+        // render lại dùng chung buffer nhưng kết quả độc lập
+        String other = engine.render("email-templates/verify-email-otp.html",
+                Map.of("userName", "Binh", "otp", "654321", "year", "2025"));
+        assertThat(html).doesNotContain("654321");
+        assertThat(other).contains("654321");
+    }
+}